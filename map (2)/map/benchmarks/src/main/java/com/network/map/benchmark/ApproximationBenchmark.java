@@ -0,0 +1,86 @@
+package com.network.map.benchmark;
+
+import com.network.map.NetworkMap;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+import com.network.map.util.ErrorMetrics;
+import com.network.map.util.SurfaceApproximation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Аппроксимация карты каждым методом ({@link ApproximationMethod})
+ * и вычисление погрешностей ({@link ErrorMetrics#compute})
+ * в однопоточном режиме
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ApproximationBenchmark {
+    @Param({"250", "500", "1000"})
+    public int mapSize;
+
+    @Param({"3", "7", "12"})
+    public int polynomPow;
+
+    @Param({"1", "2"})
+    public int approximationScale;
+
+    @Param({"MONOMIAL", "ORTHOGONAL", "SPLINE", "TILED", "SUBSAMPLED"})
+    public ApproximationMethod method;
+
+    private NetworkMap map;
+    private Surface approximatedSurface;
+
+    @Setup
+    public void setUp() {
+        map = BenchmarkMaps.generate(mapSize, 10, SurfacePrecision.DOUBLE);
+        approximatedSurface = method.approximate(map, approximationScale, polynomPow, false);
+    }
+
+    /**
+     * Построение аппроксимации без вычисления поверхности,
+     * как в экспериментах и при аппроксимации из интерфейса
+     */
+    @Benchmark
+    public SurfaceApproximation fit() {
+        return method.fit(map.getSurfaceData(), polynomPow, false);
+    }
+
+    /**
+     * Аппроксимация с созданием поверхности
+     */
+    @Benchmark
+    public Surface approximate() {
+        return method.approximate(map, approximationScale, polynomPow, false);
+    }
+
+    /**
+     * Аппроксимация в поверхность, созданную заранее:
+     * выделение памяти без учета результата
+     */
+    @Benchmark
+    public Surface approximateInto() {
+        return method.approximate(map, approximationScale, polynomPow, approximatedSurface, false);
+    }
+
+    @Benchmark
+    public ErrorMetrics errorMetrics() {
+        return ErrorMetrics.compute(map.getSurfaceData(), approximatedSurface, false);
+    }
+}
@@ -0,0 +1,51 @@
+package com.network.map.benchmark;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.NetworkMap;
+import com.network.map.NetworkMapImpl;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.surface.SurfacePrecision;
+
+import java.util.Random;
+
+/**
+ * Карты для бенчмарков. Источники сигнала расставляются
+ * с фиксированным зерном, поэтому при одинаковых параметрах
+ * все запуски измеряют одну и ту же карту
+ */
+final class BenchmarkMaps {
+    private static final long SEED = 1;
+    private static final double MAX_PIKE_VALUE = 10;
+    private static final double MIN_DEGRADATION_SPEED = 0;
+    private static final double MAX_DEGRADATION_SPEED = 0.5;
+
+    private BenchmarkMaps() {
+    }
+
+    /**
+     * @param mapSize      Ширина и высота карты
+     * @param signalsCount Кол-во источников сигнала
+     * @param precision    Точность хранения уровня сигнала
+     * @return Параметры генерации квадратной карты
+     */
+    static MapGenerationConfig config(int mapSize, int signalsCount, SurfacePrecision precision) {
+        return MapGenerationConfig.builder()
+                .surfaceWidth(mapSize)
+                .surfaceHeight(mapSize)
+                .signals(MapGenerationConfig.randomSignals(mapSize, mapSize, signalsCount, MAX_PIKE_VALUE,
+                        MIN_DEGRADATION_SPEED, MAX_DEGRADATION_SPEED, new Random(SEED)))
+                .surfacePrecision(precision)
+                .build();
+    }
+
+    /**
+     * @param mapSize      Ширина и высота карты
+     * @param signalsCount Кол-во источников сигнала
+     * @param precision    Точность хранения уровня сигнала
+     * @return Сгенерированная карта
+     */
+    static NetworkMap generate(int mapSize, int signalsCount, SurfacePrecision precision) {
+        return new NetworkMapImpl(new GenerateClosedFormStrategy(true))
+                .generate(config(mapSize, signalsCount, precision));
+    }
+}
@@ -0,0 +1,24 @@
+package com.network.map.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск бенчмарков с профилировщиком GC: кроме времени
+ * выводятся скорость выделения памяти (gc.alloc.rate)
+ * и объем памяти, выделенной за операцию (gc.alloc.rate.norm).
+ * Принимает аргументы командной строки JMH
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
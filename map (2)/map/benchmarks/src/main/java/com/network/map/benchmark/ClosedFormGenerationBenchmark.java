@@ -0,0 +1,83 @@
+package com.network.map.benchmark;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация карты {@link GenerateClosedFormStrategy} целиком
+ * (в одном потоке и полосами тайлов параллельно) и локальное
+ * обновление при перемещении одного источника. Разница показывает,
+ * во сколько раз правка источника дешевле полной генерации
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ClosedFormGenerationBenchmark {
+    @Param({"250", "500", "1000"})
+    public int mapSize;
+
+    @Param({"10", "50"})
+    public int signalsCount;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private MapGenerationConfig config;
+    private GenerateClosedFormStrategy strategy;
+    private Surface map;
+    private int[] contributors;
+    private int[] from;
+    private int[] to;
+    private boolean moved;
+
+    @Setup
+    public void setUp() {
+        config = BenchmarkMaps.config(mapSize, signalsCount, SurfacePrecision.DOUBLE);
+        strategy = new GenerateClosedFormStrategy(parallel);
+        map = new DoubleSurface(mapSize, mapSize);
+        contributors = new int[mapSize * mapSize];
+        strategy.generate(map, contributors, config);
+        MapGenerationConfig.Signal signal = config.getSignals().get(0);
+        from = new int[]{signal.getX(), signal.getY()};
+        to = new int[]{(signal.getX() + mapSize / 2) % mapSize, (signal.getY() + mapSize / 2) % mapSize};
+    }
+
+    /**
+     * Карта создается в каждом вызове, как в {@link com.network.map.NetworkMapImpl#generate}
+     */
+    @Benchmark
+    public Surface generate() {
+        return strategy.generate(new DoubleSurface(mapSize, mapSize), config);
+    }
+
+    /**
+     * Перемещение первого источника на полкарты и обратно
+     * через вызов, поэтому карта между вызовами не накапливает изменений
+     */
+    @Benchmark
+    public Surface moveSignal() {
+        int[] target = moved ? from : to;
+        strategy.moveSignal(map, contributors, config, 0, target[0], target[1]);
+        moved = !moved;
+        return map;
+    }
+}
@@ -0,0 +1,60 @@
+package com.network.map.benchmark;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.genstrategy.GenerateSimpleStrategy;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация карты {@link GenerateSimpleStrategy}.
+ * Коррекция артефактов {@link GenerateSimpleStrategy.WhiteZonesCorrection#NEIGHBOURS}
+ * (correctWhiteZones) измеряется вместе с генерацией, разница
+ * с {@link GenerateSimpleStrategy.WhiteZonesCorrection#CHAMFER} показывает ее стоимость
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class GenerationBenchmark {
+    @Param({"250", "500", "1000"})
+    public int mapSize;
+
+    @Param({"10", "50"})
+    public int signalsCount;
+
+    @Param({"CHAMFER", "NEIGHBOURS"})
+    public GenerateSimpleStrategy.WhiteZonesCorrection correction;
+
+    private MapGenerationConfig config;
+    private GenerateSimpleStrategy strategy;
+
+    @Setup
+    public void setUp() {
+        config = BenchmarkMaps.config(mapSize, signalsCount, SurfacePrecision.DOUBLE);
+        strategy = new GenerateSimpleStrategy(correction, false);
+    }
+
+    /**
+     * Карта создается в каждом вызове, как в {@link com.network.map.NetworkMapImpl#generate}
+     */
+    @Benchmark
+    public Surface generate() {
+        return strategy.generate(new DoubleSurface(mapSize, mapSize), config);
+    }
+}
@@ -0,0 +1,67 @@
+package com.network.map.benchmark;
+
+import com.network.map.NetworkMap;
+import com.network.map.NetworkMapImpl;
+import com.network.map.surface.SurfacePrecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сохранение и загрузка карты ({@link NetworkMapImpl#saveToFile},
+ * {@link NetworkMapImpl#loadFromFile}) во временный файл
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SerializationBenchmark {
+    @Param({"250", "500", "1000"})
+    public int mapSize;
+
+    @Param({"DOUBLE", "FLOAT", "SHORT"})
+    public SurfacePrecision precision;
+
+    private NetworkMap map;
+    private File savedFile;
+    private File loadedFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        map = BenchmarkMaps.generate(mapSize, 10, precision);
+        savedFile = File.createTempFile("map-save", ".bin");
+        loadedFile = File.createTempFile("map-load", ".bin");
+        map.saveToFile(loadedFile.getPath());
+    }
+
+    @TearDown
+    public void tearDown() {
+        savedFile.delete();
+        loadedFile.delete();
+    }
+
+    @Benchmark
+    public NetworkMap saveToFile() {
+        return map.saveToFile(savedFile.getPath());
+    }
+
+    @Benchmark
+    public NetworkMap loadFromFile() {
+        return new NetworkMapImpl().loadFromFile(loadedFile.getPath());
+    }
+}
@@ -0,0 +1,99 @@
+package com.network.map.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нормальные системы метода наименьших квадратов для всех строк
+ * квадратной карты из points точек, как в {@link MonomialApproximation}:
+ * подготовка системы ({@link NormalEquations}), вычисление свободных
+ * членов строк и решение всех систем одним блоком ({@link BatchedLinearSolver}).
+ * Классы решателя доступны только в пакете, поэтому бенчмарк
+ * находится в пакете com.network.map.util
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalEquationsBenchmark {
+    @Param({"250", "1000"})
+    public int points;
+
+    @Param({"3", "7", "12", "20"})
+    public int polynomPow;
+
+    private double[] x;
+    private double[][] rows;
+    private NormalEquations equations;
+    private double[][] rightHandSides;
+    private double[][] b;
+
+    /**
+     * Случайные значения строк и свободные члены всех строк
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        x = ApproximationUtils.createAbscissas(points);
+        rows = new double[points][points];
+        for (double[] row : rows) {
+            for (int k = 0; k < points; k++) {
+                row[k] = random.nextDouble();
+            }
+        }
+        equations = new NormalEquations(x, polynomPow);
+        rightHandSides = new double[polynomPow + 1][points];
+        for (int row = 0; row < points; row++) {
+            equations.rightHandSide(rows[row], rightHandSides, row);
+        }
+        b = new double[polynomPow + 1][points];
+    }
+
+    /**
+     * Таблица степеней абсцисс, матрица системы и ее LU-разложение
+     */
+    @Benchmark
+    public NormalEquations prepare() {
+        return new NormalEquations(x, polynomPow);
+    }
+
+    /**
+     * Свободные члены всех строк и решение их систем
+     */
+    @Benchmark
+    public double[][] fitRows() {
+        for (int row = 0; row < points; row++) {
+            equations.rightHandSide(rows[row], b, row);
+        }
+        equations.solve(b);
+        return b;
+    }
+
+    /**
+     * Только подстановка по готовому разложению. Решение
+     * записывается на место свободных членов, поэтому они
+     * копируются в каждом вызове
+     */
+    @Benchmark
+    public double[][] solve() {
+        for (int i = 0; i < b.length; i++) {
+            System.arraycopy(rightHandSides[i], 0, b[i], 0, points);
+        }
+        equations.solve(b);
+        return b;
+    }
+}
@@ -1,9 +1,21 @@
 package com.network;
 
+import com.network.map.batch.BatchRunner;
 import com.network.map.ui.form.MainForm;
 
+import java.util.Arrays;
+
 public class Main {
+    /**
+     * Запуск приложения. С аргументом {@link BatchRunner#BATCH_OPTION}
+     * файлы параметров обрабатываются без графического интерфейса
+     *
+     * @param args Аргументы командной строки
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && BatchRunner.BATCH_OPTION.equals(args[0])) {
+            System.exit(BatchRunner.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
         new MainForm();
     }
 }
\ No newline at end of file
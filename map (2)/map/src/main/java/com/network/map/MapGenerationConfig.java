@@ -1,9 +1,13 @@
 package com.network.map;
 
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,9 +19,94 @@ import java.util.Random;
 @Data
 @Builder
 public class MapGenerationConfig implements Serializable {
+    /**
+     * Совпадает с версией класса без настроек точности,
+     * чтобы сохраненные ранее карты загружались
+     */
+    private static final long serialVersionUID = 49250647290540703L;
+
     private int surfaceWidth;
     private int surfaceHeight;
     private List<Signal> signals = new ArrayList();
+    /**
+     * Точность хранения уровня сигнала на карте
+     */
+    @Builder.Default
+    private SurfacePrecision surfacePrecision = SurfacePrecision.DOUBLE;
+    /**
+     * Шаг квантования уровня сигнала для {@link SurfacePrecision#SHORT}
+     */
+    @Builder.Default
+    private double quantizationScale = 0.01;
+    /**
+     * Уровень сигнала, соответствующий коду 0, для {@link SurfacePrecision#SHORT}
+     */
+    @Builder.Default
+    private double quantizationOffset = 0;
+
+    /**
+     * Создать пустую карту размером surfaceWidth x surfaceHeight
+     * с заданной точностью хранения
+     *
+     * @return Поверхность, заполненная нулями
+     */
+    public Surface createSurface() {
+        return precision().create(surfaceWidth, surfaceHeight, quantizationScale, quantizationOffset);
+    }
+
+    /**
+     * @return Объем карты в памяти с заданной точностью хранения, байт
+     */
+    public long getSurfaceSizeInBytes() {
+        return (long) surfaceWidth * surfaceHeight * precision().getBytes();
+    }
+
+    private SurfacePrecision precision() {
+        return surfacePrecision != null ? surfacePrecision : SurfacePrecision.DOUBLE;
+    }
+
+    /**
+     * Параметры, сохраненные до появления настроек точности,
+     * получают значения по умолчанию
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (surfacePrecision == null) {
+            surfacePrecision = SurfacePrecision.DOUBLE;
+            quantizationScale = 0.01;
+        }
+    }
+
+    /**
+     * Расставить источники сигнала случайно
+     *
+     * @param width               Ширина карты
+     * @param height              Высота карты
+     * @param count               Кол-во источников
+     * @param maxPikeValue        Верхняя граница уровня сигнала в вершине источника
+     * @param minDegradationSpeed Нижняя граница скорости спада сигнала
+     * @param maxDegradationSpeed Верхняя граница скорости спада сигнала
+     * @param random              Генератор случайных чисел
+     * @return Источники сигнала
+     */
+    public static List<Signal> randomSignals(int width, int height, int count, double maxPikeValue,
+                                             double minDegradationSpeed, double maxDegradationSpeed,
+                                             Random random) {
+        if (width <= 0 || height <= 0 || count < 0
+                || minDegradationSpeed < 0 || maxDegradationSpeed < minDegradationSpeed) {
+            throw new IllegalArgumentException("Некорректные параметры источников сигнала");
+        }
+        List<Signal> signals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            signals.add(new Signal(
+                    random.nextInt(width),
+                    random.nextInt(height),
+                    random.nextDouble() * maxPikeValue,
+                    minDegradationSpeed + random.nextDouble() * (maxDegradationSpeed - minDegradationSpeed)
+            ));
+        }
+        return signals;
+    }
 
     /**
      * Источник сигнала
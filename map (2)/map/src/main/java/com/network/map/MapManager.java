@@ -1,16 +1,35 @@
 package com.network.map;
 
+import com.network.map.cache.ApproximationResult;
+import com.network.map.cache.CacheKey;
+import com.network.map.cache.ResultCache;
+import com.network.map.experiment.ExperimentGrid;
+import com.network.map.experiment.GridExperiment;
+import com.network.map.experiment.PolynomPowExperiment;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.surface.Surface;
 import com.network.map.ui.SurfaceGraphics;
-import com.network.map.util.ApproximationUtils;
+import com.network.map.util.ApproximatedSurface;
+import com.network.map.util.ApproximationMethod;
+import com.network.map.util.ErrorMetrics;
+import com.network.map.util.ProgressiveApproximation;
+import com.network.map.util.SurfaceApproximation;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.SneakyThrows;
+import lombok.Setter;
 import org.knowm.xchart.QuickChart;
-import org.knowm.xchart.SwingWrapper;
+import org.knowm.xchart.XChartPanel;
 import org.knowm.xchart.XYChart;
 
-import java.util.Arrays;
+import javax.swing.*;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 /**
  * Сервис, представляющий собой прослойку
@@ -18,43 +37,216 @@ import java.util.Map;
  */
 @Getter
 public class MapManager {
-    private static final int POLYNOM_POW_EXPERIMENT_APPROXIMATION_SCALE = 1;
     private static final String MAP_SAVE_FILE_PATH = "D:/map.txt";
     private NetworkMap map;
-    private double[][] generatedSurface;
-    private double[][] approximatedSurface;
+    /**
+     * Снимок текущей карты вместе с ключом кэша ее генерации.
+     * Снимок, переданный в другой поток или в кэш, не изменяется.
+     * Пока снимок не передан, правка источника обновляет в нем
+     * только измененную область (копирование при записи)
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile GeneratedMap generatedMap;
+    /**
+     * Окно сгенерированной карты (только в потоке интерфейса)
+     */
+    @Getter(AccessLevel.NONE)
+    private SurfaceGraphics generatedSurfaceGraphics;
+    /**
+     * Последняя аппроксимация: поверхность и ее погрешности
+     * публикуются вместе
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Approximation approximation;
+    /**
+     * Номер последнего запуска аппроксимации. Результат
+     * запуска публикуется, только если запуск не заменен новым
+     */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong approximationRun = new AtomicLong();
+    @Setter
+    private ApproximationMethod approximationMethod = ApproximationMethod.ORTHOGONAL;
+    /**
+     * Пул потоков для экспериментов
+     */
+    @Setter
+    private ExecutorService experimentExecutor = ForkJoinPool.commonPool();
+    /**
+     * Кэш сгенерированных карт и аппроксимаций
+     * (null - кэш отключен). По умолчанию занимает
+     * не больше четверти кучи
+     */
+    @Setter
+    private ResultCache resultCache = new ResultCache(Runtime.getRuntime().maxMemory() / 4);
 
+    /**
+     * Карта генерируется стратегией {@link GenerateClosedFormStrategy},
+     * которая поддерживает локальное обновление при изменении источников
+     */
     public MapManager() {
-        map = new NetworkMapImpl();
+        map = new NetworkMapImpl(new GenerateClosedFormStrategy());
     }
 
     /**
-     * Сгенерировать карту с заданными параметрами
+     * @param generateStrategy Стратегия генерации карты
+     */
+    public MapManager(GenerateStrategy generateStrategy) {
+        map = new NetworkMapImpl(generateStrategy);
+    }
+
+    /**
+     * Сгенерировать карту с заданными параметрами.
+     * Карта, уже сгенерированная с теми же параметрами,
+     * берется из кэша
      *
      * @param mapGenerationConfig
      */
     public void generate(MapGenerationConfig mapGenerationConfig) {
-        map.generate(mapGenerationConfig);
-        generatedSurface = Arrays.stream(map.getSurface())
-                .map(double[]::clone)
-                .toArray(double[][]::new);
+        String key = generationCacheKey(mapGenerationConfig);
+        Surface cached = key != null ? resultCache.get(key) : null;
+        if (cached != null) {
+            // Карта изменяется при изменении источников, поэтому из кэша берется копия
+            ((NetworkMapImpl) map).restore(mapGenerationConfig, cached.copy());
+        } else {
+            map.generate(mapGenerationConfig);
+            cached = map.getSurfaceData().copy();
+            if (key != null) {
+                resultCache.put(key, cached, mapGenerationConfig.getSurfaceSizeInBytes());
+            }
+        }
+        // Снимок карты не изменяется, поэтому один и тот же
+        // снимок хранится в кэше и отображается
+        publishGeneratedMap(new GeneratedMap(cached, key, true));
     }
 
     /**
-     * Отобразить поверхность сгенерированной карты
-     * в новом окне
+     * Добавить источник сигнала на сгенерированную карту
+     *
+     * @param signal Источник сигнала
+     */
+    public void addSignal(MapGenerationConfig.Signal signal) {
+        map.addSignal(signal);
+        refreshGeneratedSurface();
+    }
+
+    /**
+     * Переместить источник сигнала сгенерированной карты
+     *
+     * @param signal Источник сигнала
+     * @param x      Новая координата x
+     * @param y      Новая координата y
+     */
+    public void moveSignal(MapGenerationConfig.Signal signal, int x, int y) {
+        map.moveSignal(signal, x, y);
+        refreshGeneratedSurface();
+    }
+
+    /**
+     * Удалить источник сигнала со сгенерированной карты
+     *
+     * @param signal Источник сигнала
+     */
+    public void removeSignal(MapGenerationConfig.Signal signal) {
+        map.removeSignal(signal);
+        refreshGeneratedSurface();
+    }
+
+    /**
+     * Снять снимок карты после изменения. Ключ кэша вычисляется
+     * вместе со снимком, пока параметры карты не изменяются.
+     * Если прежний снимок никому не передан, в него копируется
+     * только область, измененной правкой источника
+     */
+    private synchronized void refreshGeneratedSurface() {
+        MapGenerationConfig mapGenerationConfig = null;
+        int[] changedBounds = null;
+        if (map instanceof NetworkMapImpl) {
+            mapGenerationConfig = ((NetworkMapImpl) map).getMapGenerationConfig();
+            changedBounds = ((NetworkMapImpl) map).getChangedBounds();
+        }
+        String key = generationCacheKey(mapGenerationConfig);
+        Surface surface = map.getSurfaceData();
+        GeneratedMap current = generatedMap;
+        if (current != null && !current.shared && changedBounds != null
+                && current.surface.getWidth() == surface.getWidth()
+                && current.surface.getHeight() == surface.getHeight()) {
+            copyBounds(surface, current.surface, changedBounds);
+            generatedMap = new GeneratedMap(current.surface, key, false);
+        } else {
+            generatedMap = new GeneratedMap(surface.copy(), key, false);
+        }
+    }
+
+    private synchronized void publishGeneratedMap(GeneratedMap generatedMap) {
+        this.generatedMap = generatedMap;
+    }
+
+    /**
+     * Взять снимок карты для использования в другом потоке.
+     * После этого снимок больше не изменяется
+     *
+     * @return Снимок карты или null, если карта не сгенерирована
+     */
+    private synchronized GeneratedMap shareGeneratedMap() {
+        GeneratedMap generatedMap = this.generatedMap;
+        if (generatedMap != null) {
+            generatedMap.shared = true;
+        }
+        return generatedMap;
+    }
+
+    /**
+     * Скопировать прямоугольную область поверхности
+     *
+     * @param source Исходная поверхность
+     * @param target Поверхность того же размера
+     * @param bounds Границы области {minX, maxX, minY, maxY} (включительно)
+     */
+    private static void copyBounds(Surface source, Surface target, int[] bounds) {
+        int count = bounds[1] - bounds[0] + 1;
+        if (count <= 0) return;
+        double[] row = new double[count];
+        for (int y = bounds[2]; y <= bounds[3]; y++) {
+            source.readRow(y, bounds[0], count, row, 0);
+            target.writeRow(y, bounds[0], count, row, 0);
+        }
+    }
+
+    /**
+     * @return Снимок текущей карты (далее не изменяется)
+     * или null, если карта не сгенерирована
+     */
+    public Surface getGeneratedSurface() {
+        GeneratedMap generatedMap = shareGeneratedMap();
+        return generatedMap != null ? generatedMap.surface : null;
+    }
+
+    /**
+     * Отобразить поверхность сгенерированной карты (в потоке
+     * интерфейса). Если окно карты того же размера открыто,
+     * поверхность обновляется в нем, иначе открывается новое окно
      *
      * @throws Exception
      */
     public void displayGeneratedSurface() throws Exception {
-        assert generatedSurface != null : "Плоскость должна быть сгенерирована";
-        new SurfaceGraphics(generatedSurface, 0, generatedSurface.length);
+        GeneratedMap generatedMap = this.generatedMap;
+        assert generatedMap != null : "Плоскость должна быть сгенерирована";
+        // Окно читает значения только при построении, а снимок изменяется
+        // в этом же потоке, поэтому снимок не передается
+        Surface generatedSurface = generatedMap.surface;
+        if (generatedSurfaceGraphics != null && generatedSurfaceGraphics.isOpen()
+                && generatedSurfaceGraphics.getRangeMaxValue() == generatedSurface.getHeight()) {
+            generatedSurfaceGraphics.update(generatedSurface);
+        } else {
+            generatedSurfaceGraphics = new SurfaceGraphics(generatedSurface, 0, generatedSurface.getHeight());
+        }
     }
 
     /**
      * Аппроксимировать сгенерированную ранее карту
      * и отобразить полученную аппроксимирующую поверхность
-     * в новом окне
+     * в новом окне. Повторная аппроксимация с теми же
+     * параметрами берется из кэша
      *
      * @param approximationScale Множитель, показывающий во сколько
      *                           раз кол-во точек на аппроксимирующей
@@ -64,8 +256,149 @@ public class MapManager {
      * @return СКО
      */
     public double approximate(int approximationScale, int approximationPow) {
-        approximatedSurface = ApproximationUtils.approximate(map, approximationScale, approximationPow);
-        return ApproximationUtils.calcSko(map.getSurface(), approximatedSurface);
+        long run = approximationRun.incrementAndGet();
+        GeneratedMap generatedMap = shareGeneratedMap();
+        Surface surface = generatedMap.surface;
+        String key = approximationCacheKey(generatedMap, approximationScale, approximationPow);
+        Approximation result = restoreApproximation(key, approximationScale);
+        if (result == null) {
+            result = complete(surface, key, approximationMethod.fit(surface, approximationPow, true),
+                    approximationScale);
+        }
+        publishApproximation(run, result);
+        return result.errorMetrics.getRmse();
+    }
+
+    /**
+     * Аппроксимировать сгенерированную ранее карту от грубой
+     * к точной ({@link ProgressiveApproximation}). Каждый уровень
+     * передается слушателю (в потоке аппроксимации), аппроксимирующая
+     * поверхность и погрешности заменяются только после последнего уровня.
+     * Если аппроксимация запущена повторно, уровни и результат
+     * предыдущего запуска отбрасываются. Если результат есть в кэше,
+     * уровни не строятся
+     *
+     * @param approximationScale Множитель, показывающий во сколько
+     *                           раз кол-во точек на аппроксимирующей
+     *                           поверхности будет больше, чем было
+     *                           в сгенерированной ранее карте
+     * @param approximationPow   Степень полинома
+     * @param listener           Слушатель построенных уровней
+     * @return СКО итоговой аппроксимации или NaN, если поток
+     * прерван или аппроксимация запущена повторно
+     */
+    public double approximateProgressive(int approximationScale, int approximationPow,
+                                         Consumer<ProgressiveApproximation.Level> listener) {
+        long run = approximationRun.incrementAndGet();
+        GeneratedMap generatedMap = shareGeneratedMap();
+        Surface surface = generatedMap.surface;
+        String key = approximationCacheKey(generatedMap, approximationScale, approximationPow);
+        Approximation result = restoreApproximation(key, approximationScale);
+        if (result == null) {
+            SurfaceApproximation fitted = ProgressiveApproximation.approximate(surface, approximationMethod,
+                    approximationPow, ProgressiveApproximation.DEFAULT_STEPS, true, level -> {
+                        if (approximationRun.get() == run) {
+                            listener.accept(level);
+                        }
+                    });
+            if (fitted == null || Thread.currentThread().isInterrupted() || approximationRun.get() != run) {
+                return Double.NaN;
+            }
+            result = complete(surface, key, fitted, approximationScale);
+        }
+        return publishApproximation(run, result) ? result.errorMetrics.getRmse() : Double.NaN;
+    }
+
+    /**
+     * @return Аппроксимирующая поверхность последней аппроксимации
+     */
+    public Surface getApproximatedSurface() {
+        Approximation approximation = this.approximation;
+        return approximation != null ? approximation.surface : null;
+    }
+
+    /**
+     * @return Погрешности последней аппроксимации
+     */
+    public ErrorMetrics getApproximationErrorMetrics() {
+        Approximation approximation = this.approximation;
+        return approximation != null ? approximation.errorMetrics : null;
+    }
+
+    /**
+     * Вычислить погрешности построенной аппроксимации
+     * и поместить аппроксимацию (без значений поверхности) в кэш
+     *
+     * @param surface            Аппроксимированная карта
+     * @param key                Ключ кэша или null
+     * @param fitted             Построенная аппроксимация
+     * @param approximationScale Множитель масштаба аппроксимирующей поверхности
+     * @return Результат аппроксимации
+     */
+    private Approximation complete(Surface surface, String key, SurfaceApproximation fitted, int approximationScale) {
+        ApproximatedSurface approximatedSurface = new ApproximatedSurface(fitted, approximationScale);
+        ErrorMetrics errorMetrics = ErrorMetrics.compute(surface, approximatedSurface, true);
+        if (key != null) {
+            ApproximationResult result = new ApproximationResult(fitted, errorMetrics);
+            resultCache.put(key, result, result.getSizeInBytes());
+        }
+        return new Approximation(approximatedSurface, errorMetrics);
+    }
+
+    /**
+     * Опубликовать результат запуска аппроксимации,
+     * если запуск не заменен новым
+     *
+     * @param run    Номер запуска
+     * @param result Результат аппроксимации
+     * @return Результат опубликован
+     */
+    private synchronized boolean publishApproximation(long run, Approximation result) {
+        if (approximationRun.get() != run) return false;
+        approximation = result;
+        return true;
+    }
+
+    /**
+     * Ключ кэша карты
+     *
+     * @param mapGenerationConfig Параметры генерации карты
+     * @return Ключ или null, если кэш отключен
+     * или карта хранится вне кучи
+     */
+    private String generationCacheKey(MapGenerationConfig mapGenerationConfig) {
+        if (resultCache == null || !(map instanceof NetworkMapImpl) || mapGenerationConfig == null) {
+            return null;
+        }
+        return CacheKey.generation(mapGenerationConfig, ((NetworkMapImpl) map).getGenerateStrategy());
+    }
+
+    /**
+     * Ключ кэша аппроксимации снимка карты
+     *
+     * @param generatedMap Снимок карты
+     * @return Ключ или null, если карта не кэшируется
+     */
+    private String approximationCacheKey(GeneratedMap generatedMap, int approximationScale, int approximationPow) {
+        return generatedMap.generationKey != null
+                ? CacheKey.approximation(generatedMap.generationKey, approximationMethod,
+                approximationScale, approximationPow)
+                : null;
+    }
+
+    /**
+     * Взять аппроксимацию и погрешности из кэша
+     *
+     * @param key                Ключ кэша или null
+     * @param approximationScale Множитель масштаба аппроксимирующей поверхности
+     * @return Результат или null, если его нет в кэше
+     */
+    private Approximation restoreApproximation(String key, int approximationScale) {
+        ApproximationResult cached = key != null ? resultCache.get(key) : null;
+        return cached != null
+                ? new Approximation(new ApproximatedSurface(cached.getApproximation(), approximationScale),
+                cached.getErrorMetrics())
+                : null;
     }
 
     /**
@@ -75,15 +408,22 @@ public class MapManager {
      * @throws Exception
      */
     public void displayApproximatedSurface() throws Exception {
-        assert generatedSurface != null : "Плоскость должна быть сгенерирована";
-        new SurfaceGraphics(approximatedSurface, 0, generatedSurface.length);
+        GeneratedMap generatedMap = this.generatedMap;
+        assert generatedMap != null : "Плоскость должна быть сгенерирована";
+        new SurfaceGraphics(getApproximatedSurface(), 0, generatedMap.surface.getHeight());
     }
 
     /**
      * Очистить источники сигналов
      */
-    public void clearSignals() {
+    public synchronized void clearSignals() {
         map.clearSignals();
+        GeneratedMap generatedMap = this.generatedMap;
+        if (generatedMap != null) {
+            // Карта не перегенерируется и больше не соответствует
+            // параметрам, поэтому ее аппроксимации не кэшируются
+            this.generatedMap = new GeneratedMap(generatedMap.surface, null, generatedMap.shared);
+        }
     }
 
     /**
@@ -94,10 +434,12 @@ public class MapManager {
     }
 
     /**
-     * Загрузить карту из файла
+     * Загрузить карту из файла. При ошибке чтения
+     * текущая карта не изменяется
      */
     public void loadFromFile() {
         map.loadFromFile(MAP_SAVE_FILE_PATH);
+        refreshGeneratedSurface();
     }
 
     /**
@@ -110,70 +452,225 @@ public class MapManager {
     }
 
     /**
-     * Провести эксперимент
+     * Провести эксперимент в пуле потоков экспериментов.
+     * Генерация карты и эксперимент выполняются в пуле,
+     * управление возвращается сразу. Карта эксперимента
+     * генерируется отдельно, текущая карта не изменяется
      *
      * @param experimentType      Тип эксперимента
      * @param params              Параметры эксперимента
      * @param mapGenerationConfig Параметры генерации карты
+     * @param listener            Слушатель результатов (вызывается в потоках пула)
+     * @return Запущенный эксперимент
      */
-    public void startExperiment(ExperimentType experimentType, Map<String, Object> params, MapGenerationConfig mapGenerationConfig) {
-        generate(mapGenerationConfig);
+    public PolynomPowExperiment startExperiment(ExperimentType experimentType, Map<String, Object> params,
+                                                MapGenerationConfig mapGenerationConfig,
+                                                PolynomPowExperiment.Listener listener) {
+        PolynomPowExperiment experiment;
         switch (experimentType) {
             case SKO_BY_POLYNOM_POW:
-                startPolynomPowExperiment((int) params.get("polynomPowFrom"), (int) params.get("polynomPowTo"));
+                experiment = createPolynomPowExperiment((int) params.get("polynomPowFrom"),
+                        (int) params.get("polynomPowTo"), listener);
                 break;
+            default:
+                throw new IllegalArgumentException("Неизвестный тип эксперимента: " + experimentType);
+        }
+        GenerateStrategy generateStrategy = map instanceof NetworkMapImpl
+                ? ((NetworkMapImpl) map).getGenerateStrategy()
+                : new NetworkMapImpl().getGenerateStrategy();
+        experiment.checkSurfaceSize(mapGenerationConfig.getSurfaceWidth(), mapGenerationConfig.getSurfaceHeight());
+        String key = generationCacheKey(mapGenerationConfig);
+        experimentExecutor.execute(() -> {
+            Surface surface;
+            try {
+                surface = generateExperimentSurface(mapGenerationConfig, generateStrategy, key);
+            } catch (RuntimeException e) {
+                experiment.fail(e);
+                return;
+            }
+            experiment.start(surface);
+        });
+        return experiment;
+    }
+
+    /**
+     * Сгенерировать карту эксперимента в отдельном объекте карты.
+     * Карта, уже сгенерированная с теми же параметрами, берется
+     * из кэша без копирования: эксперимент ее не изменяет
+     *
+     * @param mapGenerationConfig Параметры генерации карты
+     * @param generateStrategy    Стратегия генерации карты
+     * @param key                 Ключ кэша или null
+     * @return Карта эксперимента
+     */
+    private Surface generateExperimentSurface(MapGenerationConfig mapGenerationConfig,
+                                              GenerateStrategy generateStrategy, String key) {
+        ResultCache cache = key != null ? resultCache : null;
+        Surface cached = cache != null ? cache.get(key) : null;
+        if (cached != null) {
+            return cached;
+        }
+        Surface surface = new NetworkMapImpl(generateStrategy).generate(mapGenerationConfig).getSurfaceData();
+        if (cache != null) {
+            cache.put(key, surface, mapGenerationConfig.getSurfaceSizeInBytes());
         }
+        return surface;
     }
 
     /**
-     * Провести эксперимент для нахождения
+     * Провести эксперимент по сетке параметров в пуле
+     * потоков экспериментов. Управление возвращается сразу
+     *
+     * @param grid     Сетка эксперимента
+     * @param listener Слушатель результатов (вызывается в потоках пула)
+     * @return Запущенный эксперимент
+     */
+    public GridExperiment startExperiment(ExperimentGrid grid, GridExperiment.Listener listener) {
+        GridExperiment experiment = new GridExperiment(grid, experimentExecutor,
+                Runtime.getRuntime().availableProcessors(), listener);
+        experiment.start();
+        return experiment;
+    }
+
+    /**
+     * Создать эксперимент для нахождения
      * зависимости погрешности (СКО) от
-     * степени полинома
+     * степени полинома. Результаты выводятся
+     * в консоль и на график по мере готовности
      *
      * @param polynomPowFrom Начальная степень полинома
      * @param polynomPowTo   Конечная степень полинома
+     * @param listener       Слушатель результатов
+     * @return Эксперимент
      */
-    @SneakyThrows
-    private void startPolynomPowExperiment(int polynomPowFrom, int polynomPowTo) {
+    private PolynomPowExperiment createPolynomPowExperiment(int polynomPowFrom, int polynomPowTo,
+                                                            PolynomPowExperiment.Listener listener) {
         System.out.println("Вычисление зависимости погрешности от степени полинома: ");
         System.out.println("========================");
+        ExperimentGraphic graphic = new ExperimentGraphic("Степень полинома", "Погрешность (СКО)");
+        return new PolynomPowExperiment(approximationMethod, polynomPowFrom, polynomPowTo, experimentExecutor,
+                new PolynomPowExperiment.Listener() {
+                    @Override
+                    public void onResult(int approximationPow, double sko) {
+                        System.out.println(String.format("Степень полинома/Погрешность: %s/%s ", approximationPow, sko));
+                        graphic.add(approximationPow, sko);
+                        listener.onResult(approximationPow, sko);
+                    }
 
-        double[] values = new double[polynomPowTo - polynomPowFrom + 1];
-        for (int i = polynomPowFrom; i <= polynomPowTo; i++) {
-            double sko = approximate(POLYNOM_POW_EXPERIMENT_APPROXIMATION_SCALE, i);
-            values[i - polynomPowFrom] = sko;
-            System.out.println(String.format("Степень полинома/Погрешность: %s/%s ", i, sko));
-        }
-        System.out.println();
+                    @Override
+                    public void onProgress(int completed, int total) {
+                        listener.onProgress(completed, total);
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        System.out.println("Ошибка эксперимента: " + error.getMessage());
+                        listener.onError(error);
+                    }
 
-        createExperimentGraphic(values, polynomPowFrom, "Степень полинома", "Погрешность (СКО)");
+                    @Override
+                    public void onFinished(boolean cancelled) {
+                        System.out.println(cancelled ? "Эксперимент отменен" : "");
+                        listener.onFinished(cancelled);
+                    }
+                });
     }
 
     /**
-     * Отобразить 2D график в отдельном окне
-     *
-     * @param y          Значения по оси Y
-     * @param xStart     Начальное значение по оси X
-     * @param xAxisTitle Название оси X
-     * @param yAxisTitle Название оси Y
+     * 2D график эксперимента в отдельном окне,
+     * точки которого добавляются по мере готовности.
+     * Окно открывается при получении первой точки
      */
-    private void createExperimentGraphic(double[] y, int xStart, String xAxisTitle, String yAxisTitle) {
-        new Thread(() -> {
-            double[] x = new double[y.length];
-            for (int i = 0; i < x.length; i++) {
-                x[i] = xStart + i;
-            }
-            XYChart chart = QuickChart.getChart(
+    private static class ExperimentGraphic {
+        private static final String SERIES_NAME = "График";
+        private final String xAxisTitle;
+        private final String yAxisTitle;
+        private final TreeMap<Integer, Double> values = new TreeMap<>();
+        private XYChart chart;
+        private XChartPanel<XYChart> chartPanel;
+
+        /**
+         * @param xAxisTitle Название оси X
+         * @param yAxisTitle Название оси Y
+         */
+        ExperimentGraphic(String xAxisTitle, String yAxisTitle) {
+            this.xAxisTitle = xAxisTitle;
+            this.yAxisTitle = yAxisTitle;
+        }
+
+        /**
+         * Добавить точку (из любого потока)
+         *
+         * @param x Значение по оси X
+         * @param y Значение по оси Y
+         */
+        void add(int x, double y) {
+            SwingUtilities.invokeLater(() -> {
+                values.put(x, y);
+                double[] xData = values.keySet().stream().mapToDouble(Integer::doubleValue).toArray();
+                double[] yData = values.values().stream().mapToDouble(Double::doubleValue).toArray();
+                if (chart == null) {
+                    show(xData, yData);
+                } else {
+                    chart.updateXYSeries(SERIES_NAME, xData, yData, null);
+                    chartPanel.revalidate();
+                    chartPanel.repaint();
+                }
+            });
+        }
+
+        private void show(double[] x, double[] y) {
+            chart = QuickChart.getChart(
                     String.format("График зависисимости \"%s от %s\"", xAxisTitle, yAxisTitle),
                     xAxisTitle,
                     yAxisTitle,
-                    "График",
+                    SERIES_NAME,
                     x,
                     y
             );
-            SwingWrapper swingWrapper = new SwingWrapper(chart);
-            swingWrapper.displayChart();
-        }).start();
+            chartPanel = new XChartPanel<>(chart);
+            JFrame frame = new JFrame(chart.getTitle());
+            frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            frame.add(chartPanel);
+            frame.pack();
+            frame.setVisible(true);
+        }
+    }
+
+    /**
+     * Снимок карты вместе с ключом кэша ее генерации
+     */
+    private static class GeneratedMap {
+        private final Surface surface;
+        /**
+         * Ключ кэша или null, если карта не кэшируется
+         */
+        private final String generationKey;
+        /**
+         * Снимок передан в другой поток или в кэш, поэтому
+         * следующая правка карты копирует ее целиком.
+         * Изменяется под блокировкой MapManager
+         */
+        private boolean shared;
+
+        GeneratedMap(Surface surface, String generationKey, boolean shared) {
+            this.surface = surface;
+            this.generationKey = generationKey;
+            this.shared = shared;
+        }
+    }
+
+    /**
+     * Аппроксимирующая поверхность вместе с ее погрешностями
+     */
+    private static class Approximation {
+        private final Surface surface;
+        private final ErrorMetrics errorMetrics;
+
+        Approximation(Surface surface, ErrorMetrics errorMetrics) {
+            this.surface = surface;
+            this.errorMetrics = errorMetrics;
+        }
     }
 
     /**
@@ -0,0 +1,209 @@
+package com.network.map;
+
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.surface.MappedSurface;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import lombok.Getter;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Карта, хранящаяся вне кучи в файле, отображенном в память
+ * ({@link MappedSurface}). Предназначена для карт, не помещающихся
+ * в кучу: стратегия генерации должна обрабатывать карту построчно
+ * или тайлами, как {@link GenerateClosedFormStrategy}.
+ * <p>
+ * Локальное обновление источников сигнала требует хранения номера
+ * источника для каждой точки в куче, поэтому при добавлении, перемещении
+ * и удалении источника карта генерируется заново
+ */
+@Getter
+public class MappedNetworkMap implements NetworkMap, Closeable {
+    private final String dataFilePath;
+    private GenerateStrategy generateStrategy;
+    private MapGenerationConfig mapGenerationConfig;
+    private MappedSurface map;
+
+    /**
+     * @param dataFilePath Путь к файлу, в котором хранится карта
+     */
+    public MappedNetworkMap(String dataFilePath) {
+        this(dataFilePath, new GenerateClosedFormStrategy(true));
+    }
+
+    /**
+     * @param dataFilePath     Путь к файлу, в котором хранится карта
+     * @param generateStrategy Стратегия генерации карты
+     */
+    public MappedNetworkMap(String dataFilePath, GenerateStrategy generateStrategy) {
+        this.dataFilePath = dataFilePath;
+        this.generateStrategy = generateStrategy;
+    }
+
+    @Override
+    public NetworkMap generate(MapGenerationConfig mapGenerationConfig) {
+        this.mapGenerationConfig = mapGenerationConfig;
+        if (map != null) {
+            map.close();
+        }
+        SurfacePrecision precision = mapGenerationConfig.getSurfacePrecision() != null
+                ? mapGenerationConfig.getSurfacePrecision()
+                : SurfacePrecision.DOUBLE;
+        map = MappedSurface.create(
+                dataFilePath,
+                mapGenerationConfig.getSurfaceWidth(),
+                mapGenerationConfig.getSurfaceHeight(),
+                precision,
+                mapGenerationConfig.getQuantizationScale(),
+                mapGenerationConfig.getQuantizationOffset()
+        );
+        generateStrategy.generate(map, mapGenerationConfig);
+        map.flush();
+        return this;
+    }
+
+    @Override
+    public NetworkMap addSignal(MapGenerationConfig.Signal signal) {
+        checkGenerated();
+        mapGenerationConfig.getSignals().add(signal);
+        return generate(mapGenerationConfig);
+    }
+
+    @Override
+    public NetworkMap moveSignal(MapGenerationConfig.Signal signal, int x, int y) {
+        checkGenerated();
+        signal.setX(x);
+        signal.setY(y);
+        return generate(mapGenerationConfig);
+    }
+
+    @Override
+    public NetworkMap removeSignal(MapGenerationConfig.Signal signal) {
+        checkGenerated();
+        List<MapGenerationConfig.Signal> signals = mapGenerationConfig.getSignals();
+        for (int i = 0; i < signals.size(); i++) {
+            if (signals.get(i) == signal) {
+                signals.remove(i);
+                return generate(mapGenerationConfig);
+            }
+        }
+        throw new IllegalArgumentException("Источник сигнала не принадлежит карте");
+    }
+
+    @Override
+    public Surface getSurfaceData() {
+        if (map == null) {
+            throw new RuntimeException("Карта не сгенерирована. Необходимо сгенерировать карту");
+        }
+        return map;
+    }
+
+    @Override
+    public int getSurfaceWidth() {
+        if (mapGenerationConfig == null) {
+            throw new RuntimeException("Ширина карты не задана. Необходимо сгенерировать карту");
+        }
+        return mapGenerationConfig.getSurfaceWidth();
+    }
+
+    @Override
+    public int getSurfaceHeight() {
+        if (mapGenerationConfig == null) {
+            throw new RuntimeException("Высота карты не задана. Необходимо сгенерировать карту");
+        }
+        return mapGenerationConfig.getSurfaceHeight();
+    }
+
+    /**
+     * Сохранить параметры карты в файл. Значения карты
+     * остаются в файле {@link #getDataFilePath()} и не копируются
+     *
+     * @param path Путь к файлу
+     * @return Объект, содержащий сгенерированную карту
+     */
+    @Override
+    public NetworkMap saveToFile(String path) {
+        if (map != null) {
+            map.flush();
+        }
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(path, false))) {
+            objectOutputStream.writeObject(this);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return this;
+    }
+
+    /**
+     * Загрузить параметры карты из файла и отобразить
+     * в память файл со значениями карты
+     *
+     * @param path Путь к файлу
+     * @return Объект, содержащий сгенерированную карту
+     */
+    @Override
+    public NetworkMap loadFromFile(String path) {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(path))) {
+            MappedNetworkMap networkMap = (MappedNetworkMap) objectInputStream.readObject();
+            if (map != null) {
+                map.close();
+            }
+            this.map = networkMap.getMap();
+            this.mapGenerationConfig = networkMap.getMapGenerationConfig();
+            this.generateStrategy = networkMap.getGenerateStrategy();
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+        return this;
+    }
+
+    @Override
+    public NetworkMap display() {
+        Surface surface = getSurfaceData();
+        double[] row = new double[surface.getWidth()];
+        for (int i = 0; i < surface.getHeight(); i++) {
+            surface.readRow(i, row);
+            for (double value : row) {
+                System.out.print(String.format("%1$" + 5 + "s", value) + " ");
+            }
+            System.out.println();
+        }
+        return this;
+    }
+
+    @Override
+    public NetworkMap clearSignals() {
+        if (mapGenerationConfig != null) {
+            this.mapGenerationConfig.getSignals().clear();
+        }
+        return this;
+    }
+
+    @Override
+    public List<MapGenerationConfig.Signal> getSignals() {
+        if (mapGenerationConfig == null) {
+            throw new RuntimeException("Невозможно получить источники сигналов. Необходимо сгенерировать карту");
+        }
+        return this.mapGenerationConfig.getSignals();
+    }
+
+    /**
+     * Записать карту на диск и освободить отображение файла
+     */
+    @Override
+    public void close() {
+        if (map != null) {
+            map.close();
+            map = null;
+        }
+    }
+
+    private void checkGenerated() {
+        if (mapGenerationConfig == null) {
+            throw new RuntimeException("Невозможно изменить источники сигналов. Необходимо сгенерировать карту");
+        }
+    }
+}
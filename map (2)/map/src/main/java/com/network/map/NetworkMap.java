@@ -1,5 +1,7 @@
 package com.network.map;
 
+import com.network.map.surface.Surface;
+
 import java.io.Serializable;
 import java.util.List;
 
@@ -17,7 +19,17 @@ public interface NetworkMap extends Serializable {
      *
      * @return Сгенерированная карта
      */
-    double[][] getSurface();
+    Surface getSurfaceData();
+
+    /**
+     * Получить копию сгенерированной карты в виде матрицы
+     * (совместимость с кодом, работающим с double[][])
+     *
+     * @return Сгенерированная карта
+     */
+    default double[][] getSurface() {
+        return getSurfaceData().toArray();
+    }
 
     /**
      * Получить ширину сгенерированной карты
@@ -34,7 +46,8 @@ public interface NetworkMap extends Serializable {
     int getSurfaceHeight();
 
     /**
-     * Сохранить карту в файл по заданному пути
+     * Сохранить карту в файл по заданному пути.
+     * Ошибка записи выбрасывается как RuntimeException
      *
      * @param path Путь к файлу
      * @return Объект, содержащий сгенерированную карту
@@ -42,7 +55,9 @@ public interface NetworkMap extends Serializable {
     NetworkMap saveToFile(String path);
 
     /**
-     * Загрузить карту из файла по заданному пути
+     * Загрузить карту из файла по заданному пути.
+     * Ошибка чтения выбрасывается как RuntimeException,
+     * текущая карта при этом не изменяется
      *
      * @param path Путь к файлу
      * @return Объект, содержащий сгенерированную карту
@@ -71,4 +86,33 @@ public interface NetworkMap extends Serializable {
      * @return Источники сигналов
      */
     List<MapGenerationConfig.Signal> getSignals();
+
+    /**
+     * Добавить источник сигнала на сгенерированную карту.
+     * Если стратегия генерации поддерживает локальное обновление,
+     * пересчитывается только зона действия источника
+     *
+     * @param signal Источник сигнала
+     * @return Объект, содержащий сгенерированную карту
+     */
+    NetworkMap addSignal(MapGenerationConfig.Signal signal);
+
+    /**
+     * Переместить источник сигнала сгенерированной карты
+     * в точку {x;y}
+     *
+     * @param signal Источник сигнала
+     * @param x      Новая координата x
+     * @param y      Новая координата y
+     * @return Объект, содержащий сгенерированную карту
+     */
+    NetworkMap moveSignal(MapGenerationConfig.Signal signal, int x, int y);
+
+    /**
+     * Удалить источник сигнала со сгенерированной карты
+     *
+     * @param signal Источник сигнала
+     * @return Объект, содержащий сгенерированную карту
+     */
+    NetworkMap removeSignal(MapGenerationConfig.Signal signal);
 }
@@ -2,6 +2,9 @@ package com.network.map;
 
 import com.network.map.genstrategy.GenerateSimpleStrategy;
 import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.genstrategy.IncrementalGenerateStrategy;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
 import lombok.Data;
 
 import java.io.*;
@@ -9,26 +12,120 @@ import java.util.List;
 
 @Data
 public class NetworkMapImpl implements NetworkMap {
+    /**
+     * Совпадает с версией класса, в которой карта хранилась
+     * в double[][], чтобы сохраненные ранее файлы загружались
+     */
+    private static final long serialVersionUID = 1168638124316355586L;
 
-    private double[][] map;
+    private Surface map;
     private GenerateStrategy generateStrategy;
     private MapGenerationConfig mapGenerationConfig;
+    /**
+     * Номера источников, определяющих уровень сигнала в каждой точке.
+     * Заполняются при первом локальном обновлении карты
+     */
+    private transient int[] contributors;
+    /**
+     * Границы области карты {minX, maxX, minY, maxY}, измененной
+     * последней правкой источника (включительно), или null,
+     * если карта могла измениться целиком
+     */
+    private transient int[] changedBounds;
 
     public NetworkMapImpl() {
-        map = new double[0][0];
-        generateStrategy = new GenerateSimpleStrategy();
+        this(new GenerateSimpleStrategy());
+    }
+
+    /**
+     * @param generateStrategy Стратегия генерации карты
+     */
+    public NetworkMapImpl(GenerateStrategy generateStrategy) {
+        map = new DoubleSurface(0, 0);
+        this.generateStrategy = generateStrategy;
     }
 
     @Override
     public NetworkMap generate(MapGenerationConfig mapGenerationConfig) {
         this.mapGenerationConfig = mapGenerationConfig;
-        map = createWhiteMap(mapGenerationConfig.getSurfaceWidth(), mapGenerationConfig.getSurfaceHeight());
+        map = createWhiteMap(mapGenerationConfig);
+        contributors = null;
+        changedBounds = null;
         generateStrategy.generate(map, mapGenerationConfig);
         return this;
     }
 
+    /**
+     * Восстановить карту, сгенерированную ранее с теми же
+     * параметрами (например, из кэша), без повторной генерации
+     *
+     * @param mapGenerationConfig Параметры генерации карты
+     * @param surface             Сгенерированная карта (используется без копирования)
+     * @return Объект, содержащий сгенерированную карту
+     */
+    public NetworkMap restore(MapGenerationConfig mapGenerationConfig, Surface surface) {
+        if (surface.getWidth() != mapGenerationConfig.getSurfaceWidth()
+                || surface.getHeight() != mapGenerationConfig.getSurfaceHeight()) {
+            throw new IllegalArgumentException("Размеры карты не совпадают с параметрами генерации");
+        }
+        this.mapGenerationConfig = mapGenerationConfig;
+        this.map = surface;
+        this.contributors = null;
+        this.changedBounds = null;
+        return this;
+    }
+
+    @Override
+    public NetworkMap addSignal(MapGenerationConfig.Signal signal) {
+        checkGenerated();
+        boolean prepared = contributors != null;
+        IncrementalGenerateStrategy incrementalStrategy = prepareIncrementalStrategy();
+        mapGenerationConfig.getSignals().add(signal);
+        if (incrementalStrategy != null) {
+            int[] bounds = incrementalStrategy.addSignal(map, contributors, mapGenerationConfig,
+                    mapGenerationConfig.getSignals().size() - 1);
+            changedBounds = prepared ? bounds : null;
+        } else {
+            generate(mapGenerationConfig);
+        }
+        return this;
+    }
+
+    @Override
+    public NetworkMap moveSignal(MapGenerationConfig.Signal signal, int x, int y) {
+        checkGenerated();
+        int signalIndex = indexOfSignal(signal);
+        boolean prepared = contributors != null;
+        IncrementalGenerateStrategy incrementalStrategy = prepareIncrementalStrategy();
+        if (incrementalStrategy != null) {
+            int[] bounds = incrementalStrategy.moveSignal(map, contributors, mapGenerationConfig, signalIndex, x, y);
+            changedBounds = prepared ? bounds : null;
+        } else {
+            signal.setX(x);
+            signal.setY(y);
+            generate(mapGenerationConfig);
+        }
+        return this;
+    }
+
+    @Override
+    public NetworkMap removeSignal(MapGenerationConfig.Signal signal) {
+        checkGenerated();
+        int signalIndex = indexOfSignal(signal);
+        boolean prepared = contributors != null;
+        IncrementalGenerateStrategy incrementalStrategy = prepareIncrementalStrategy();
+        if (incrementalStrategy != null) {
+            int[] bounds = incrementalStrategy.removeSignal(map, contributors, mapGenerationConfig, signalIndex);
+            changedBounds = prepared ? bounds : null;
+        } else {
+            mapGenerationConfig.getSignals().remove(signalIndex);
+            generate(mapGenerationConfig);
+        }
+        return this;
+    }
+
     @Override
-    public double[][] getSurface() {
+    public Surface getSurfaceData() {
         return map;
     }
 
@@ -50,54 +147,103 @@ public class NetworkMapImpl implements NetworkMap {
 
     @Override
     public NetworkMap loadFromFile(String path) {
-        try {
-            ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(path));
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(path))) {
             NetworkMapImpl networkMap = (NetworkMapImpl) objectInputStream.readObject();
-            this.map = networkMap.getMap();
-            this.mapGenerationConfig = networkMap.getMapGenerationConfig();
+            restore(networkMap.getMapGenerationConfig(), networkMap.getMap());
             this.generateStrategy = networkMap.getGenerateStrategy();
-        } catch (IOException | ClassNotFoundException e) {
-            e.printStackTrace();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new RuntimeException("Не удалось загрузить карту из файла " + path, e);
         }
         return this;
     }
 
+    /**
+     * Прочитать карту, в том числе сохраненную до перехода
+     * на {@link Surface}, когда карта хранилась в double[][]
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Object surface = fields.get("map", null);
+        if (surface instanceof double[][]) {
+            map = DoubleSurface.fromArray((double[][]) surface);
+        } else {
+            map = (Surface) surface;
+        }
+        generateStrategy = (GenerateStrategy) fields.get("generateStrategy", null);
+        mapGenerationConfig = (MapGenerationConfig) fields.get("mapGenerationConfig", null);
+    }
+
     @Override
     public NetworkMap saveToFile(String path) {
-        try {
-            File file = new File(path);
-            file.createNewFile(); // if file already exists will do nothing
-            FileOutputStream fileOutputStream = new FileOutputStream(file, false);
-            ObjectOutputStream objectOutputStream = new ObjectOutputStream(fileOutputStream);
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(new FileOutputStream(path, false))) {
             objectOutputStream.writeObject(this);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new RuntimeException("Не удалось сохранить карту в файл " + path, e);
         }
         return this;
     }
 
     /**
-     * /**
-     * Сгенерировать пустую карту (уровень сигнала во всех точках = 0)
+     * Подготовить данные для локального обновления карты.
+     * При первом обновлении карта перегенерируется с запоминанием
+     * источника, определяющего уровень сигнала в каждой точке
      *
-     * @param width  Ширина карты
-     * @param height Высота карты
-     * @return Сгенерированная пуста карта {@link double[][]}
+     * @return Стратегия генерации или null, если она
+     * не поддерживает локальное обновление
      */
-    private double[][] createWhiteMap(int width, int height) {
-        double[][] map = new double[height][width];
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                map[i][j] = 0;
+    private IncrementalGenerateStrategy prepareIncrementalStrategy() {
+        if (!(generateStrategy instanceof IncrementalGenerateStrategy)) {
+            return null;
+        }
+        IncrementalGenerateStrategy incrementalStrategy = (IncrementalGenerateStrategy) generateStrategy;
+        if (contributors == null) {
+            contributors = new int[mapGenerationConfig.getSurfaceWidth() * mapGenerationConfig.getSurfaceHeight()];
+            map = createWhiteMap(mapGenerationConfig);
+            incrementalStrategy.generate(map, contributors, mapGenerationConfig);
+        }
+        return incrementalStrategy;
+    }
+
+    /**
+     * Найти номер источника сигнала в параметрах генерации
+     *
+     * @param signal Источник сигнала
+     * @return Номер источника сигнала
+     */
+    private int indexOfSignal(MapGenerationConfig.Signal signal) {
+        List<MapGenerationConfig.Signal> signals = mapGenerationConfig.getSignals();
+        for (int i = 0; i < signals.size(); i++) {
+            if (signals.get(i) == signal) {
+                return i;
             }
         }
+        throw new IllegalArgumentException("Источник сигнала не принадлежит карте");
+    }
+
+    private void checkGenerated() {
+        if (mapGenerationConfig == null) {
+            throw new RuntimeException("Невозможно изменить источники сигналов. Необходимо сгенерировать карту");
+        }
+    }
+
+    /**
+     * /**
+     * Сгенерировать пустую карту (уровень сигнала во всех точках = 0)
+     * с точностью хранения из параметров генерации
+     *
+     * @param mapGenerationConfig Параметры генерации
+     * @return Сгенерированная пуста карта {@link Surface}
+     */
+    private Surface createWhiteMap(MapGenerationConfig mapGenerationConfig) {
+        Surface map = mapGenerationConfig.createSurface();
+        map.fill(0);
         return map;
     }
 
     public NetworkMap display() {
-        for (int i = 0; i < map.length; i++) {
-            for (int j = 0; j < map[i].length; j++) {
-                String value = String.format("%1$" + 5 + "s", map[i][j]);
+        for (int i = 0; i < map.getHeight(); i++) {
+            for (int j = 0; j < map.getWidth(); j++) {
+                String value = String.format("%1$" + 5 + "s", map.get(j, i));
                 System.out.print(value + " ");
             }
             System.out.println();
@@ -109,6 +255,7 @@ public class NetworkMapImpl implements NetworkMap {
     public NetworkMap clearSignals() {
         if (mapGenerationConfig != null) {
             this.mapGenerationConfig.getSignals().clear();
+            this.contributors = null;
         }
         return this;
     }
@@ -0,0 +1,311 @@
+package com.network.map.batch;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.experiment.ExperimentGrid;
+import com.network.map.experiment.ExperimentParameter;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.genstrategy.GenerateSimpleStrategy;
+import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Параметры пакетного запуска, заданные файлом свойств:
+ * <pre>
+ * mode = generate | approximate | experiment
+ *
+ * # Карта: файл, сохраненный {@link com.network.map.NetworkMap#saveToFile},
+ * map.file = map.bin
+ * # или параметры генерации
+ * map.width = 500
+ * map.height = 500
+ * # Точность хранения и стратегия генерации (в режиме experiment
+ * # применяются ко всем картам эксперимента, стратегия однопоточная)
+ * map.precision = DOUBLE | FLOAT | SHORT
+ * map.strategy = CLOSED_FORM | SIMPLE
+ * # Источники x:y:pikeValue:degradationSpeed через ';'
+ * map.signals = 10:20:5:0.1; 200:300:8:0.2
+ * # или случайные источники
+ * map.signals.count = 10
+ * map.signals.seed = 1
+ * map.signals.maxPikeValue = 10
+ * map.signals.minDegradationSpeed = 0
+ * map.signals.maxDegradationSpeed = 0.5
+ *
+ * approximation.method = ORTHOGONAL
+ * approximation.pow = 5
+ * approximation.scale = 1
+ *
+ * # Значения параметров через ',' или диапазон from:to:step
+ * experiment.POLYNOM_POW = 1:30:1
+ * experiment.MAP_SIZE = 500, 1000, 2000
+ * experiment.methods = ORTHOGONAL, SPLINE
+ * experiment.seed = 1
+ * experiment.threads = 8
+ * experiment.maxActiveMaps = 8
+ *
+ * output.format = CSV | JSON
+ * # Файл результатов (по умолчанию - стандартный вывод)
+ * output.file = results.csv
+ * output.generatedMap = map.bin
+ * output.approximatedSurface = approximated.bin
+ * </pre>
+ * Относительные пути задаются относительно каталога файла параметров
+ */
+@Getter
+public class BatchConfig {
+    private final String name;
+    private final Mode mode;
+    private final String mapFile;
+    private final MapGenerationConfig mapGenerationConfig;
+    private final GenerateStrategy generateStrategy;
+    private final ApproximationMethod approximationMethod;
+    private final int approximationPow;
+    private final int approximationScale;
+    private final ExperimentGrid experimentGrid;
+    private final int experimentThreads;
+    private final int experimentMaxActiveMaps;
+    private final ResultWriter.Format outputFormat;
+    private final String outputFile;
+    private final String generatedMapFile;
+    private final String approximatedSurfaceFile;
+
+    private final Properties properties;
+    private final File baseDirectory;
+
+    /**
+     * @param name          Название запуска (выводится в результатах)
+     * @param properties    Параметры
+     * @param baseDirectory Каталог для относительных путей
+     */
+    public BatchConfig(String name, Properties properties, File baseDirectory) {
+        this.name = name;
+        this.properties = properties;
+        this.baseDirectory = baseDirectory;
+        this.mode = enumValue(Mode.class, "mode", null);
+        this.mapFile = path("map.file");
+        this.mapGenerationConfig = mapFile == null && mode != Mode.EXPERIMENT ? parseMapGenerationConfig() : null;
+        this.generateStrategy = enumValue(Strategy.class, "map.strategy", Strategy.CLOSED_FORM).create(true);
+        this.approximationMethod = enumValue(ApproximationMethod.class, "approximation.method",
+                ApproximationMethod.ORTHOGONAL);
+        this.approximationPow = intValue("approximation.pow", 5);
+        this.approximationScale = intValue("approximation.scale", 1);
+        this.experimentGrid = mode == Mode.EXPERIMENT ? parseExperimentGrid() : null;
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.experimentThreads = intValue("experiment.threads", processors);
+        this.experimentMaxActiveMaps = intValue("experiment.maxActiveMaps", experimentThreads);
+        this.outputFormat = enumValue(ResultWriter.Format.class, "output.format", ResultWriter.Format.CSV);
+        this.outputFile = path("output.file");
+        this.generatedMapFile = path("output.generatedMap");
+        this.approximatedSurfaceFile = path("output.approximatedSurface");
+    }
+
+    /**
+     * Загрузить параметры из файла свойств (UTF-8)
+     *
+     * @param file Файл параметров
+     * @return Параметры запуска
+     * @throws IOException
+     */
+    public static BatchConfig load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        File baseDirectory = file.getAbsoluteFile().getParentFile();
+        return new BatchConfig(file.getName(), properties, baseDirectory);
+    }
+
+    private MapGenerationConfig parseMapGenerationConfig() {
+        int width = intValue("map.width", null);
+        int height = intValue("map.height", null);
+        List<MapGenerationConfig.Signal> signals;
+        String explicitSignals = value("map.signals");
+        if (explicitSignals != null) {
+            signals = new ArrayList<>();
+            for (String signal : explicitSignals.split(";")) {
+                if (signal.trim().isEmpty()) continue;
+                String[] fields = signal.trim().split(":");
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("Источник сигнала должен быть задан как x:y:pikeValue:degradationSpeed: " + signal);
+                }
+                try {
+                    signals.add(new MapGenerationConfig.Signal(
+                            Integer.parseInt(fields[0].trim()),
+                            Integer.parseInt(fields[1].trim()),
+                            Double.parseDouble(fields[2].trim()),
+                            Double.parseDouble(fields[3].trim())
+                    ));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Некорректный источник сигнала: " + signal, e);
+                }
+            }
+        } else {
+            signals = MapGenerationConfig.randomSignals(width, height,
+                    intValue("map.signals.count", 10),
+                    doubleValue("map.signals.maxPikeValue", 10),
+                    doubleValue("map.signals.minDegradationSpeed", 0),
+                    doubleValue("map.signals.maxDegradationSpeed", 0.5),
+                    new Random(intValue("map.signals.seed", 1)));
+        }
+        return MapGenerationConfig.builder()
+                .surfaceWidth(width)
+                .surfaceHeight(height)
+                .signals(signals)
+                .surfacePrecision(surfacePrecision())
+                .build();
+    }
+
+    private ExperimentGrid parseExperimentGrid() {
+        // Время и память генерации относятся к одной точке, только если генерация однопоточная
+        ExperimentGrid.ExperimentGridBuilder builder = ExperimentGrid.builder()
+                .seed(intValue("experiment.seed", 1))
+                .generateStrategy(enumValue(Strategy.class, "map.strategy", Strategy.CLOSED_FORM).create(false))
+                .surfacePrecision(surfacePrecision());
+        for (ExperimentParameter parameter : ExperimentParameter.values()) {
+            String values = value("experiment." + parameter.name());
+            if (values != null) {
+                builder.parameter(parameter, parseValues(parameter, values));
+            }
+        }
+        String methods = value("experiment.methods");
+        if (methods != null) {
+            for (String method : methods.split(",")) {
+                builder.method(parseEnum(ApproximationMethod.class, "experiment.methods", method));
+            }
+        }
+        return builder.build();
+    }
+
+    private SurfacePrecision surfacePrecision() {
+        return enumValue(SurfacePrecision.class, "map.precision", SurfacePrecision.DOUBLE);
+    }
+
+    private static double[] parseValues(ExperimentParameter parameter, String values) {
+        try {
+            String[] range = values.split(":");
+            if (range.length == 3) {
+                return ExperimentGrid.range(Double.parseDouble(range[0].trim()),
+                        Double.parseDouble(range[1].trim()), Double.parseDouble(range[2].trim()));
+            }
+            String[] list = values.split(",");
+            double[] result = new double[list.length];
+            for (int i = 0; i < list.length; i++) {
+                result[i] = Double.parseDouble(list[i].trim());
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректные значения параметра " + parameter + ": " + values, e);
+        }
+    }
+
+    private String value(String key) {
+        String value = properties.getProperty(key);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private String path(String key) {
+        String value = value(key);
+        if (value == null) return null;
+        File file = new File(value);
+        return file.isAbsolute() ? file.getPath() : new File(baseDirectory, value).getPath();
+    }
+
+    private int intValue(String key, Integer defaultValue) {
+        String value = value(key);
+        if (value == null) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("Не задан параметр " + key);
+            }
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + key + " должен быть целым числом: " + value, e);
+        }
+    }
+
+    private double doubleValue(String key, double defaultValue) {
+        String value = value(key);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + key + " должен быть числом: " + value, e);
+        }
+    }
+
+    private <E extends Enum<E>> E enumValue(Class<E> type, String key, E defaultValue) {
+        String value = value(key);
+        if (value == null) {
+            if (defaultValue == null) {
+                throw new IllegalArgumentException("Не задан параметр " + key);
+            }
+            return defaultValue;
+        }
+        return parseEnum(type, key, value);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String key, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректное значение параметра " + key + ": " + value, e);
+        }
+    }
+
+    /**
+     * Режим запуска
+     */
+    public enum Mode {
+        /**
+         * Сгенерировать карту
+         */
+        GENERATE,
+        /**
+         * Сгенерировать (загрузить) и аппроксимировать карту
+         */
+        APPROXIMATE,
+        /**
+         * Эксперимент по сетке параметров
+         */
+        EXPERIMENT
+    }
+
+    /**
+     * Стратегия генерации карты
+     */
+    public enum Strategy {
+        CLOSED_FORM {
+            @Override
+            GenerateStrategy create(boolean parallel) {
+                return new GenerateClosedFormStrategy(parallel);
+            }
+        },
+        SIMPLE {
+            @Override
+            GenerateStrategy create(boolean parallel) {
+                return new GenerateSimpleStrategy(GenerateSimpleStrategy.WhiteZonesCorrection.CHAMFER, parallel);
+            }
+        };
+
+        /**
+         * @param parallel Генерировать карту параллельно
+         * @return Стратегия генерации
+         */
+        abstract GenerateStrategy create(boolean parallel);
+    }
+}
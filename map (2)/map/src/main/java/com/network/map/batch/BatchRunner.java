@@ -0,0 +1,230 @@
+package com.network.map.batch;
+
+import com.network.map.NetworkMap;
+import com.network.map.NetworkMapImpl;
+import com.network.map.experiment.ExperimentParameter;
+import com.network.map.experiment.ExperimentResult;
+import com.network.map.experiment.GridExperiment;
+import com.network.map.surface.Surface;
+import com.network.map.util.ApproximatedSurface;
+import com.network.map.util.ErrorMetrics;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Пакетный запуск генерации, аппроксимации и экспериментов
+ * без графического интерфейса ({@link BatchConfig}).
+ * <p>
+ * Каждый файл параметров обрабатывается независимо, результаты
+ * выводятся в CSV или JSON по мере готовности, сообщения о ходе
+ * выполнения и ошибках - в стандартный поток ошибок. Классы AWT,
+ * Swing, jzy3d и xchart не используются, поэтому запуск возможен
+ * на серверах без графической подсистемы
+ */
+public class BatchRunner {
+    /**
+     * Аргумент командной строки для пакетного запуска
+     */
+    public static final String BATCH_OPTION = "--batch";
+
+    private final PrintStream log;
+
+    /**
+     * @param log Поток для сообщений о ходе выполнения
+     */
+    public BatchRunner(PrintStream log) {
+        this.log = log;
+    }
+
+    /**
+     * Обработать файлы параметров
+     *
+     * @param args Пути к файлам параметров
+     * @return Код завершения: 0 - все файлы обработаны, 1 - были ошибки
+     */
+    public static int run(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length == 0) {
+            System.err.println("Использование: " + BATCH_OPTION + " <файл параметров> [<файл параметров> ...]");
+            return 1;
+        }
+        BatchRunner runner = new BatchRunner(System.err);
+        int exitCode = 0;
+        for (String path : args) {
+            try {
+                runner.run(BatchConfig.load(new File(path)));
+            } catch (IOException | RuntimeException e) {
+                System.err.println(path + ": " + e.getMessage());
+                exitCode = 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 1;
+            }
+        }
+        return exitCode;
+    }
+
+    /**
+     * Выполнить запуск
+     *
+     * @param config Параметры запуска
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void run(BatchConfig config) throws IOException, InterruptedException {
+        log.println(config.getName() + ": " + config.getMode());
+        try (ResultWriter writer = config.getOutputFormat().create(openOutput(config))) {
+            switch (config.getMode()) {
+                case GENERATE:
+                case APPROXIMATE:
+                    runApproximation(config, writer);
+                    break;
+                case EXPERIMENT:
+                    runExperiment(config, writer);
+                    break;
+            }
+        }
+    }
+
+    private void runApproximation(BatchConfig config, ResultWriter writer) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("scenario", config.getName());
+        long start = System.nanoTime();
+        NetworkMap map = new NetworkMapImpl(config.getGenerateStrategy());
+        if (config.getMapFile() != null) {
+            map.loadFromFile(config.getMapFile());
+            if (map.getSurfaceData().getWidth() == 0) {
+                throw new IllegalArgumentException("Не удалось загрузить карту из файла " + config.getMapFile());
+            }
+        } else {
+            map.generate(config.getMapGenerationConfig());
+        }
+        row.put("width", map.getSurfaceWidth());
+        row.put("height", map.getSurfaceHeight());
+        row.put("signals", map.getSignals().size());
+        row.put("generationMillis", (System.nanoTime() - start) / 1e6);
+        if (config.getGeneratedMapFile() != null) {
+            map.saveToFile(config.getGeneratedMapFile());
+        }
+
+        if (config.getMode() == BatchConfig.Mode.APPROXIMATE) {
+            start = System.nanoTime();
+            ApproximatedSurface approximated = new ApproximatedSurface(
+                    config.getApproximationMethod().fit(map, config.getApproximationPow(), true),
+                    config.getApproximationScale()
+            );
+            ErrorMetrics metrics = ErrorMetrics.compute(map.getSurfaceData(), approximated, true);
+            row.put("method", config.getApproximationMethod());
+            row.put("pow", config.getApproximationPow());
+            row.put("scale", config.getApproximationScale());
+            row.put("sko", metrics.getRmse());
+            row.put("mae", metrics.getMae());
+            row.put("bias", metrics.getBias());
+            row.put("maxAbsError", metrics.getMaxAbsError());
+            row.put("p95AbsError", metrics.getPercentile(95));
+            row.put("approximationMillis", (System.nanoTime() - start) / 1e6);
+            if (config.getApproximatedSurfaceFile() != null) {
+                saveSurface(approximated.copy(), config.getApproximatedSurfaceFile());
+            }
+        }
+        writer.write(row);
+    }
+
+    private void runExperiment(BatchConfig config, ResultWriter writer) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(config.getExperimentThreads());
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+        GridExperiment[] experiment = new GridExperiment[1];
+        experiment[0] = new GridExperiment(config.getExperimentGrid(), executor,
+                config.getExperimentMaxActiveMaps(), new GridExperiment.Listener() {
+            @Override
+            public void onResult(ExperimentResult result) {
+                try {
+                    writer.write(toRow(config.getName(), result));
+                } catch (IOException e) {
+                    writeError.compareAndSet(null, e);
+                    experiment[0].cancel();
+                }
+            }
+
+            @Override
+            public void onProgress(int completed, int total) {
+                if (completed == total || completed % Math.max(1, total / 100) == 0) {
+                    log.println(String.format("%1$s: обработано %2$d из %3$d", config.getName(), completed, total));
+                }
+            }
+
+            @Override
+            public void onFinished(boolean cancelled) {
+                finished.countDown();
+            }
+        });
+        try {
+            experiment[0].start();
+            finished.await();
+        } catch (InterruptedException e) {
+            experiment[0].cancel();
+            throw e;
+        } finally {
+            executor.shutdown();
+        }
+        if (writeError.get() != null) {
+            throw writeError.get();
+        }
+    }
+
+    private static Map<String, Object> toRow(String scenario, ExperimentResult result) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("scenario", scenario);
+        row.put("method", result.getPoint().getApproximationMethod());
+        for (ExperimentParameter parameter : ExperimentParameter.values()) {
+            row.put(parameter.name(), result.getPoint().get(parameter));
+        }
+        row.put("sko", result.getSko());
+        row.put("mae", result.getMae());
+        row.put("maxAbsError", result.getMaxAbsError());
+        row.put("generationMillis", result.getGenerationMillis());
+        row.put("generationAllocatedBytes", result.getGenerationAllocatedBytes());
+        row.put("approximationMillis", result.getApproximationMillis());
+        row.put("approximationAllocatedBytes", result.getApproximationAllocatedBytes());
+        row.put("error", result.getError());
+        return row;
+    }
+
+    private static void saveSurface(Surface surface, String path) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+            out.writeObject(surface);
+        }
+    }
+
+    /**
+     * Поток вывода результатов: файл или стандартный вывод,
+     * который не закрывается после запуска
+     */
+    private static Writer openOutput(BatchConfig config) throws IOException {
+        if (config.getOutputFile() != null) {
+            return new OutputStreamWriter(new FileOutputStream(config.getOutputFile()), StandardCharsets.UTF_8);
+        }
+        return new FilterWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
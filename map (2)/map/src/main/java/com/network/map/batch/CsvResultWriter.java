@@ -0,0 +1,64 @@
+package com.network.map.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись результатов в CSV. Колонки определяются
+ * по первой строке, в следующих строках отсутствующие
+ * колонки остаются пустыми, а новые - не выводятся
+ */
+class CsvResultWriter implements ResultWriter {
+    private static final char SEPARATOR = ',';
+
+    private final Writer writer;
+    private List<String> columns;
+
+    CsvResultWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(Map<String, ?> row) throws IOException {
+        if (columns == null) {
+            columns = new ArrayList<>(row.keySet());
+            writeLine(new ArrayList<>(columns));
+        }
+        List<Object> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            values.add(row.get(column));
+        }
+        writeLine(values);
+    }
+
+    private void writeLine(List<?> values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(SEPARATOR);
+            }
+            line.append(escape(values.get(i)));
+        }
+        line.append(System.lineSeparator());
+        writer.write(line.toString());
+        writer.flush();
+    }
+
+    private static String escape(Object value) {
+        if (value == null) return "";
+        String text = String.valueOf(value);
+        if (text.indexOf(SEPARATOR) < 0 && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
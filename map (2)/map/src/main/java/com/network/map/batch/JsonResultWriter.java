@@ -0,0 +1,87 @@
+package com.network.map.batch;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Запись результатов в JSON: массив объектов,
+ * по одному объекту на строку результатов.
+ * Массив закрывается при закрытии записи
+ */
+class JsonResultWriter implements ResultWriter {
+    private final Writer writer;
+    private boolean empty = true;
+
+    JsonResultWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void write(Map<String, ?> row) throws IOException {
+        StringBuilder json = new StringBuilder(empty ? "[" : ",").append(System.lineSeparator()).append("  {");
+        boolean first = true;
+        for (Map.Entry<String, ?> value : row.entrySet()) {
+            json.append(first ? "" : ", ");
+            appendString(json, value.getKey());
+            json.append(": ");
+            appendValue(json, value.getValue());
+            first = false;
+        }
+        json.append('}');
+        writer.write(json.toString());
+        writer.flush();
+        empty = false;
+    }
+
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            // NaN и бесконечность не представимы в JSON
+            json.append(Double.isNaN(number) || Double.isInfinite(number) ? "null" : value.toString());
+        } else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendString(StringBuilder json, String text) {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.write((empty ? "[" : System.lineSeparator()) + "]" + System.lineSeparator());
+        writer.close();
+    }
+}
@@ -0,0 +1,50 @@
+package com.network.map.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Потоковая запись строк результатов. Каждая строка
+ * записывается и сбрасывается в поток сразу, поэтому
+ * результаты длительного запуска доступны по мере готовности.
+ * Методы потокобезопасны
+ */
+public interface ResultWriter extends Closeable {
+    /**
+     * Записать строку результатов
+     *
+     * @param row Значения по названиям колонок
+     *            (порядок колонок сохраняется)
+     * @throws IOException
+     */
+    void write(Map<String, ?> row) throws IOException;
+
+    /**
+     * Формат вывода результатов
+     */
+    enum Format {
+        CSV {
+            @Override
+            public ResultWriter create(Writer writer) {
+                return new CsvResultWriter(writer);
+            }
+        },
+        /**
+         * Массив JSON-объектов
+         */
+        JSON {
+            @Override
+            public ResultWriter create(Writer writer) {
+                return new JsonResultWriter(writer);
+            }
+        };
+
+        /**
+         * @param writer Поток вывода
+         * @return Запись результатов в поток
+         */
+        public abstract ResultWriter create(Writer writer);
+    }
+}
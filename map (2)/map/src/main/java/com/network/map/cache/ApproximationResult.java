@@ -0,0 +1,29 @@
+package com.network.map.cache;
+
+import com.network.map.util.ErrorMetrics;
+import com.network.map.util.SurfaceApproximation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Результат аппроксимации карты для кэша: построенная
+ * аппроксимация (коэффициенты) и ее погрешности.
+ * Аппроксимирующая поверхность любого масштаба
+ * строится по аппроксимации без вычислений
+ * ({@link com.network.map.util.ApproximatedSurface})
+ */
+@Getter
+@AllArgsConstructor
+public class ApproximationResult implements Serializable {
+    private final SurfaceApproximation approximation;
+    private final ErrorMetrics errorMetrics;
+
+    /**
+     * @return Объем результата в памяти, байт
+     */
+    public long getSizeInBytes() {
+        return approximation.getSizeInBytes();
+    }
+}
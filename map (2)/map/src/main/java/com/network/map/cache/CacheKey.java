@@ -0,0 +1,97 @@
+package com.network.map.cache;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Ключи кэша результатов ({@link ResultCache}): SHA-256
+ * от содержимого параметров, а не от ссылок на объекты,
+ * поэтому одинаковые параметры, заданные заново или
+ * загруженные из файла, дают одинаковый ключ
+ */
+public final class CacheKey {
+    private CacheKey() {
+    }
+
+    /**
+     * Ключ сгенерированной карты
+     *
+     * @param mapGenerationConfig Параметры генерации карты
+     * @param generateStrategy    Стратегия генерации (учитывается
+     *                            ее класс и сериализованное состояние)
+     * @return Ключ
+     */
+    public static String generation(MapGenerationConfig mapGenerationConfig, GenerateStrategy generateStrategy) {
+        return digest(out -> {
+            out.writeUTF("generation");
+            out.writeInt(mapGenerationConfig.getSurfaceWidth());
+            out.writeInt(mapGenerationConfig.getSurfaceHeight());
+            SurfacePrecision precision = mapGenerationConfig.getSurfacePrecision();
+            out.writeUTF(String.valueOf(precision));
+            out.writeDouble(mapGenerationConfig.getQuantizationScale());
+            out.writeDouble(mapGenerationConfig.getQuantizationOffset());
+            out.writeInt(mapGenerationConfig.getSignals().size());
+            for (MapGenerationConfig.Signal signal : mapGenerationConfig.getSignals()) {
+                out.writeInt(signal.getX() != null ? signal.getX() : -1);
+                out.writeInt(signal.getY() != null ? signal.getY() : -1);
+                out.writeDouble(signal.getPikeValue());
+                out.writeDouble(signal.getDegradationSpeed());
+            }
+            out.writeUTF(generateStrategy.getClass().getName());
+            ByteArrayOutputStream strategy = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(strategy)) {
+                objectOutputStream.writeObject(generateStrategy);
+            }
+            out.write(strategy.toByteArray());
+        });
+    }
+
+    /**
+     * Ключ аппроксимации карты
+     *
+     * @param generationKey       Ключ карты ({@link #generation})
+     * @param approximationMethod Метод аппроксимации
+     * @param approximationScale  Множитель масштаба аппроксимирующей поверхности
+     * @param approximationPow    Степень полинома
+     * @return Ключ
+     */
+    public static String approximation(String generationKey, ApproximationMethod approximationMethod,
+                                       int approximationScale, int approximationPow) {
+        return digest(out -> {
+            out.writeUTF("approximation");
+            out.writeUTF(generationKey);
+            out.writeUTF(approximationMethod.name());
+            out.writeInt(approximationScale);
+            out.writeInt(approximationPow);
+        });
+    }
+
+    private static String digest(KeyWriter writer) {
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(content)) {
+                writer.write(out);
+            }
+            StringBuilder key = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content.toByteArray())) {
+                key.append(String.format("%02x", b));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new RuntimeException("Ошибка вычисления ключа кэша", e);
+        }
+    }
+
+    private interface KeyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,263 @@
+package com.network.map.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш результатов (сгенерированных карт и аппроксимаций)
+ * по ключам {@link CacheKey}.
+ * <p>
+ * Размер кэша в памяти ограничен объемом значений в байтах:
+ * при превышении вытесняются давно не использованные значения.
+ * Если задан каталог на диске, вытесненные значения сериализуются
+ * в него (объем на диске ограничен так же) и при следующем запросе
+ * загружаются обратно в память. Значения на диске сохраняются
+ * между запусками приложения. Значения больше лимита памяти
+ * не кэшируются.
+ * <p>
+ * Значения передаются без копирования, поэтому их нельзя изменять
+ * после добавления в кэш. Методы потокобезопасны
+ */
+public class ResultCache {
+    private static final String FILE_EXTENSION = ".bin";
+
+    private final long maxBytes;
+    private final File spillDirectory;
+    private final long maxSpillBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> spilled = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long spillBytes;
+    private long hits;
+    private long spillHits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Кэш только в памяти
+     *
+     * @param maxBytes Макс. объем значений в памяти, байт
+     */
+    public ResultCache(long maxBytes) {
+        this(maxBytes, null, 0);
+    }
+
+    /**
+     * @param maxBytes       Макс. объем значений в памяти, байт
+     * @param spillDirectory Каталог для вытесненных значений или null
+     * @param maxSpillBytes  Макс. объем вытесненных значений на диске, байт
+     */
+    public ResultCache(long maxBytes, File spillDirectory, long maxSpillBytes) {
+        if (maxBytes < 0 || maxSpillBytes < 0) {
+            throw new IllegalArgumentException("Размер кэша не может быть отрицательным");
+        }
+        if (spillDirectory != null && !spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Не удалось создать каталог кэша: " + spillDirectory);
+        }
+        this.maxBytes = maxBytes;
+        this.spillDirectory = spillDirectory;
+        this.maxSpillBytes = maxSpillBytes;
+        if (spillDirectory != null) {
+            indexSpilledFiles();
+        }
+    }
+
+    /**
+     * Учесть значения, вытесненные на диск ранее (например,
+     * в предыдущем запуске приложения). Объем таких значений
+     * оценивается по размеру файла
+     */
+    private void indexSpilledFiles() {
+        File[] files = spillDirectory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (files == null) return;
+        for (File file : files) {
+            String name = file.getName();
+            spilled.put(name.substring(0, name.length() - FILE_EXTENSION.length()), file.length());
+            spillBytes += file.length();
+        }
+    }
+
+    /**
+     * Получить значение из памяти или с диска
+     *
+     * @param key Ключ
+     * @param <T> Тип значения
+     * @return Значение или null, если его нет в кэше
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends Serializable> T get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+            return (T) entry.value;
+        }
+        Long size = spilled.get(key);
+        if (size != null) {
+            Serializable value = readSpilled(key);
+            if (value != null) {
+                spillHits++;
+                if (accepts(size)) {
+                    removeSpilled(key);
+                    put(key, value, size);
+                }
+                return (T) value;
+            }
+            // Поврежденный файл считается промахом
+            removeSpilled(key);
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Добавить значение в кэш
+     *
+     * @param key         Ключ
+     * @param value       Значение
+     * @param sizeInBytes Объем значения в памяти, байт
+     */
+    public synchronized void put(String key, Serializable value, long sizeInBytes) {
+        if (!accepts(sizeInBytes)) return;
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= previous.size;
+        }
+        entries.put(key, new Entry(value, sizeInBytes));
+        bytes += sizeInBytes;
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.getValue().size;
+            evictions++;
+            spill(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    /**
+     * @param sizeInBytes Объем значения в памяти, байт
+     * @return Значение такого объема будет помещено в кэш
+     */
+    public boolean accepts(long sizeInBytes) {
+        return sizeInBytes <= maxBytes;
+    }
+
+    private void spill(String key, Entry entry) {
+        if (spillDirectory == null || entry.size > maxSpillBytes) return;
+        File file = file(key);
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeObject(entry.value);
+        } catch (IOException e) {
+            file.delete();
+            return;
+        }
+        spilled.put(key, entry.size);
+        spillBytes += entry.size;
+        Iterator<Map.Entry<String, Long>> eldest = spilled.entrySet().iterator();
+        while (spillBytes > maxSpillBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> evicted = eldest.next();
+            eldest.remove();
+            spillBytes -= evicted.getValue();
+            file(evicted.getKey()).delete();
+        }
+    }
+
+    private Serializable readSpilled(String key) {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file(key))))) {
+            return (Serializable) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    private void removeSpilled(String key) {
+        Long size = spilled.remove(key);
+        if (size != null) {
+            spillBytes -= size;
+            file(key).delete();
+        }
+    }
+
+    private File file(String key) {
+        return new File(spillDirectory, key + FILE_EXTENSION);
+    }
+
+    /**
+     * Очистить кэш в памяти и на диске
+     */
+    public synchronized void clear() {
+        for (String key : spilled.keySet()) {
+            file(key).delete();
+        }
+        entries.clear();
+        spilled.clear();
+        bytes = 0;
+        spillBytes = 0;
+    }
+
+    /**
+     * @return Статистика использования кэша
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hits, spillHits, misses, evictions, entries.size(), bytes, spilled.size(), spillBytes);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Serializable value;
+        private final long size;
+    }
+
+    /**
+     * Статистика использования кэша
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Stats {
+        /**
+         * Кол-во попаданий в памяти
+         */
+        private final long hits;
+        /**
+         * Кол-во попаданий на диске
+         */
+        private final long spillHits;
+        private final long misses;
+        /**
+         * Кол-во значений, вытесненных из памяти
+         */
+        private final long evictions;
+        private final int count;
+        private final long bytes;
+        private final int spilledCount;
+        private final long spilledBytes;
+
+        /**
+         * @return Доля попаданий (в памяти и на диске) среди всех запросов
+         */
+        public double getHitRate() {
+            long requests = hits + spillHits + misses;
+            return requests > 0 ? (double) (hits + spillHits) / requests : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Попаданий: %1$d (с диска %2$d), промахов: %3$d, вытеснено: %4$d%n"
+                            + "В памяти: %5$d (%6$,d байт), на диске: %7$d (%8$,d байт)",
+                    hits + spillHits, spillHits, misses, evictions, count, bytes, spilledCount, spilledBytes);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.network.map.experiment;
+
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.genstrategy.GenerateStrategy;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сетка эксперимента: декартово произведение значений
+ * параметров и методов аппроксимации
+ */
+@Getter
+@Builder
+public class ExperimentGrid {
+    /**
+     * Значения параметров. Незаданные параметры
+     * принимают значения по умолчанию
+     */
+    private final Map<ExperimentParameter, double[]> parameters;
+    /**
+     * Методы аппроксимации (по умолчанию {@link ApproximationMethod#ORTHOGONAL})
+     */
+    @Singular
+    private final List<ApproximationMethod> methods;
+    /**
+     * Начальное значение генератора расстановки источников
+     */
+    @Builder.Default
+    private final long seed = 1;
+    /**
+     * Стратегия генерации карт. Используется одновременно
+     * в нескольких потоках, поэтому не должна хранить состояние.
+     * Чтобы время и память генерации относились к одной точке,
+     * стратегия должна быть однопоточной
+     */
+    @Builder.Default
+    private final GenerateStrategy generateStrategy = new GenerateClosedFormStrategy();
+    /**
+     * Точность хранения карт
+     */
+    @Builder.Default
+    private final SurfacePrecision surfacePrecision = SurfacePrecision.DOUBLE;
+
+    /**
+     * Сформировать значения параметра по диапазону
+     *
+     * @param from Начальное значение
+     * @param to   Конечное значение (включительно)
+     * @param step Шаг
+     * @return Значения from, from + step, ..., не больше to
+     */
+    public static double[] range(double from, double to, double step) {
+        if (!(step > 0) || to < from) {
+            throw new IllegalArgumentException("Некорректный диапазон значений параметра");
+        }
+        int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = from + i * step;
+        }
+        return values;
+    }
+
+    /**
+     * @return Все точки сетки
+     */
+    public List<ExperimentPoint> getPoints() {
+        List<Map<ExperimentParameter, Double>> combinations = new ArrayList<>();
+        combinations.add(new EnumMap<>(ExperimentParameter.class));
+        for (Map.Entry<ExperimentParameter, double[]> parameter : parameters.entrySet()) {
+            List<Map<ExperimentParameter, Double>> extended = new ArrayList<>();
+            for (Map<ExperimentParameter, Double> combination : combinations) {
+                for (double value : parameter.getValue()) {
+                    Map<ExperimentParameter, Double> values = new EnumMap<>(combination);
+                    values.put(parameter.getKey(), value);
+                    extended.add(values);
+                }
+            }
+            combinations = extended;
+        }
+        List<ApproximationMethod> pointMethods = methods.isEmpty()
+                ? List.of(ApproximationMethod.ORTHOGONAL)
+                : methods;
+        List<ExperimentPoint> points = new ArrayList<>();
+        for (Map<ExperimentParameter, Double> values : combinations) {
+            for (ApproximationMethod method : pointMethods) {
+                points.add(new ExperimentPoint(values, method));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Точки сетки, сгруппированные по параметрам карты:
+     * точки одной группы аппроксимируют одну и ту же карту
+     *
+     * @return Группы точек в порядке обхода сетки
+     */
+    public List<List<ExperimentPoint>> getPointsByMap() {
+        Map<Map<ExperimentParameter, Double>, List<ExperimentPoint>> groups = new LinkedHashMap<>();
+        for (ExperimentPoint point : getPoints()) {
+            groups.computeIfAbsent(point.getMapValues(), key -> new ArrayList<>()).add(point);
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * Построитель сетки. Значения параметров задаются
+     * по одному параметру ({@link #parameter})
+     */
+    public static class ExperimentGridBuilder {
+        private Map<ExperimentParameter, double[]> parameters = Collections.emptyMap();
+
+        /**
+         * Задать значения параметра
+         *
+         * @param parameter Параметр
+         * @param values    Значения параметра
+         * @return Построитель
+         */
+        public ExperimentGridBuilder parameter(ExperimentParameter parameter, double... values) {
+            // Построенные ранее сетки не должны изменяться, поэтому значения копируются
+            Map<ExperimentParameter, double[]> copy = new LinkedHashMap<>(parameters);
+            copy.put(parameter, values.clone());
+            parameters = Collections.unmodifiableMap(copy);
+            return this;
+        }
+
+        /**
+         * Задать значения нескольких параметров
+         *
+         * @param parameters Значения параметров
+         * @return Построитель
+         */
+        public ExperimentGridBuilder parameters(Map<ExperimentParameter, double[]> parameters) {
+            parameters.forEach(this::parameter);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.network.map.experiment;
+
+import lombok.Getter;
+
+/**
+ * Параметр сетки эксперимента ({@link ExperimentGrid})
+ */
+@Getter
+public enum ExperimentParameter {
+    /**
+     * Степень полинома
+     */
+    POLYNOM_POW(5, false),
+    /**
+     * Множитель масштаба аппроксимирующей поверхности
+     */
+    APPROXIMATION_SCALE(1, false),
+    /**
+     * Размер стороны квадратной карты
+     */
+    MAP_SIZE(500, true),
+    /**
+     * Кол-во источников сигнала
+     */
+    SIGNALS_COUNT(10, true),
+    /**
+     * Нижняя граница скорости спада сигнала источников
+     */
+    MIN_DEGRADATION_SPEED(0, true),
+    /**
+     * Верхняя граница скорости спада сигнала источников
+     */
+    MAX_DEGRADATION_SPEED(0.5, true),
+    /**
+     * Верхняя граница уровня сигнала в вершине источника
+     */
+    MAX_PIKE_VALUE(10, true);
+
+    /**
+     * Значение, если параметр не задан в сетке
+     */
+    private final double defaultValue;
+    /**
+     * Параметр влияет на генерацию карты
+     * (точки с одинаковыми параметрами карты
+     * аппроксимируют одну и ту же карту)
+     */
+    private final boolean mapParameter;
+
+    ExperimentParameter(double defaultValue, boolean mapParameter) {
+        this.defaultValue = defaultValue;
+        this.mapParameter = mapParameter;
+    }
+}
@@ -0,0 +1,126 @@
+package com.network.map.experiment;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Точка сетки эксперимента: значения параметров и метод аппроксимации
+ */
+@EqualsAndHashCode
+public class ExperimentPoint {
+    private final EnumMap<ExperimentParameter, Double> values;
+    @Getter
+    private final ApproximationMethod approximationMethod;
+
+    /**
+     * @param values              Значения параметров (незаданные
+     *                            параметры принимают значения по умолчанию)
+     * @param approximationMethod Метод аппроксимации
+     */
+    public ExperimentPoint(Map<ExperimentParameter, Double> values, ApproximationMethod approximationMethod) {
+        this.values = new EnumMap<>(ExperimentParameter.class);
+        for (ExperimentParameter parameter : ExperimentParameter.values()) {
+            this.values.put(parameter, values.getOrDefault(parameter, parameter.getDefaultValue()));
+        }
+        this.approximationMethod = approximationMethod;
+    }
+
+    /**
+     * @param parameter Параметр
+     * @return Значение параметра
+     */
+    public double get(ExperimentParameter parameter) {
+        return values.get(parameter);
+    }
+
+    /**
+     * @param parameter Параметр
+     * @return Значение параметра, округленное до целого
+     */
+    public int getInt(ExperimentParameter parameter) {
+        return (int) Math.round(get(parameter));
+    }
+
+    /**
+     * @return Значения всех параметров
+     */
+    public Map<ExperimentParameter, Double> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @return Значения параметров, влияющих на генерацию карты
+     */
+    public Map<ExperimentParameter, Double> getMapValues() {
+        EnumMap<ExperimentParameter, Double> mapValues = new EnumMap<>(ExperimentParameter.class);
+        values.forEach((parameter, value) -> {
+            if (parameter.isMapParameter()) {
+                mapValues.put(parameter, value);
+            }
+        });
+        return mapValues;
+    }
+
+    /**
+     * Сформировать параметры генерации карты точки. Источники сигнала
+     * расставляются случайно, генератор инициализируется по seed
+     * и параметрам карты, поэтому точки с одинаковыми параметрами
+     * карты получают одну и ту же карту
+     *
+     * @param seed             Начальное значение генератора случайных чисел
+     * @param surfacePrecision Точность хранения карты
+     * @return Параметры генерации карты
+     */
+    public MapGenerationConfig createMapGenerationConfig(long seed, SurfacePrecision surfacePrecision) {
+        int size = getInt(ExperimentParameter.MAP_SIZE);
+        List<MapGenerationConfig.Signal> signals;
+        try {
+            signals = MapGenerationConfig.randomSignals(size, size,
+                    getInt(ExperimentParameter.SIGNALS_COUNT),
+                    get(ExperimentParameter.MAX_PIKE_VALUE),
+                    get(ExperimentParameter.MIN_DEGRADATION_SPEED),
+                    get(ExperimentParameter.MAX_DEGRADATION_SPEED),
+                    new Random(mapSeed(seed)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректные параметры карты: " + getMapValues(), e);
+        }
+        return MapGenerationConfig.builder()
+                .surfaceWidth(size)
+                .surfaceHeight(size)
+                .signals(signals)
+                .surfacePrecision(surfacePrecision)
+                .build();
+    }
+
+    /**
+     * Начальное значение генератора расстановки источников.
+     * Вычисляется по номерам и значениям параметров карты в порядке
+     * перечисления, а не по hashCode() элементов перечисления,
+     * который меняется от запуска к запуску JVM
+     *
+     * @param seed Начальное значение генератора сетки
+     * @return Начальное значение генератора карты
+     */
+    private long mapSeed(long seed) {
+        long result = seed;
+        for (Map.Entry<ExperimentParameter, Double> value : getMapValues().entrySet()) {
+            result = 31 * result + value.getKey().ordinal();
+            result = 31 * result + Double.doubleToLongBits(value.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return approximationMethod + " " + values;
+    }
+}
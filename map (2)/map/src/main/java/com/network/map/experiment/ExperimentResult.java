@@ -0,0 +1,72 @@
+package com.network.map.experiment;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Результат точки сетки эксперимента.
+ * Объем выделенной памяти равен -1, если JVM
+ * не поддерживает его измерение
+ */
+@Getter
+@AllArgsConstructor
+public class ExperimentResult {
+    private final ExperimentPoint point;
+    /**
+     * СКО аппроксимации в узлах карты
+     */
+    private final double sko;
+    /**
+     * Средняя абсолютная погрешность
+     */
+    private final double mae;
+    private final double maxAbsError;
+    /**
+     * Время генерации карты, мс (общее для точек одной карты)
+     */
+    private final double generationMillis;
+    /**
+     * Память, выделенная при генерации карты, байт
+     */
+    private final long generationAllocatedBytes;
+    /**
+     * Время аппроксимации и вычисления погрешности, мс
+     */
+    private final double approximationMillis;
+    /**
+     * Память, выделенная при аппроксимации
+     * и вычислении погрешности, байт
+     */
+    private final long approximationAllocatedBytes;
+    /**
+     * Сообщение об ошибке или null, если точка обработана
+     */
+    private final String error;
+
+    /**
+     * Результат точки, которая не была обработана из-за ошибки
+     *
+     * @param point Точка сетки
+     * @param error Ошибка
+     * @return Результат с погрешностями NaN
+     */
+    static ExperimentResult failed(ExperimentPoint point, Throwable error) {
+        return new ExperimentResult(point, Double.NaN, Double.NaN, Double.NaN,
+                Double.NaN, -1, Double.NaN, -1, String.valueOf(error));
+    }
+
+    /**
+     * @return Точка обработана без ошибок
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccessful()
+                ? String.format("%1$s: СКО %2$,.5f, генерация %3$,.1f мс, аппроксимация %4$,.1f мс, %5$,d байт",
+                point, sko, generationMillis, approximationMillis, approximationAllocatedBytes)
+                : String.format("%1$s: %2$s", point, error);
+    }
+}
@@ -0,0 +1,256 @@
+package com.network.map.experiment;
+
+import com.network.map.NetworkMap;
+import com.network.map.NetworkMapImpl;
+import com.network.map.util.ApproximatedSurface;
+import com.network.map.util.ErrorMetrics;
+import com.network.map.util.SurfaceApproximation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Эксперимент по сетке параметров ({@link ExperimentGrid}),
+ * выполняемый в заданном пуле потоков.
+ * <p>
+ * Точки группируются по параметрам карты: карта группы генерируется
+ * одной задачей, после чего каждая точка группы аппроксимируется
+ * отдельной задачей. Одновременно обрабатывается не больше
+ * maxActiveMaps карт, следующая карта генерируется после завершения
+ * всех точек одной из текущих, поэтому расход памяти не зависит
+ * от размера сетки.
+ * <p>
+ * Генерация и аппроксимация точки выполняются в одном потоке
+ * (однопоточными алгоритмами), поэтому время и объем выделенной
+ * памяти ({@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes})
+ * относятся только к этой точке. Ошибка точки не прерывает эксперимент,
+ * а передается в результате.
+ * <p>
+ * Отмена кооперативная: задачи, которые еще не начались, пропускаются,
+ * новые карты не генерируются. Слушатель вызывается
+ * из потоков пула одновременно
+ */
+public class GridExperiment {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final ExperimentGrid grid;
+    private final ExecutorService executor;
+    private final int maxActiveMaps;
+    private final Listener listener;
+    private final List<List<ExperimentPoint>> groups;
+    private final int total;
+    private final AtomicInteger nextGroup = new AtomicInteger();
+    private final AtomicInteger activeGroups = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    /**
+     * @param grid          Сетка эксперимента
+     * @param executor      Пул потоков
+     * @param maxActiveMaps Макс. кол-во карт, обрабатываемых одновременно
+     * @param listener      Слушатель результатов (вызывается в потоках пула)
+     */
+    public GridExperiment(ExperimentGrid grid, ExecutorService executor, int maxActiveMaps, Listener listener) {
+        if (maxActiveMaps < 1) {
+            throw new IllegalArgumentException("Кол-во одновременно обрабатываемых карт должно быть положительным");
+        }
+        this.grid = grid;
+        this.executor = executor;
+        this.maxActiveMaps = maxActiveMaps;
+        this.listener = listener;
+        this.groups = grid.getPointsByMap();
+        this.total = groups.stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Запустить эксперимент и вернуть управление,
+     * не дожидаясь результатов
+     */
+    public void start() {
+        // Не дает завершить эксперимент, пока запускаются первые группы
+        activeGroups.incrementAndGet();
+        for (int i = 0; i < maxActiveMaps; i++) {
+            if (!startNextGroup()) break;
+        }
+        if (activeGroups.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private boolean startNextGroup() {
+        if (cancelled.get()) return false;
+        int group = nextGroup.getAndIncrement();
+        if (group >= groups.size()) return false;
+        activeGroups.incrementAndGet();
+        executor.execute(() -> runGroup(groups.get(group)));
+        return true;
+    }
+
+    private void groupFinished() {
+        startNextGroup();
+        if (activeGroups.decrementAndGet() == 0) {
+            finish();
+        }
+    }
+
+    private void runGroup(List<ExperimentPoint> points) {
+        if (cancelled.get()) {
+            groupFinished();
+            return;
+        }
+        NetworkMap map;
+        double generationMillis;
+        long generationAllocatedBytes;
+        try {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            map = new NetworkMapImpl(grid.getGenerateStrategy())
+                    .generate(points.get(0).createMapGenerationConfig(grid.getSeed(), grid.getSurfacePrecision()));
+            generationMillis = (System.nanoTime() - start) / 1e6;
+            generationAllocatedBytes = allocatedSince(allocatedBefore);
+        } catch (RuntimeException e) {
+            try {
+                for (ExperimentPoint point : points) {
+                    report(ExperimentResult.failed(point, e));
+                }
+            } finally {
+                groupFinished();
+            }
+            return;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(points.size());
+        for (ExperimentPoint point : points) {
+            executor.execute(() -> {
+                try {
+                    if (!cancelled.get()) {
+                        report(runPoint(point, map, generationMillis, generationAllocatedBytes));
+                    }
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        groupFinished();
+                    }
+                }
+            });
+        }
+    }
+
+    private ExperimentResult runPoint(ExperimentPoint point, NetworkMap map,
+                                      double generationMillis, long generationAllocatedBytes) {
+        try {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            // Аппроксимирующая поверхность не строится: погрешности
+            // вычисляются по значениям аппроксимации в узлах карты
+            SurfaceApproximation fitted = point.getApproximationMethod().fit(map,
+                    point.getInt(ExperimentParameter.POLYNOM_POW), false);
+            ErrorMetrics metrics = ErrorMetrics.compute(map.getSurfaceData(),
+                    new ApproximatedSurface(fitted, point.getInt(ExperimentParameter.APPROXIMATION_SCALE)), false);
+            double approximationMillis = (System.nanoTime() - start) / 1e6;
+            return new ExperimentResult(point, metrics.getRmse(), metrics.getMae(), metrics.getMaxAbsError(),
+                    generationMillis, generationAllocatedBytes,
+                    approximationMillis, allocatedSince(allocatedBefore), null);
+        } catch (RuntimeException e) {
+            return ExperimentResult.failed(point, e);
+        }
+    }
+
+    private void report(ExperimentResult result) {
+        if (cancelled.get()) return;
+        listener.onResult(result);
+        listener.onProgress(completed.incrementAndGet(), total);
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            listener.onFinished(cancelled.get());
+        }
+    }
+
+    /**
+     * @return Память, выделенная текущим потоком, байт, или -1,
+     * если JVM не поддерживает измерение
+     */
+    private static long allocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    private static long allocatedSince(long allocatedBefore) {
+        long allocatedAfter = allocatedBytes();
+        return allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+    }
+
+    /**
+     * Отменить эксперимент
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * @return Эксперимент отменен
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * @return Все точки обработаны или эксперимент
+     * отменен и начатые задачи завершены
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * @return Кол-во обработанных точек
+     */
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * @return Кол-во точек сетки
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Слушатель результатов эксперимента
+     */
+    public interface Listener {
+        /**
+         * Получен результат точки сетки
+         *
+         * @param result Результат
+         */
+        void onResult(ExperimentResult result);
+
+        /**
+         * @param completed Кол-во обработанных точек
+         * @param total     Кол-во точек сетки
+         */
+        default void onProgress(int completed, int total) {
+        }
+
+        /**
+         * Эксперимент завершен
+         *
+         * @param cancelled Эксперимент был отменен
+         */
+        default void onFinished(boolean cancelled) {
+        }
+    }
+}
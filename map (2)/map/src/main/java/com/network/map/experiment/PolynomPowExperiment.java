@@ -0,0 +1,308 @@
+package com.network.map.experiment;
+
+import com.network.map.surface.Surface;
+import com.network.map.util.ApproximatedSurface;
+import com.network.map.util.ApproximationMethod;
+import com.network.map.util.ErrorMetrics;
+import com.network.map.util.OrthogonalApproximation;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Эксперимент для нахождения зависимости погрешности (СКО)
+ * от степени полинома, выполняемый в заданном пуле потоков.
+ * <p>
+ * Степени аппроксимируются одновременно (каждая в отдельной задаче,
+ * начиная с самых трудоемких старших степеней), результат каждой
+ * степени передается слушателю сразу по готовности, поэтому
+ * порядок результатов не определен. Для {@link ApproximationMethod#ORTHOGONAL}
+ * степени вычисляются в одной задаче последовательным повышением
+ * степени одной аппроксимации ({@link OrthogonalApproximation#increasePow}),
+ * что дешевле отдельных аппроксимаций.
+ * <p>
+ * Отмена кооперативная: задачи, которые еще не начались, не выполняются,
+ * а начатая аппроксимация степени завершается, но ее результат не передается.
+ * Ошибка аппроксимации останавливает эксперимент так же, как отмена,
+ * и передается слушателю ({@link Listener#onError}) до завершения.
+ * Слушатель вызывается из потоков пула одновременно
+ */
+public class PolynomPowExperiment {
+    private final ApproximationMethod approximationMethod;
+    @Getter
+    private final int polynomPowFrom;
+    @Getter
+    private final int polynomPowTo;
+    private final ExecutorService executor;
+    private final Listener listener;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger remainingTasks = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final List<Task> tasks = new ArrayList<>();
+
+    /**
+     * @param approximationMethod Метод аппроксимации
+     * @param polynomPowFrom      Начальная степень полинома
+     * @param polynomPowTo        Конечная степень полинома
+     * @param executor            Пул потоков для аппроксимации степеней
+     * @param listener            Слушатель результатов (вызывается в потоках пула)
+     */
+    public PolynomPowExperiment(ApproximationMethod approximationMethod, int polynomPowFrom, int polynomPowTo,
+                                ExecutorService executor, Listener listener) {
+        if (polynomPowFrom < 0 || polynomPowTo < polynomPowFrom) {
+            throw new IllegalArgumentException("Некорректный диапазон степеней полинома");
+        }
+        this.approximationMethod = approximationMethod;
+        this.polynomPowFrom = polynomPowFrom;
+        this.polynomPowTo = polynomPowTo;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Проверить, что все степени эксперимента применимы к карте
+     * заданного размера
+     *
+     * @param width  Ширина карты
+     * @param height Высота карты
+     */
+    public void checkSurfaceSize(int width, int height) {
+        if (polynomPowTo >= Math.min(width, height)) {
+            throw new IllegalArgumentException(String.format(
+                    "Степень полинома %d должна быть меньше размера карты %dx%d", polynomPowTo, width, height));
+        }
+    }
+
+    /**
+     * Запустить аппроксимацию всех степеней поверхности
+     * и вернуть управление, не дожидаясь результатов.
+     * Если эксперимент уже остановлен или степени не применимы
+     * к карте, задачи не запускаются, а слушатель сразу
+     * получает ошибку и завершение
+     *
+     * @param surface Аппроксимируемая карта
+     */
+    public void start(Surface surface) {
+        try {
+            checkSurfaceSize(surface.getWidth(), surface.getHeight());
+        } catch (IllegalArgumentException e) {
+            fail(e);
+            return;
+        }
+        synchronized (tasks) {
+            if (stopped.get()) {
+                finish();
+                return;
+            }
+            if (approximationMethod == ApproximationMethod.ORTHOGONAL) {
+                tasks.add(new Task(() -> runOrthogonal(surface)));
+            } else {
+                for (int pow = polynomPowTo; pow >= polynomPowFrom; pow--) {
+                    int approximationPow = pow;
+                    tasks.add(new Task(() -> runPow(surface, approximationPow)));
+                }
+            }
+            remainingTasks.set(tasks.size());
+            for (Task task : tasks) {
+                task.future = executor.submit(task);
+            }
+        }
+    }
+
+    private void runPow(Surface surface, int approximationPow) {
+        if (stopped.get()) return;
+        ApproximatedSurface approximated = new ApproximatedSurface(
+                approximationMethod.fit(surface, approximationPow, false), 1);
+        report(approximationPow, ErrorMetrics.compute(surface, approximated, false).getRmse());
+    }
+
+    private void runOrthogonal(Surface surface) {
+        OrthogonalApproximation approximation = null;
+        for (int pow = polynomPowFrom; pow <= polynomPowTo && !stopped.get(); pow++) {
+            if (approximation == null) {
+                approximation = new OrthogonalApproximation(surface, pow, true);
+            } else {
+                approximation.increasePow(surface, pow);
+            }
+            report(pow, approximation.getSko(pow));
+        }
+    }
+
+    private void report(int approximationPow, double sko) {
+        if (stopped.get()) return;
+        listener.onResult(approximationPow, sko);
+        listener.onProgress(completed.incrementAndGet(), getTotal());
+    }
+
+    private void taskFinished(int count) {
+        if (remainingTasks.addAndGet(-count) == 0) {
+            finish();
+        }
+    }
+
+    private void finish() {
+        if (finished.compareAndSet(false, true)) {
+            listener.onFinished(cancelled.get());
+        }
+    }
+
+    /**
+     * Отменить эксперимент. Задачи, ожидающие в пуле,
+     * удаляются, результаты начатых задач не передаются
+     */
+    public void cancel() {
+        cancelled.set(true);
+        stop();
+    }
+
+    /**
+     * Остановить эксперимент с ошибкой, например если не удалось
+     * подготовить карту. Слушатель получает только первую ошибку
+     *
+     * @param error Ошибка
+     */
+    public void fail(Throwable error) {
+        if (!this.error.compareAndSet(null, error)) return;
+        stop();
+        listener.onError(error);
+        synchronized (tasks) {
+            // Задачи не запускались, завершать эксперимент некому
+            if (tasks.isEmpty()) {
+                finish();
+            }
+        }
+    }
+
+    private void stop() {
+        stopped.set(true);
+        synchronized (tasks) {
+            int notStarted = 0;
+            for (Task task : tasks) {
+                if (task.claim()) {
+                    task.future.cancel(false);
+                    notStarted++;
+                }
+            }
+            if (notStarted > 0) {
+                taskFinished(notStarted);
+            }
+        }
+    }
+
+    /**
+     * @return Эксперимент отменен
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * @return Ошибка, остановившая эксперимент, или null
+     */
+    public Throwable getError() {
+        return error.get();
+    }
+
+    /**
+     * @return Все степени обработаны или эксперимент
+     * остановлен и начатые задачи завершены
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * @return Кол-во обработанных степеней
+     */
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * @return Кол-во степеней в эксперименте
+     */
+    public int getTotal() {
+        return polynomPowTo - polynomPowFrom + 1;
+    }
+
+    /**
+     * Задача пула. Выполняется только если не была
+     * до этого захвачена отменой, поэтому каждая задача
+     * завершается ровно один раз независимо от того,
+     * как пул обрабатывает отмену {@link Future}
+     */
+    private class Task implements Runnable {
+        private final Runnable body;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private Future<?> future;
+
+        Task(Runnable body) {
+            this.body = body;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) return;
+            try {
+                body.run();
+            } catch (RuntimeException e) {
+                fail(e);
+            } catch (Error e) {
+                fail(e);
+                throw e;
+            } finally {
+                taskFinished(1);
+            }
+        }
+    }
+
+    /**
+     * Слушатель результатов эксперимента
+     */
+    public interface Listener {
+        /**
+         * Получен результат степени полинома
+         *
+         * @param approximationPow Степень полинома
+         * @param sko              Погрешность (СКО)
+         */
+        void onResult(int approximationPow, double sko);
+
+        /**
+         * @param completed Кол-во обработанных степеней
+         * @param total     Кол-во степеней в эксперименте
+         */
+        default void onProgress(int completed, int total) {
+        }
+
+        /**
+         * Эксперимент остановлен ошибкой. Вызывается
+         * не больше одного раза, до {@link #onFinished}
+         *
+         * @param error Ошибка
+         */
+        default void onError(Throwable error) {
+        }
+
+        /**
+         * Эксперимент завершен
+         *
+         * @param cancelled Эксперимент был отменен
+         */
+        default void onFinished(boolean cancelled) {
+        }
+    }
+}
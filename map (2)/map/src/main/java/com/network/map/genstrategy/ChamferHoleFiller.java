@@ -0,0 +1,299 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.Surface;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Заполнение провалов (точек с нулевым уровнем сигнала)
+ * на сгенерированной карте chamfer-преобразованием.
+ * <p>
+ * Каждый провал получает значение max(0, max(соседи) - 1)
+ * по 8 соседям, причем уже заполненные провалы тоже распространяют
+ * значение дальше. Прямой проход (сверху-вниз, слева-направо)
+ * учитывает соседей сверху и слева, обратный - снизу и справа.
+ * Двух проходов достаточно только для провалов, выпуклых в порядке
+ * обхода: в невыпуклый провал (подкова, спираль) значение приходит
+ * по пути со сменой направления, поэтому проходы чередуются, пока
+ * очередной проход что-то изменяет. Результат не зависит от того,
+ * в каком порядке провалы были обнаружены, каждый проход - O(W*H);
+ * для выпуклых провалов добавляется один проверочный проход.
+ * <p>
+ * Проходы выполняются по копии строк карты с рамкой в одну точку,
+ * поэтому во внутреннем цикле нет проверок границ.
+ * Значение уменьшается на 1 на каждом шаге, поэтому влияние
+ * точки ограничено расстоянием ceil(max), и карту можно
+ * обрабатывать полосами строк с перекрытием такой ширины
+ * (последовательно или параллельно) - результат совпадает
+ * с обработкой всей карты.
+ * <p>
+ * В буфере хранится только полоса с перекрытием, ее строки
+ * сразу записываются в карту. Строки у границ полосы, которые
+ * читают соседние полосы, записываются после обработки всех полос
+ */
+public final class ChamferHoleFiller {
+    /**
+     * Минимальное кол-во строк в полосе, обрабатываемой
+     * одной задачей (в однопоточном режиме - кол-во строк в полосе)
+     */
+    private static final int MIN_ROWS_PER_TASK = 256;
+
+    private ChamferHoleFiller() {
+    }
+
+    /**
+     * Заполнить провалы на карте
+     *
+     * @param sourceMap Карта
+     * @param parallel  Обрабатывать полосы строк параллельно
+     */
+    public static void fill(Surface sourceMap, boolean parallel) {
+        int mapH = sourceMap.getHeight();
+        if (mapH == 0 || sourceMap.getWidth() == 0) return;
+
+        if (mapH <= MIN_ROWS_PER_TASK) {
+            writeRows(fillRows(sourceMap, 0, mapH), sourceMap, 0, 0, mapH);
+            return;
+        }
+
+        int halo = calcHalo(sourceMap);
+        Queue<EdgeRows> edgeRows = new ConcurrentLinkedQueue<>();
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new BandTask(sourceMap, halo, 0, mapH, edgeRows));
+        } else {
+            for (int fromRow = 0; fromRow < mapH; fromRow += MIN_ROWS_PER_TASK) {
+                fillBand(sourceMap, halo, fromRow, Math.min(mapH, fromRow + MIN_ROWS_PER_TASK), edgeRows);
+            }
+        }
+        for (EdgeRows rows : edgeRows) {
+            rows.writeTo(sourceMap);
+        }
+    }
+
+    /**
+     * Ширина перекрытия полос: расстояние, на которое
+     * может распространиться значение максимальной точки карты
+     *
+     * @param sourceMap Карта
+     * @return Ширина перекрытия в строках
+     */
+    private static int calcHalo(Surface sourceMap) {
+        double max = 0;
+        double[] row = new double[sourceMap.getWidth()];
+        for (int i = 0; i < sourceMap.getHeight(); i++) {
+            for (double value : sourceMap.readRow(i, row)) {
+                max = Math.max(max, value);
+            }
+        }
+        return (int) Math.ceil(max) + 1;
+    }
+
+    /**
+     * Заполнить провалы в строках [y0; y1) карты.
+     * Исходная карта не изменяется
+     *
+     * @param sourceMap Карта
+     * @param y0        Первая строка
+     * @param y1        Строка, следующая за последней
+     * @return Буфер строк с рамкой в одну точку
+     * (ширина строки буфера - ширина карты + 2)
+     */
+    private static double[] fillRows(Surface sourceMap, int y0, int y1) {
+        int mapW = sourceMap.getWidth();
+        int rows = y1 - y0;
+        int stride = mapW + 2;
+
+        double[] buffer = new double[(rows + 2) * stride];
+        boolean[] holes = new boolean[buffer.length];
+        for (int i = 0; i < rows; i++) {
+            int offset = (i + 1) * stride + 1;
+            sourceMap.readRow(y0 + i, 0, mapW, buffer, offset);
+            for (int p = offset; p < offset + mapW; p++) {
+                holes[p] = buffer[p] == 0;
+            }
+        }
+
+        // После прямого прохода каждая точка не меньше соседей сверху и слева минус 1,
+        // после обратного - соседей снизу и справа. Если проход ничего не изменил,
+        // выполнены оба условия, и значения больше не изменятся
+        forwardPass(buffer, holes, rows, mapW);
+        boolean backward = true;
+        while (backward ? backwardPass(buffer, holes, rows, mapW) : forwardPass(buffer, holes, rows, mapW)) {
+            backward = !backward;
+        }
+        return buffer;
+    }
+
+    /**
+     * Прямой проход: сверху-вниз, слева-направо по соседям сверху и слева
+     *
+     * @param buffer Буфер строк с рамкой
+     * @param holes  Провалы в буфере
+     * @param rows   Кол-во строк буфера без рамки
+     * @param mapW   Ширина карты
+     * @return Изменено значение хотя бы одной точки
+     */
+    private static boolean forwardPass(double[] buffer, boolean[] holes, int rows, int mapW) {
+        int stride = mapW + 2;
+        boolean changed = false;
+        for (int i = 1; i <= rows; i++) {
+            int offset = i * stride;
+            for (int p = offset + 1; p <= offset + mapW; p++) {
+                if (!holes[p]) continue;
+                double value = Math.max(
+                        Math.max(buffer[p - 1], buffer[p - stride - 1]),
+                        Math.max(buffer[p - stride], buffer[p - stride + 1])
+                ) - 1;
+                if (value > buffer[p]) {
+                    buffer[p] = value;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Обратный проход: снизу-вверх, справа-налево по соседям снизу и справа
+     *
+     * @param buffer Буфер строк с рамкой
+     * @param holes  Провалы в буфере
+     * @param rows   Кол-во строк буфера без рамки
+     * @param mapW   Ширина карты
+     * @return Изменено значение хотя бы одной точки
+     */
+    private static boolean backwardPass(double[] buffer, boolean[] holes, int rows, int mapW) {
+        int stride = mapW + 2;
+        boolean changed = false;
+        for (int i = rows; i >= 1; i--) {
+            int offset = i * stride;
+            for (int p = offset + mapW; p >= offset + 1; p--) {
+                if (!holes[p]) continue;
+                double value = Math.max(
+                        Math.max(buffer[p + 1], buffer[p + stride + 1]),
+                        Math.max(buffer[p + stride], buffer[p + stride - 1])
+                ) - 1;
+                if (value > buffer[p]) {
+                    buffer[p] = value;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Заполнить провалы в полосе строк [fromRow; toRow) с перекрытием
+     * и записать строки, которые не читают соседние полосы (дальше halo
+     * от границ полосы). Остальные строки полосы добавляются в edgeRows
+     *
+     * @param sourceMap Карта
+     * @param halo      Ширина перекрытия в строках
+     * @param fromRow   Первая строка полосы
+     * @param toRow     Строка, следующая за последней строкой полосы
+     * @param edgeRows  Строки у границ полос
+     */
+    private static void fillBand(Surface sourceMap, int halo, int fromRow, int toRow, Queue<EdgeRows> edgeRows) {
+        int mapW = sourceMap.getWidth();
+        int mapH = sourceMap.getHeight();
+        int y0 = Math.max(0, fromRow - halo);
+        int y1 = Math.min(mapH, toRow + halo);
+        double[] buffer = fillRows(sourceMap, y0, y1);
+
+        int innerFrom = fromRow == 0 ? 0 : Math.min(toRow, fromRow + halo);
+        int innerTo = toRow == mapH ? mapH : Math.max(innerFrom, toRow - halo);
+        if (innerFrom > fromRow) {
+            edgeRows.add(new EdgeRows(buffer, mapW, y0, fromRow, innerFrom));
+        }
+        if (innerTo < toRow) {
+            edgeRows.add(new EdgeRows(buffer, mapW, y0, innerTo, toRow));
+        }
+        writeRows(buffer, sourceMap, y0, innerFrom, innerTo);
+    }
+
+    /**
+     * Записать строки [fromRow; toRow) из буфера {@link #fillRows}
+     *
+     * @param buffer  Буфер строк с рамкой
+     * @param target  Поверхность, в которую записываются строки
+     * @param y0      Строка карты, соответствующая первой строке буфера
+     * @param fromRow Первая записываемая строка
+     * @param toRow   Строка, следующая за последней записываемой
+     */
+    private static void writeRows(double[] buffer, Surface target, int y0, int fromRow, int toRow) {
+        int mapW = target.getWidth();
+        int stride = mapW + 2;
+        for (int y = fromRow; y < toRow; y++) {
+            target.writeRow(y, 0, mapW, buffer, (y - y0 + 1) * stride + 1);
+        }
+    }
+
+    /**
+     * Заполненные строки у границы полосы, которые
+     * записываются после обработки всех полос
+     */
+    private static class EdgeRows {
+        private final int fromRow;
+        private final int toRow;
+        private final double[] values;
+
+        /**
+         * @param buffer  Буфер строк с рамкой ({@link #fillRows})
+         * @param mapW    Ширина карты
+         * @param y0      Строка карты, соответствующая первой строке буфера
+         * @param fromRow Первая строка
+         * @param toRow   Строка, следующая за последней
+         */
+        EdgeRows(double[] buffer, int mapW, int y0, int fromRow, int toRow) {
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.values = new double[(toRow - fromRow) * mapW];
+            for (int y = fromRow; y < toRow; y++) {
+                System.arraycopy(buffer, (y - y0 + 1) * (mapW + 2) + 1, values, (y - fromRow) * mapW, mapW);
+            }
+        }
+
+        void writeTo(Surface target) {
+            int mapW = target.getWidth();
+            for (int y = fromRow; y < toRow; y++) {
+                target.writeRow(y, 0, mapW, values, (y - fromRow) * mapW);
+            }
+        }
+    }
+
+    /**
+     * Задача заполнения провалов в полосе строк,
+     * рекурсивно делящая полосу пополам
+     */
+    private static class BandTask extends RecursiveAction {
+        private final Surface sourceMap;
+        private final int halo;
+        private final int fromRow;
+        private final int toRow;
+        private final Queue<EdgeRows> edgeRows;
+
+        BandTask(Surface sourceMap, int halo, int fromRow, int toRow, Queue<EdgeRows> edgeRows) {
+            this.sourceMap = sourceMap;
+            this.halo = halo;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.edgeRows = edgeRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= MIN_ROWS_PER_TASK) {
+                fillBand(sourceMap, halo, fromRow, toRow, edgeRows);
+                return;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(
+                    new BandTask(sourceMap, halo, fromRow, middle, edgeRows),
+                    new BandTask(sourceMap, halo, middle, toRow, edgeRows)
+            );
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.DoubleSurface;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Запись тайлов в файл карты без отображения файла в память.
+ * Формат файла совпадает с {@link com.network.map.surface.MappedSurface}
+ * точности DOUBLE: значения double (little-endian) построчно,
+ * поэтому готовый файл можно открыть как поверхность.
+ * Строки тайла записываются позиционно, поэтому запись
+ * из разных потоков не требует блокировок
+ */
+public class FileTileSink implements TileSink, Closeable {
+    private final FileChannel channel;
+    private final int mapWidth;
+
+    /**
+     * @param path     Путь к файлу карты
+     * @param mapWidth Ширина карты
+     */
+    public FileTileSink(String path, int mapWidth) {
+        try {
+            this.channel = FileChannel.open(Paths.get(path),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось открыть файл карты " + path, e);
+        }
+        this.mapWidth = mapWidth;
+    }
+
+    @Override
+    public void accept(Tile tile) {
+        DoubleSurface values = tile.getValues();
+        ByteBuffer buffer = ByteBuffer.allocate(tile.getWidth() * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            for (int i = 0; i < tile.getHeight(); i++) {
+                buffer.clear();
+                buffer.asDoubleBuffer().put(values.getData(), values.indexOf(0, i), tile.getWidth());
+                long position = ((long) (tile.getY() + i) * mapWidth + tile.getX()) * Double.BYTES;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось записать тайл в файл карты", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
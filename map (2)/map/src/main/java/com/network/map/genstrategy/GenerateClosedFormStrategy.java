@@ -0,0 +1,370 @@
+package com.network.map.genstrategy;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.surface.Surface;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Реализация стратегии генерации карты, вычисляющая
+ * уровень сигнала в каждой точке напрямую по расстоянию
+ * до каждого источника: pikeValue - distance * degradationSpeed.
+ * Вклады источников объединяются по максимуму.
+ * <p>
+ * В отличие от {@link GenerateSimpleStrategy} не создает объектов
+ * в процессе генерации и не оставляет провалов, поэтому
+ * коррекция артефактов не требуется.
+ * <p>
+ * Карта обрабатывается тайлами. Для каждого тайла по индексу
+ * {@link SignalGridIndex} выбираются только те источники,
+ * зона действия которых его пересекает, поэтому стоимость
+ * генерации зависит от локальной плотности источников,
+ * а не от их общего кол-ва. Тайл копируется в локальный буфер,
+ * обрабатывается и записывается обратно, поэтому стратегия
+ * одинаково работает с любым хранилищем поверхности.
+ * <p>
+ * В параллельном режиме карта делится на полосы тайлов,
+ * которые обрабатываются в {@link ForkJoinPool#commonPool()}.
+ * Каждая задача пишет только в свои строки, поэтому блокировки
+ * не нужны, а результат побитово совпадает с однопоточным.
+ * <p>
+ * Поддерживает локальное обновление карты при изменении одного
+ * источника сигнала (см. {@link IncrementalGenerateStrategy}):
+ * пересчитывается только зона действия измененного источника
+ */
+public class GenerateClosedFormStrategy implements IncrementalGenerateStrategy {
+    /**
+     * Размер стороны тайла (и ячейки индекса источников)
+     */
+    static final int TILE_SIZE = 64;
+
+    private final boolean parallel;
+
+    public GenerateClosedFormStrategy() {
+        this(false);
+    }
+
+    /**
+     * @param parallel Генерировать карту параллельно по полосам тайлов
+     */
+    public GenerateClosedFormStrategy(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public Surface generate(Surface sourceMap, MapGenerationConfig mapGenerationConfig) {
+        return generate(sourceMap, null, SignalSources.of(mapGenerationConfig.getSignals()));
+    }
+
+    @Override
+    public Surface generate(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig) {
+        Arrays.fill(contributors, NO_CONTRIBUTOR);
+        return generate(sourceMap, contributors, SignalSources.of(mapGenerationConfig.getSignals()));
+    }
+
+    private Surface generate(Surface sourceMap, int[] contributors, SignalSources sources) {
+        if (sourceMap.getWidth() == 0 || sourceMap.getHeight() == 0) return sourceMap;
+
+        SignalGridIndex index = SignalGridIndex.build(sources, sourceMap.getWidth(), sourceMap.getHeight(), TILE_SIZE);
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new TileBandTask(sourceMap, contributors, sources, index, 0, index.rows));
+        } else {
+            fillTileRows(sourceMap, contributors, sources, index, 0, index.rows, new double[TILE_SIZE * TILE_SIZE]);
+        }
+        return sourceMap;
+    }
+
+    @Override
+    public int[] addSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig, int signalIndex) {
+        SignalSources sources = SignalSources.of(mapGenerationConfig.getSignals());
+        int[] bounds = reachBounds(sourceMap, sources, signalIndex);
+        applyRect(sourceMap, contributors, sources, signalIndex, bounds, new double[TILE_SIZE * TILE_SIZE]);
+        return bounds;
+    }
+
+    @Override
+    public int[] moveSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig,
+                            int signalIndex, int x, int y) {
+        MapGenerationConfig.Signal signal = mapGenerationConfig.getSignals().get(signalIndex);
+        SignalSources sources = SignalSources.of(mapGenerationConfig.getSignals());
+        double[] tile = new double[TILE_SIZE * TILE_SIZE];
+        int[] retractedBounds = retractSignal(sourceMap, contributors, sources, signalIndex, tile);
+
+        signal.setX(x);
+        signal.setY(y);
+        sources.x[signalIndex] = x;
+        sources.y[signalIndex] = y;
+        int[] bounds = reachBounds(sourceMap, sources, signalIndex);
+        applyRect(sourceMap, contributors, sources, signalIndex, bounds, tile);
+        return union(retractedBounds, bounds);
+    }
+
+    @Override
+    public int[] removeSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig, int signalIndex) {
+        List<MapGenerationConfig.Signal> signals = mapGenerationConfig.getSignals();
+        SignalSources sources = SignalSources.of(signals);
+        int[] retractedBounds = retractSignal(sourceMap, contributors, sources, signalIndex,
+                new double[TILE_SIZE * TILE_SIZE]);
+
+        int lastIndex = signals.size() - 1;
+        if (signalIndex != lastIndex) {
+            int mapW = sourceMap.getWidth();
+            int[] bounds = reachBounds(sourceMap, sources, lastIndex);
+            for (int i = bounds[2]; i <= bounds[3]; i++) {
+                for (int p = i * mapW + bounds[0]; p <= i * mapW + bounds[1]; p++) {
+                    if (contributors[p] == lastIndex) {
+                        contributors[p] = signalIndex;
+                    }
+                }
+            }
+            signals.set(signalIndex, signals.get(lastIndex));
+        }
+        signals.remove(lastIndex);
+        return retractedBounds;
+    }
+
+    /**
+     * Убрать с карты вклад источника сигнала: обнулить точки,
+     * в которых он был определяющим, и заново нанести на них
+     * остальные источники, зона действия которых их пересекает
+     *
+     * @param sourceMap    Карта
+     * @param contributors Номера источников для точек карты
+     * @param sources      Источники сигнала
+     * @param s            Номер источника
+     * @param tile         Буфер тайла
+     * @return Границы зоны действия источника, вне которой карта не изменяется
+     */
+    private static int[] retractSignal(Surface sourceMap, int[] contributors, SignalSources sources, int s, double[] tile) {
+        int mapW = sourceMap.getWidth();
+        int[] bounds = reachBounds(sourceMap, sources, s);
+        int count = bounds[1] - bounds[0] + 1;
+        double[] row = new double[Math.max(count, 0)];
+        boolean hasDirtyPoints = false;
+        for (int i = bounds[2]; i <= bounds[3]; i++) {
+            boolean rowChanged = false;
+            sourceMap.readRow(i, bounds[0], count, row, 0);
+            for (int j = 0; j < count; j++) {
+                int p = i * mapW + bounds[0] + j;
+                if (contributors[p] == s) {
+                    row[j] = 0;
+                    contributors[p] = NO_CONTRIBUTOR;
+                    rowChanged = true;
+                }
+            }
+            if (rowChanged) {
+                sourceMap.writeRow(i, bounds[0], count, row, 0);
+                hasDirtyPoints = true;
+            }
+        }
+        if (!hasDirtyPoints) return bounds;
+
+        // В точках, где источник s не был определяющим, максимум остальных
+        // источников уже записан, поэтому повторное нанесение их не изменит
+        for (int t = 0; t < sources.count; t++) {
+            if (t == s) continue;
+            int[] otherBounds = reachBounds(sourceMap, sources, t);
+            int[] intersection = {
+                    Math.max(bounds[0], otherBounds[0]), Math.min(bounds[1], otherBounds[1]),
+                    Math.max(bounds[2], otherBounds[2]), Math.min(bounds[3], otherBounds[3])
+            };
+            applyRect(sourceMap, contributors, sources, t, intersection, tile);
+        }
+        return bounds;
+    }
+
+    /**
+     * @param a Границы {minX, maxX, minY, maxY} (включительно)
+     * @param b Границы {minX, maxX, minY, maxY} (включительно)
+     * @return Наименьшие границы, содержащие обе области
+     */
+    private static int[] union(int[] a, int[] b) {
+        if (a[1] < a[0] || a[3] < a[2]) return b;
+        if (b[1] < b[0] || b[3] < b[2]) return a;
+        return new int[]{
+                Math.min(a[0], b[0]), Math.max(a[1], b[1]),
+                Math.min(a[2], b[2]), Math.max(a[3], b[3])
+        };
+    }
+
+    /**
+     * Нанести на карту вклад источника сигнала в прямоугольной
+     * области, обрабатывая ее блоками размером с тайл
+     *
+     * @param sourceMap    Карта
+     * @param contributors Номера источников для точек карты
+     * @param sources      Источники сигнала
+     * @param s            Номер источника
+     * @param bounds       Границы области {minX, maxX, minY, maxY} (включительно)
+     * @param tile         Буфер тайла
+     */
+    private static void applyRect(Surface sourceMap, int[] contributors, SignalSources sources, int s,
+                                  int[] bounds, double[] tile) {
+        for (int y0 = bounds[2]; y0 <= bounds[3]; y0 += TILE_SIZE) {
+            int y1 = Math.min(y0 + TILE_SIZE, bounds[3] + 1);
+            for (int x0 = bounds[0]; x0 <= bounds[1]; x0 += TILE_SIZE) {
+                int x1 = Math.min(x0 + TILE_SIZE, bounds[1] + 1);
+                loadTile(sourceMap, tile, x0, y0, x1, y1);
+                fillRect(tile, x1 - x0, x0, y0, contributors, sourceMap.getWidth(), sources, s, x0, y0, x1, y1);
+                storeTile(sourceMap, tile, x0, y0, x1, y1);
+            }
+        }
+    }
+
+    /**
+     * Границы зоны действия источника сигнала на карте
+     *
+     * @param sourceMap Карта
+     * @param sources   Источники сигнала
+     * @param s         Номер источника
+     * @return Границы {minX, maxX, minY, maxY} (включительно)
+     */
+    private static int[] reachBounds(Surface sourceMap, SignalSources sources, int s) {
+        int[][] bounds = new int[4][1];
+        SignalGridIndex.calcReachBounds(sources, s, sourceMap.getWidth(), sourceMap.getHeight(), bounds, 0);
+        return new int[]{bounds[0][0], bounds[1][0], bounds[2][0], bounds[3][0]};
+    }
+
+    /**
+     * Заполнить полосу тайлов карты [fromTileRow; toTileRow)
+     *
+     * @param sourceMap    Карта
+     * @param contributors Номера источников для точек карты или null
+     * @param sources      Источники сигнала
+     * @param index        Индекс источников сигнала
+     * @param fromTileRow  Первая строка тайлов полосы
+     * @param toTileRow    Строка тайлов, следующая за последней строкой полосы
+     * @param tile         Буфер тайла
+     */
+    static void fillTileRows(Surface sourceMap, int[] contributors, SignalSources sources, SignalGridIndex index,
+                             int fromTileRow, int toTileRow, double[] tile) {
+        for (int cellY = fromTileRow; cellY < toTileRow; cellY++) {
+            for (int cellX = 0; cellX < index.columns; cellX++) {
+                fillTile(sourceMap, contributors, sources, index, cellX, cellY, tile);
+            }
+        }
+    }
+
+    /**
+     * Объединить по максимуму вклады источников сигнала,
+     * пересекающих тайл, в точки тайла
+     *
+     * @param sourceMap    Карта
+     * @param contributors Номера источников для точек карты или null
+     * @param sources      Источники сигнала
+     * @param index        Индекс источников сигнала
+     * @param cellX        Номер столбца тайла
+     * @param cellY        Номер строки тайла
+     * @param tile         Буфер тайла
+     */
+    static void fillTile(Surface sourceMap, int[] contributors, SignalSources sources, SignalGridIndex index,
+                         int cellX, int cellY, double[] tile) {
+        int start = index.start(cellX, cellY);
+        int end = index.end(cellX, cellY);
+        if (start == end) return;
+
+        int tileX0 = cellX * index.cellSize;
+        int tileY0 = cellY * index.cellSize;
+        int tileX1 = Math.min(tileX0 + index.cellSize, index.width);
+        int tileY1 = Math.min(tileY0 + index.cellSize, index.height);
+        loadTile(sourceMap, tile, tileX0, tileY0, tileX1, tileY1);
+        for (int position = start; position < end; position++) {
+            int s = index.signalAt(position);
+            fillRect(tile, tileX1 - tileX0, tileX0, tileY0, contributors, index.width, sources, s,
+                    Math.max(tileX0, index.minX[s]), Math.max(tileY0, index.minY[s]),
+                    Math.min(tileX1, index.maxX[s] + 1), Math.min(tileY1, index.maxY[s] + 1));
+        }
+        storeTile(sourceMap, tile, tileX0, tileY0, tileX1, tileY1);
+    }
+
+    private static void loadTile(Surface sourceMap, double[] tile, int x0, int y0, int x1, int y1) {
+        for (int i = y0; i < y1; i++) {
+            sourceMap.readRow(i, x0, x1 - x0, tile, (i - y0) * (x1 - x0));
+        }
+    }
+
+    private static void storeTile(Surface sourceMap, double[] tile, int x0, int y0, int x1, int y1) {
+        for (int i = y0; i < y1; i++) {
+            sourceMap.writeRow(i, x0, x1 - x0, tile, (i - y0) * (x1 - x0));
+        }
+    }
+
+    /**
+     * Объединить по максимуму вклад источника сигнала
+     * в прямоугольную область карты [x0; x1) x [y0; y1),
+     * загруженную в буфер тайла
+     *
+     * @param tile         Буфер тайла
+     * @param tileStride   Шаг строки в буфере тайла
+     * @param originX      Координата x точки карты, соответствующей началу буфера
+     * @param originY      Координата y точки карты, соответствующей началу буфера
+     * @param contributors Номера источников для точек карты или null
+     * @param mapW         Ширина карты
+     * @param sources      Источники сигнала
+     * @param s            Номер источника
+     */
+    static void fillRect(double[] tile, int tileStride, int originX, int originY, int[] contributors, int mapW,
+                         SignalSources sources, int s, int x0, int y0, int x1, int y1) {
+        double pikeValue = sources.pikeValue[s];
+        double degradationSpeed = sources.degradationSpeed[s];
+        double signalX = sources.x[s];
+        double signalY = sources.y[s];
+        for (int i = y0; i < y1; i++) {
+            double dy = i - signalY;
+            double dy2 = dy * dy;
+            if (pikeValue - Math.abs(dy) * degradationSpeed <= 0) continue;
+
+            int rowOffset = (i - originY) * tileStride - originX;
+            for (int j = x0; j < x1; j++) {
+                double dx = j - signalX;
+                double value = pikeValue - Math.sqrt(dx * dx + dy2) * degradationSpeed;
+                if (value > tile[rowOffset + j]) {
+                    tile[rowOffset + j] = value;
+                    if (contributors != null) {
+                        contributors[i * mapW + j] = s;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Задача заполнения полосы тайлов карты,
+     * рекурсивно делящая полосу пополам
+     */
+    private static class TileBandTask extends RecursiveAction {
+        private final Surface sourceMap;
+        private final int[] contributors;
+        private final SignalSources sources;
+        private final SignalGridIndex index;
+        private final int fromTileRow;
+        private final int toTileRow;
+
+        TileBandTask(Surface sourceMap, int[] contributors, SignalSources sources, SignalGridIndex index,
+                     int fromTileRow, int toTileRow) {
+            this.sourceMap = sourceMap;
+            this.contributors = contributors;
+            this.sources = sources;
+            this.index = index;
+            this.fromTileRow = fromTileRow;
+            this.toTileRow = toTileRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toTileRow - fromTileRow <= 1) {
+                fillTileRows(sourceMap, contributors, sources, index, fromTileRow, toTileRow,
+                        new double[TILE_SIZE * TILE_SIZE]);
+                return;
+            }
+            int middle = (fromTileRow + toTileRow) >>> 1;
+            invokeAll(
+                    new TileBandTask(sourceMap, contributors, sources, index, fromTileRow, middle),
+                    new TileBandTask(sourceMap, contributors, sources, index, middle, toTileRow)
+            );
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.network.map.genstrategy;
 
 import com.network.map.MapGenerationConfig;
+import com.network.map.surface.Surface;
 
 import java.awt.geom.Point2D;
 import java.util.HashSet;
@@ -11,15 +12,53 @@ import java.util.Set;
  * Реализация стратегии генерации карты
  */
 public class GenerateSimpleStrategy implements GenerateStrategy {
-    public double[][] generate(double[][] sourceMap, MapGenerationConfig mapGenerationConfig) {
+    /**
+     * Совпадает с версией класса без настроек коррекции,
+     * чтобы сохраненные ранее карты загружались
+     */
+    private static final long serialVersionUID = 1661725604601096746L;
+
+    private final WhiteZonesCorrection whiteZonesCorrection;
+    private final boolean parallel;
+
+    public GenerateSimpleStrategy() {
+        this(WhiteZonesCorrection.CHAMFER, false);
+    }
+
+    /**
+     * @param whiteZonesCorrection Способ коррекции артефактов генерации
+     * @param parallel             Корректировать артефакты параллельно
+     *                             полосами строк (только для {@link WhiteZonesCorrection#CHAMFER})
+     */
+    public GenerateSimpleStrategy(WhiteZonesCorrection whiteZonesCorrection, boolean parallel) {
+        this.whiteZonesCorrection = whiteZonesCorrection;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Карта с пониженной точностью хранения генерируется сразу
+     * в целевой поверхности без промежуточной карты: уровни источника
+     * сравниваются с сохраненными (округленными) значениями, поэтому
+     * отдельные точки могут отличаться от округленной карты точности
+     * {@link com.network.map.surface.SurfacePrecision#DOUBLE}
+     * на несколько шагов квантования
+     */
+    public Surface generate(Surface generatedMap, MapGenerationConfig mapGenerationConfig) {
         Random random = new Random();
         mapGenerationConfig.getSignals()
                 .stream()
                 .forEach(signal -> {
-                    generateSource(sourceMap, signal);
+                    generateSource(generatedMap, signal);
                 });
-        correctWhiteZones(sourceMap);
-        return sourceMap;
+        switch (whiteZonesCorrection) {
+            case CHAMFER:
+                ChamferHoleFiller.fill(generatedMap, parallel);
+                break;
+            case NEIGHBOURS:
+                correctWhiteZones(generatedMap);
+                break;
+        }
+        return generatedMap;
     }
 
     /**
@@ -29,11 +68,11 @@ public class GenerateSimpleStrategy implements GenerateStrategy {
      * @param sourceMap Карта, для которой генерируется сигнал
      * @param signal    Параметры источника сигнала
      */
-    private void generateSource(double[][] sourceMap, MapGenerationConfig.Signal signal) {
+    private void generateSource(Surface sourceMap, MapGenerationConfig.Signal signal) {
         double maxSignalValue = signal.getPikeValue();
-        sourceMap[signal.getY()][signal.getX()] = maxSignalValue;
-        int mapW = sourceMap[0].length;
-        int mapH = sourceMap.length;
+        sourceMap.set(signal.getX(), signal.getY(), maxSignalValue);
+        int mapW = sourceMap.getWidth();
+        int mapH = sourceMap.getHeight();
         int iterationsCount = (int) (Math.max(mapW, mapH) * 1.5f);
 
         int pointsCount = 4;
@@ -49,10 +88,10 @@ public class GenerateSimpleStrategy implements GenerateStrategy {
                 Point2D.Double point = new Point2D.Double(pointX, pointY);
                 if (pointY < mapH && pointY >= 0 &&
                         pointX < mapW && pointX >= 0 &&
-                        sourceMap[pointY][pointX] < maxSignalValue &&
+                        sourceMap.get(pointX, pointY) < maxSignalValue &&
                         !realPoints.contains(point)) {
                     realPoints.add(point);
-                    sourceMap[pointY][pointX] = maxSignalValue;
+                    sourceMap.set(pointX, pointY, maxSignalValue);
                     realPintsCount++;
                 }
             }
@@ -67,9 +106,9 @@ public class GenerateSimpleStrategy implements GenerateStrategy {
      *
      * @param sourceMap
      */
-    private void correctWhiteZones(double[][] sourceMap) {
-        int mapW = sourceMap[0].length;
-        int mapH = sourceMap.length;
+    private void correctWhiteZones(Surface sourceMap) {
+        int mapW = sourceMap.getWidth();
+        int mapH = sourceMap.getHeight();
         for (int i = 0; i < mapH; i++) {
             for (int j = 0; j < mapW; j++) {
                 fillAround8Of(sourceMap, j, i);
@@ -85,35 +124,60 @@ public class GenerateSimpleStrategy implements GenerateStrategy {
      * @param x         Координата x
      * @param y         Координата y
      */
-    private void fillAround8Of(double[][] sourceMap, int x, int y) {
-        if (sourceMap[y][x] <= 0) return;
+    private void fillAround8Of(Surface sourceMap, int x, int y) {
+        double value = sourceMap.get(x, y);
+        if (value <= 0) return;
 
-        int mapW = sourceMap[0].length;
-        int mapH = sourceMap.length;
-        if (y - 1 < mapH && y - 1 >= 0 && x < mapW && x >= 0 && sourceMap[y - 1][x] == 0) {
-            sourceMap[y - 1][x] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        int mapW = sourceMap.getWidth();
+        int mapH = sourceMap.getHeight();
+        double fillValue = value - 1 > 0 ? value - 1 : 0;
+        if (y - 1 < mapH && y - 1 >= 0 && x < mapW && x >= 0 && sourceMap.get(x, y - 1) == 0) {
+            sourceMap.set(x, y - 1, fillValue);
         }
-        if (y - 1 < mapH && y - 1 >= 0 && x + 1 < mapW && x + 1 > 0 && sourceMap[y - 1][x + 1] == 0) {
-            sourceMap[y - 1][x + 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y - 1 < mapH && y - 1 >= 0 && x + 1 < mapW && x + 1 > 0 && sourceMap.get(x + 1, y - 1) == 0) {
+            sourceMap.set(x + 1, y - 1, fillValue);
         }
-        if (y + 1 < mapH && y + 1 > 0 && x < mapW && x >= 0 && sourceMap[y + 1][x] == 0) {
-            sourceMap[y + 1][x] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y + 1 < mapH && y + 1 > 0 && x < mapW && x >= 0 && sourceMap.get(x, y + 1) == 0) {
+            sourceMap.set(x, y + 1, fillValue);
         }
-        if (y + 1 < mapH && y + 1 > 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap[y + 1][x - 1] == 0) {
-            sourceMap[y + 1][x - 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y + 1 < mapH && y + 1 > 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap.get(x - 1, y + 1) == 0) {
+            sourceMap.set(x - 1, y + 1, fillValue);
         }
-        if (y < mapH && y >= 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap[y][x - 1] == 0) {
-            sourceMap[y][x - 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y < mapH && y >= 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap.get(x - 1, y) == 0) {
+            sourceMap.set(x - 1, y, fillValue);
         }
-        if (y - 1 < mapH && y - 1 >= 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap[y - 1][x - 1] == 0) {
-            sourceMap[y - 1][x - 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y - 1 < mapH && y - 1 >= 0 && x - 1 < mapW && x - 1 >= 0 && sourceMap.get(x - 1, y - 1) == 0) {
+            sourceMap.set(x - 1, y - 1, fillValue);
         }
-        if (y < mapH && y >= 0 && x + 1 < mapW && x + 1 > 0 && sourceMap[y][x + 1] == 0) {
-            sourceMap[y][x + 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y < mapH && y >= 0 && x + 1 < mapW && x + 1 > 0 && sourceMap.get(x + 1, y) == 0) {
+            sourceMap.set(x + 1, y, fillValue);
         }
-        if (y + 1 < mapH && y + 1 > 0 && x + 1 < mapW && x + 1 > 0 && sourceMap[y + 1][x + 1] == 0) {
-            sourceMap[y + 1][x + 1] = sourceMap[y][x] - 1 > 0 ? sourceMap[y][x] - 1 : 0;
+        if (y + 1 < mapH && y + 1 > 0 && x + 1 < mapW && x + 1 > 0 && sourceMap.get(x + 1, y + 1) == 0) {
+            sourceMap.set(x + 1, y + 1, fillValue);
         }
 
     }
+
+    /**
+     * Стратегия из файла, сохраненного до появления настроек
+     * коррекции, заменяется стратегией по умолчанию
+     */
+    private Object readResolve() {
+        return whiteZonesCorrection == null ? new GenerateSimpleStrategy() : this;
+    }
+
+    /**
+     * Способы коррекции артефактов генерации
+     */
+    public enum WhiteZonesCorrection {
+        /**
+         * Заполнение провалов вокруг каждой точки за один проход
+         * (результат зависит от порядка обхода)
+         */
+        NEIGHBOURS,
+        /**
+         * Chamfer-преобразование ({@link ChamferHoleFiller})
+         */
+        CHAMFER
+    }
 }
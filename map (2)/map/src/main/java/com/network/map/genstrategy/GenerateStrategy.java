@@ -1,6 +1,8 @@
 package com.network.map.genstrategy;
 
 import com.network.map.MapGenerationConfig;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
 
 import java.io.Serializable;
 
@@ -16,5 +18,22 @@ public interface GenerateStrategy extends Serializable {
      * @param mapGenerationConfig Параметры генерации
      * @return Сгенерированная карта
      */
-    double[][] generate(double[][] sourceMap, MapGenerationConfig mapGenerationConfig);
+    Surface generate(Surface sourceMap, MapGenerationConfig mapGenerationConfig);
+
+    /**
+     * Сгенерировать карту с заданными параметрами
+     * (совместимость с картами в виде матрицы)
+     *
+     * @param sourceMap           Исходная карта, для которой необходимо
+     *                            сгенерировать новые источники сигналов
+     * @param mapGenerationConfig Параметры генерации
+     * @return Сгенерированная карта
+     */
+    default double[][] generate(double[][] sourceMap, MapGenerationConfig mapGenerationConfig) {
+        Surface surface = generate(DoubleSurface.fromArray(sourceMap), mapGenerationConfig);
+        for (int i = 0; i < sourceMap.length; i++) {
+            surface.readRow(i, sourceMap[i]);
+        }
+        return sourceMap;
+    }
 }
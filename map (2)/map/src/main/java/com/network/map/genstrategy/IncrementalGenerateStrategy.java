@@ -0,0 +1,78 @@
+package com.network.map.genstrategy;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.surface.Surface;
+
+/**
+ * Стратегия генерации карты, поддерживающая локальное
+ * обновление карты при добавлении, перемещении и удалении
+ * одного источника сигнала.
+ * <p>
+ * Для каждой точки карты (построчно) хранится номер источника
+ * (индекс в {@link MapGenerationConfig#getSignals()}),
+ * давшего максимальный уровень сигнала, либо {@link #NO_CONTRIBUTOR}.
+ * Это позволяет при удалении источника пересчитывать только
+ * точки, в которых он был определяющим
+ */
+public interface IncrementalGenerateStrategy extends GenerateStrategy {
+    /**
+     * Точка карты не покрыта ни одним источником
+     */
+    int NO_CONTRIBUTOR = -1;
+
+    /**
+     * Сгенерировать карту с заданными параметрами,
+     * запомнив для каждой точки определяющий источник
+     *
+     * @param sourceMap           Пустая карта
+     * @param contributors        Номера источников для точек карты
+     *                            (построчно, width * height элементов)
+     * @param mapGenerationConfig Параметры генерации
+     * @return Сгенерированная карта
+     */
+    Surface generate(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig);
+
+    /**
+     * Нанести на карту источник сигнала, уже добавленный
+     * в конец списка источников параметров генерации
+     *
+     * @param sourceMap           Карта
+     * @param contributors        Номера источников для точек карты
+     * @param mapGenerationConfig Параметры генерации
+     * @param signalIndex         Номер добавленного источника
+     * @return Границы измененной области карты {minX, maxX, minY, maxY}
+     * (включительно, при maxX < minX область пуста)
+     */
+    int[] addSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig, int signalIndex);
+
+    /**
+     * Переместить источник сигнала в точку {x;y}
+     * и пересчитать старую и новую зоны его действия
+     *
+     * @param sourceMap           Карта
+     * @param contributors        Номера источников для точек карты
+     * @param mapGenerationConfig Параметры генерации
+     * @param signalIndex         Номер перемещаемого источника
+     * @param x                   Новая координата x
+     * @param y                   Новая координата y
+     * @return Границы измененной области карты {minX, maxX, minY, maxY}
+     * (включительно, при maxX < minX область пуста)
+     */
+    int[] moveSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig,
+                    int signalIndex, int x, int y);
+
+    /**
+     * Удалить источник сигнала из параметров генерации
+     * и пересчитать зону его действия.
+     * На место удаленного источника в списке
+     * переносится последний источник
+     *
+     * @param sourceMap           Карта
+     * @param contributors        Номера источников для точек карты
+     * @param mapGenerationConfig Параметры генерации
+     * @param signalIndex         Номер удаляемого источника
+     * @return Границы измененной области карты {minX, maxX, minY, maxY}
+     * (включительно, при maxX < minX область пуста)
+     */
+    int[] removeSignal(Surface sourceMap, int[] contributors, MapGenerationConfig mapGenerationConfig, int signalIndex);
+}
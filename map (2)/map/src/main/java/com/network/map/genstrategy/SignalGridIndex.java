@@ -0,0 +1,150 @@
+package com.network.map.genstrategy;
+
+/**
+ * Пространственный индекс источников сигнала в виде
+ * равномерной сетки квадратных ячеек (тайлов).
+ * <p>
+ * Каждый источник попадает во все ячейки, которые пересекает
+ * прямоугольник его зоны действия (радиус pikeValue / degradationSpeed).
+ * Списки источников ячеек хранятся в сжатом виде
+ * (смещения + общий массив номеров), без упаковки в объекты
+ */
+final class SignalGridIndex {
+    /**
+     * Запас в одну клетку вокруг зоны действия, чтобы погрешность
+     * округления радиуса не отсекла точки с положительным уровнем сигнала
+     */
+    private static final int REACH_MARGIN = 1;
+
+    final int cellSize;
+    final int columns;
+    final int rows;
+    final int width;
+    final int height;
+    /**
+     * Границы зоны действия источников (включительно),
+     * обрезанные по границам карты.
+     * Если minX > maxX, источник не влияет на карту
+     */
+    final int[] minX;
+    final int[] maxX;
+    final int[] minY;
+    final int[] maxY;
+
+    private final int[] cellStart;
+    private final int[] cellSignals;
+
+    /**
+     * Построить индекс источников сигнала для карты заданного размера
+     *
+     * @param sources  Источники сигнала
+     * @param width    Ширина карты
+     * @param height   Высота карты
+     * @param cellSize Размер стороны ячейки индекса
+     * @return Индекс источников сигнала
+     */
+    static SignalGridIndex build(SignalSources sources, int width, int height, int cellSize) {
+        int[][] bounds = new int[4][sources.count];
+        for (int s = 0; s < sources.count; s++) {
+            calcReachBounds(sources, s, width, height, bounds, s);
+        }
+        return new SignalGridIndex(cellSize, width, height, bounds);
+    }
+
+    private SignalGridIndex(int cellSize, int width, int height, int[][] bounds) {
+        this.cellSize = cellSize;
+        this.width = width;
+        this.height = height;
+        this.columns = (width + cellSize - 1) / cellSize;
+        this.rows = (height + cellSize - 1) / cellSize;
+        this.minX = bounds[0];
+        this.maxX = bounds[1];
+        this.minY = bounds[2];
+        this.maxY = bounds[3];
+        this.cellStart = new int[columns * rows + 1];
+
+        for (int s = 0; s < minX.length; s++) {
+            if (minX[s] > maxX[s] || minY[s] > maxY[s]) continue;
+            for (int cy = minY[s] / cellSize; cy <= maxY[s] / cellSize; cy++) {
+                for (int cx = minX[s] / cellSize; cx <= maxX[s] / cellSize; cx++) {
+                    cellStart[cy * columns + cx + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < columns * rows; i++) {
+            cellStart[i + 1] += cellStart[i];
+        }
+        this.cellSignals = new int[cellStart[columns * rows]];
+        int[] cellFill = new int[columns * rows];
+        for (int s = 0; s < minX.length; s++) {
+            if (minX[s] > maxX[s] || minY[s] > maxY[s]) continue;
+            for (int cy = minY[s] / cellSize; cy <= maxY[s] / cellSize; cy++) {
+                for (int cx = minX[s] / cellSize; cx <= maxX[s] / cellSize; cx++) {
+                    int cell = cy * columns + cx;
+                    cellSignals[cellStart[cell] + cellFill[cell]++] = s;
+                }
+            }
+        }
+    }
+
+    /**
+     * Рассчитать границы зоны действия источника сигнала
+     *
+     * @param sources Источники сигнала
+     * @param s       Номер источника
+     * @param width   Ширина карты
+     * @param height  Высота карты
+     * @param bounds  Массивы границ {minX, maxX, minY, maxY}
+     * @param index   Позиция в массивах границ
+     */
+    static void calcReachBounds(SignalSources sources, int s, int width, int height, int[][] bounds, int index) {
+        double pikeValue = sources.pikeValue[s];
+        double degradationSpeed = sources.degradationSpeed[s];
+        double reach = degradationSpeed > 0
+                ? pikeValue / degradationSpeed + REACH_MARGIN
+                : Double.POSITIVE_INFINITY;
+        if (pikeValue <= 0
+                || sources.x[s] + reach < 0 || sources.x[s] - reach > width - 1
+                || sources.y[s] + reach < 0 || sources.y[s] - reach > height - 1) {
+            bounds[0][index] = 0;
+            bounds[1][index] = -1;
+            bounds[2][index] = 0;
+            bounds[3][index] = -1;
+            return;
+        }
+        bounds[0][index] = clamp(Math.floor(sources.x[s] - reach), width);
+        bounds[1][index] = clamp(Math.ceil(sources.x[s] + reach), width);
+        bounds[2][index] = clamp(Math.floor(sources.y[s] - reach), height);
+        bounds[3][index] = clamp(Math.ceil(sources.y[s] + reach), height);
+    }
+
+    private static int clamp(double value, int size) {
+        return (int) Math.max(0, Math.min(size - 1, value));
+    }
+
+    /**
+     * @param cellX Номер столбца ячейки
+     * @param cellY Номер строки ячейки
+     * @return Позиция первого источника ячейки
+     */
+    int start(int cellX, int cellY) {
+        return cellStart[cellY * columns + cellX];
+    }
+
+    /**
+     * @param cellX Номер столбца ячейки
+     * @param cellY Номер строки ячейки
+     * @return Позиция, следующая за последним источником ячейки
+     */
+    int end(int cellX, int cellY) {
+        return cellStart[cellY * columns + cellX + 1];
+    }
+
+    /**
+     * @param position Позиция в списке источников ячеек
+     * @return Номер источника сигнала
+     */
+    int signalAt(int position) {
+        return cellSignals[position];
+    }
+}
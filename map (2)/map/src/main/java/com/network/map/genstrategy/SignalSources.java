@@ -0,0 +1,59 @@
+package com.network.map.genstrategy;
+
+import com.network.map.MapGenerationConfig;
+
+import java.util.List;
+
+/**
+ * Параметры источников сигнала, разложенные
+ * по примитивным массивам для горячих циклов генерации
+ * (без распаковки Integer и обращения к геттерам)
+ */
+final class SignalSources {
+    final int count;
+    final double[] x;
+    final double[] y;
+    final double[] pikeValue;
+    final double[] degradationSpeed;
+
+    private SignalSources(int count) {
+        this.count = count;
+        this.x = new double[count];
+        this.y = new double[count];
+        this.pikeValue = new double[count];
+        this.degradationSpeed = new double[count];
+    }
+
+    /**
+     * Сформировать массивы параметров из списка источников сигнала
+     *
+     * @param signals Источники сигнала
+     * @return Параметры источников сигнала
+     */
+    static SignalSources of(List<MapGenerationConfig.Signal> signals) {
+        SignalSources sources = new SignalSources(signals.size());
+        for (int i = 0; i < sources.count; i++) {
+            MapGenerationConfig.Signal signal = signals.get(i);
+            sources.x[i] = signal.getX();
+            sources.y[i] = signal.getY();
+            sources.pikeValue[i] = signal.getPikeValue();
+            sources.degradationSpeed[i] = signal.getDegradationSpeed();
+        }
+        return sources;
+    }
+
+    /**
+     * Уровень сигнала источника index в точке {x;y}
+     *
+     * @param index Номер источника
+     * @param x     Координата x
+     * @param y     Координата y
+     * @return Уровень сигнала (может быть отрицательным
+     * за пределами радиуса действия источника)
+     */
+    double valueAt(int index, double x, double y) {
+        double dx = x - this.x[index];
+        double dy = y - this.y[index];
+        return pikeValue[index] - Math.sqrt(dx * dx + dy * dy) * degradationSpeed[index];
+    }
+}
@@ -0,0 +1,61 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.DoubleSurface;
+import lombok.Getter;
+
+/**
+ * Накопление статистики уровня сигнала
+ * по тайлам без сохранения самой карты
+ */
+@Getter
+public class StatsTileSink implements TileSink {
+    /**
+     * Кол-во точек
+     */
+    private long count;
+    /**
+     * Кол-во точек без сигнала (уровень = 0)
+     */
+    private long zeroCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;
+    private double sumOfSquares;
+
+    @Override
+    public void accept(Tile tile) {
+        DoubleSurface values = tile.getValues();
+        double[] data = values.getData();
+        long tileZeroCount = 0;
+        double tileMin = Double.POSITIVE_INFINITY;
+        double tileMax = Double.NEGATIVE_INFINITY;
+        double tileSum = 0;
+        double tileSumOfSquares = 0;
+        for (int i = 0; i < tile.getHeight(); i++) {
+            int offset = values.indexOf(0, i);
+            for (int p = offset; p < offset + tile.getWidth(); p++) {
+                double value = data[p];
+                if (value == 0) tileZeroCount++;
+                tileMin = Math.min(tileMin, value);
+                tileMax = Math.max(tileMax, value);
+                tileSum += value;
+                tileSumOfSquares += value * value;
+            }
+        }
+        synchronized (this) {
+            count += (long) tile.getWidth() * tile.getHeight();
+            zeroCount += tileZeroCount;
+            min = Math.min(min, tileMin);
+            max = Math.max(max, tileMax);
+            sum += tileSum;
+            sumOfSquares += tileSumOfSquares;
+        }
+    }
+
+    /**
+     * @return Среднее значение уровня сигнала
+     */
+    public synchronized double getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+}
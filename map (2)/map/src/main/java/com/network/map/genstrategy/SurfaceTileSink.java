@@ -0,0 +1,29 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+
+/**
+ * Запись тайлов в поверхность размером с карту
+ * (например, {@link com.network.map.surface.MappedSurface}).
+ * Тайлы не пересекаются, поэтому запись из разных
+ * потоков не требует блокировок
+ */
+public class SurfaceTileSink implements TileSink {
+    private final Surface target;
+
+    /**
+     * @param target Поверхность размером с карту
+     */
+    public SurfaceTileSink(Surface target) {
+        this.target = target;
+    }
+
+    @Override
+    public void accept(Tile tile) {
+        DoubleSurface values = tile.getValues();
+        for (int i = 0; i < tile.getHeight(); i++) {
+            target.writeRow(tile.getY() + i, tile.getX(), tile.getWidth(), values.getData(), values.indexOf(0, i));
+        }
+    }
+}
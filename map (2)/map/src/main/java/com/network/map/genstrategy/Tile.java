@@ -0,0 +1,35 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.DoubleSurface;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Готовый тайл карты, передаваемый в {@link TileSink}
+ */
+@Getter
+@AllArgsConstructor
+public class Tile {
+    /**
+     * Координата x левого верхнего угла тайла на карте
+     */
+    private final int x;
+    /**
+     * Координата y левого верхнего угла тайла на карте
+     */
+    private final int y;
+    /**
+     * Значения тайла. Буфер принадлежит потоку генерации
+     * и переиспользуется для следующих тайлов, поэтому
+     * значения нужно скопировать до возврата из {@link TileSink#accept}
+     */
+    private final DoubleSurface values;
+
+    public int getWidth() {
+        return values.getWidth();
+    }
+
+    public int getHeight() {
+        return values.getHeight();
+    }
+}
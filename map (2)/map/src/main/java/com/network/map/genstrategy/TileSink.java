@@ -0,0 +1,15 @@
+package com.network.map.genstrategy;
+
+/**
+ * Получатель готовых тайлов карты от {@link TiledGenerationPipeline}.
+ * Тайлы поступают в произвольном порядке одновременно
+ * из нескольких потоков, поэтому реализация должна быть потокобезопасной
+ */
+public interface TileSink {
+    /**
+     * Обработать готовый тайл
+     *
+     * @param tile Тайл
+     */
+    void accept(Tile tile);
+}
@@ -0,0 +1,185 @@
+package com.network.map.genstrategy;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.surface.DoubleSurface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Генерация карты тайлами без хранения карты целиком.
+ * <p>
+ * Уровень сигнала вычисляется так же, как в {@link GenerateClosedFormStrategy}.
+ * Потоки-обработчики забирают номера тайлов из общего счетчика,
+ * генерируют тайл в собственный буфер и передают его в {@link TileSink},
+ * поэтому тайлы поступают в произвольном порядке, а пиковый расход
+ * памяти равен (tileSize + 2 * halo)^2 * workers и не зависит от размера карты.
+ * <p>
+ * При заполнении провалов ({@link ChamferHoleFiller}) тайл генерируется
+ * с перекрытием halo точек с каждой стороны, провалы заполняются
+ * в расширенном тайле, и в приемник передается только сам тайл.
+ * Значение уменьшается на 1 на каждом шаге заполнения, поэтому
+ * при halo больше максимального уровня сигнала результат совпадает
+ * с заполнением всей карты ({@link #AUTO_HALO}).
+ * <p>
+ * Если обработчик или приемник завершается с ошибкой либо генерация
+ * прерывается, остальные обработчики не берут новые тайлы
+ */
+public class TiledGenerationPipeline {
+    /**
+     * Выбрать перекрытие по максимальному уровню
+     * сигнала источников: ceil(max(pikeValue)) + 1
+     */
+    public static final int AUTO_HALO = -1;
+
+    private final int tileSize;
+    private final int halo;
+    private final boolean fillHoles;
+    private final int workers;
+
+    /**
+     * @param tileSize  Размер стороны тайла
+     * @param halo      Ширина перекрытия тайлов для заполнения провалов
+     *                  или {@link #AUTO_HALO}
+     * @param fillHoles Заполнять провалы
+     * @param workers   Кол-во потоков-обработчиков
+     */
+    public TiledGenerationPipeline(int tileSize, int halo, boolean fillHoles, int workers) {
+        if (tileSize <= 0 || workers <= 0 || halo < AUTO_HALO) {
+            throw new IllegalArgumentException("Некорректные параметры генерации тайлами");
+        }
+        this.tileSize = tileSize;
+        this.halo = halo;
+        this.fillHoles = fillHoles;
+        this.workers = workers;
+    }
+
+    /**
+     * Сгенерировать карту с заданными параметрами
+     * и передать все тайлы в приемник
+     *
+     * @param mapGenerationConfig Параметры генерации
+     * @param sink                Приемник тайлов
+     */
+    public void run(MapGenerationConfig mapGenerationConfig, TileSink sink) {
+        int mapW = mapGenerationConfig.getSurfaceWidth();
+        int mapH = mapGenerationConfig.getSurfaceHeight();
+        if (mapW == 0 || mapH == 0) return;
+
+        SignalSources sources = SignalSources.of(mapGenerationConfig.getSignals());
+        SignalGridIndex index = SignalGridIndex.build(sources, mapW, mapH, tileSize);
+        int tileHalo = !fillHoles ? 0 : halo != AUTO_HALO ? halo : calcHalo(sources);
+        int tileCount = index.columns * index.rows;
+        AtomicInteger nextTile = new AtomicInteger();
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                futures.add(executor.submit(() -> {
+                    TileWorker worker = new TileWorker(sources, index, tileHalo);
+                    int tile;
+                    try {
+                        while (!stopped.get() && (tile = nextTile.getAndIncrement()) < tileCount) {
+                            sink.accept(worker.generate(tile % index.columns, tile / index.columns));
+                        }
+                    } catch (RuntimeException | Error e) {
+                        stopped.set(true);
+                        throw e;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Генерация карты тайлами прервана", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Ошибка генерации карты тайлами", e.getCause());
+        } finally {
+            stopped.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private static int calcHalo(SignalSources sources) {
+        double max = 0;
+        for (int s = 0; s < sources.count; s++) {
+            max = Math.max(max, sources.pikeValue[s]);
+        }
+        return (int) Math.ceil(max) + 1;
+    }
+
+    /**
+     * Генерация тайлов в собственный буфер потока-обработчика
+     */
+    private class TileWorker {
+        private final SignalSources sources;
+        private final SignalGridIndex index;
+        private final int halo;
+        private final double[] buffer;
+        /**
+         * Номер последнего тайла, в который нанесен источник,
+         * чтобы не наносить источник из соседних ячеек индекса повторно
+         */
+        private final int[] appliedInTile;
+        private int tileNumber;
+
+        TileWorker(SignalSources sources, SignalGridIndex index, int halo) {
+            this.sources = sources;
+            this.index = index;
+            this.halo = halo;
+            this.buffer = new double[(tileSize + 2 * halo) * (tileSize + 2 * halo)];
+            this.appliedInTile = new int[sources.count];
+        }
+
+        /**
+         * Сгенерировать тайл
+         *
+         * @param cellX Номер столбца тайла
+         * @param cellY Номер строки тайла
+         * @return Тайл, значения которого находятся в буфере потока
+         */
+        Tile generate(int cellX, int cellY) {
+            tileNumber++;
+            int tileX0 = cellX * tileSize;
+            int tileY0 = cellY * tileSize;
+            int tileX1 = Math.min(tileX0 + tileSize, index.width);
+            int tileY1 = Math.min(tileY0 + tileSize, index.height);
+            int x0 = Math.max(0, tileX0 - halo);
+            int y0 = Math.max(0, tileY0 - halo);
+            int x1 = Math.min(index.width, tileX1 + halo);
+            int y1 = Math.min(index.height, tileY1 + halo);
+            int stride = x1 - x0;
+            Arrays.fill(buffer, 0, stride * (y1 - y0), 0);
+
+            for (int cy = y0 / tileSize; cy <= (y1 - 1) / tileSize; cy++) {
+                for (int cx = x0 / tileSize; cx <= (x1 - 1) / tileSize; cx++) {
+                    for (int position = index.start(cx, cy); position < index.end(cx, cy); position++) {
+                        int s = index.signalAt(position);
+                        if (appliedInTile[s] == tileNumber) continue;
+                        appliedInTile[s] = tileNumber;
+                        GenerateClosedFormStrategy.fillRect(buffer, stride, x0, y0, null, index.width, sources, s,
+                                Math.max(x0, index.minX[s]), Math.max(y0, index.minY[s]),
+                                Math.min(x1, index.maxX[s] + 1), Math.min(y1, index.maxY[s] + 1));
+                    }
+                }
+            }
+
+            DoubleSurface region = new DoubleSurface(buffer, stride, y1 - y0, stride, 0);
+            if (fillHoles) {
+                ChamferHoleFiller.fill(region, false);
+            }
+            return new Tile(tileX0, tileY0, region.view(tileX0 - x0, tileY0 - y0, tileX1 - tileX0, tileY1 - tileY0));
+        }
+    }
+}
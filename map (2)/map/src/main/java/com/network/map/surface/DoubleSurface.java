@@ -0,0 +1,191 @@
+package com.network.map.surface;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Поверхность, хранящая значения в одном массиве double
+ * построчно (row-major): точка {x;y} находится
+ * по индексу offset + y * stride + x.
+ * <p>
+ * Шаг строки stride может быть больше ширины - так устроены
+ * представления прямоугольных областей ({@link #view}),
+ * разделяющие массив с исходной поверхностью.
+ * Для горячих циклов доступен сам массив ({@link #getData()})
+ */
+public class DoubleSurface implements Surface {
+    private final double[] data;
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final int offset;
+
+    /**
+     * Создать поверхность, заполненную нулями
+     *
+     * @param width  Ширина поверхности
+     * @param height Высота поверхности
+     */
+    public DoubleSurface(int width, int height) {
+        this(new double[Math.multiplyExact(width, height)], width, height, width, 0);
+    }
+
+    /**
+     * Создать поверхность поверх существующего массива
+     *
+     * @param data   Массив значений
+     * @param width  Ширина поверхности
+     * @param height Высота поверхности
+     * @param stride Шаг строки в массиве
+     * @param offset Индекс точки {0;0} в массиве
+     */
+    public DoubleSurface(double[] data, int width, int height, int stride, int offset) {
+        if (width < 0 || height < 0 || stride < width
+                || (height > 0 && offset + (long) (height - 1) * stride + width > data.length)) {
+            throw new IllegalArgumentException("Размеры поверхности не соответствуют массиву");
+        }
+        this.data = data;
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.offset = offset;
+    }
+
+    /**
+     * Создать поверхность из матрицы [height][width]
+     *
+     * @param matrix Матрица значений
+     * @return Поверхность
+     */
+    public static DoubleSurface fromArray(double[][] matrix) {
+        int height = matrix.length;
+        int width = height > 0 ? matrix[0].length : 0;
+        DoubleSurface surface = new DoubleSurface(width, height);
+        for (int y = 0; y < height; y++) {
+            surface.writeRow(y, matrix[y]);
+        }
+        return surface;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Получить массив значений поверхности
+     *
+     * @return Массив значений
+     */
+    public double[] getData() {
+        return data;
+    }
+
+    /**
+     * Получить шаг строки в массиве значений
+     *
+     * @return Шаг строки
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Получить индекс точки {x;y} в массиве значений
+     *
+     * @param x Координата x
+     * @param y Координата y
+     * @return Индекс в массиве
+     */
+    public int indexOf(int x, int y) {
+        return offset + y * stride + x;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return data[indexOf(x, y)];
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        data[indexOf(x, y)] = value;
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        System.arraycopy(data, indexOf(x, y), target, targetOffset, count);
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        System.arraycopy(source, sourceOffset, data, indexOf(x, y), count);
+    }
+
+    /**
+     * Получить строку y в виде буфера, разделяющего
+     * массив с поверхностью (без копирования)
+     *
+     * @param y Номер строки
+     * @return Буфер значений строки
+     */
+    public DoubleBuffer rowView(int y) {
+        return DoubleBuffer.wrap(data, indexOf(0, y), width).slice();
+    }
+
+    /**
+     * Получить прямоугольную область поверхности,
+     * разделяющую массив с поверхностью (без копирования)
+     *
+     * @param x      Координата x левого верхнего угла
+     * @param y      Координата y левого верхнего угла
+     * @param width  Ширина области
+     * @param height Высота области
+     * @return Область поверхности
+     */
+    public DoubleSurface view(int x, int y, int width, int height) {
+        if (x < 0 || y < 0 || x + width > this.width || y + height > this.height) {
+            throw new IllegalArgumentException("Область выходит за границы поверхности");
+        }
+        return new DoubleSurface(data, width, height, stride, indexOf(x, y));
+    }
+
+    @Override
+    public void fill(double value) {
+        if (stride == width) {
+            Arrays.fill(data, offset, offset + width * height, value);
+            return;
+        }
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(data, indexOf(0, y), indexOf(width, y), value);
+        }
+    }
+
+    @Override
+    public void copyTo(Surface target) {
+        if (target.getWidth() != width || target.getHeight() != height) {
+            throw new IllegalArgumentException("Размеры поверхностей не совпадают");
+        }
+        if (target instanceof DoubleSurface) {
+            DoubleSurface doubleTarget = (DoubleSurface) target;
+            if (stride == width && doubleTarget.stride == width) {
+                System.arraycopy(data, offset, doubleTarget.data, doubleTarget.offset, width * height);
+                return;
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            target.writeRow(y, 0, width, data, indexOf(0, y));
+        }
+    }
+
+    @Override
+    public DoubleSurface copy() {
+        DoubleSurface copy = new DoubleSurface(width, height);
+        copyTo(copy);
+        return copy;
+    }
+}
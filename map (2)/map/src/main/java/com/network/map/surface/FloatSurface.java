@@ -0,0 +1,86 @@
+package com.network.map.surface;
+
+import java.util.Arrays;
+
+/**
+ * Поверхность, хранящая значения построчно
+ * в одном массиве float (4 байта на точку).
+ * Значения округляются до float при записи
+ */
+public class FloatSurface implements Surface {
+    private final float[] data;
+    private final int width;
+    private final int height;
+
+    /**
+     * Создать поверхность, заполненную нулями
+     *
+     * @param width  Ширина поверхности
+     * @param height Высота поверхности
+     */
+    public FloatSurface(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Размеры поверхности не могут быть отрицательными");
+        }
+        this.data = new float[Math.multiplyExact(width, height)];
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Получить массив значений поверхности
+     *
+     * @return Массив значений
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return data[y * width + x];
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        data[y * width + x] = (float) value;
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        int index = y * width + x;
+        for (int k = 0; k < count; k++) {
+            target[targetOffset + k] = data[index + k];
+        }
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        int index = y * width + x;
+        for (int k = 0; k < count; k++) {
+            data[index + k] = (float) source[sourceOffset + k];
+        }
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(data, (float) value);
+    }
+
+    @Override
+    public FloatSurface copy() {
+        FloatSurface copy = new FloatSurface(width, height);
+        System.arraycopy(data, 0, copy.data, 0, data.length);
+        return copy;
+    }
+}
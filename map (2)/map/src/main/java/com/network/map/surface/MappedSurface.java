@@ -0,0 +1,282 @@
+package com.network.map.surface;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Поверхность, хранящаяся вне кучи в файле, отображенном
+ * в память ({@link FileChannel#map}). Значения записаны построчно
+ * (little-endian) с точностью {@link SurfacePrecision}.
+ * <p>
+ * Файл отображается сегментами не больше {@link #MAX_SEGMENT_SIZE} байт,
+ * каждый сегмент содержит целое число строк, поэтому отрезок строки
+ * всегда лежит в одном сегменте. Размер поверхности ограничен
+ * только размером файла, а не кучей.
+ * <p>
+ * При сериализации сохраняются только путь к файлу и параметры
+ * поверхности, при десериализации файл отображается заново
+ */
+public class MappedSurface implements Surface, Closeable {
+    /**
+     * Максимальный размер сегмента отображения
+     */
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+    private final String path;
+    private final int width;
+    private final int height;
+    private final SurfacePrecision precision;
+    private final double scale;
+    private final double offset;
+    private final int valueBytes;
+    private final int rowBytes;
+    private final int rowsPerSegment;
+    private transient MappedByteBuffer[] segments;
+
+    /**
+     * Отобразить в память существующий файл поверхности
+     *
+     * @param path      Путь к файлу
+     * @param width     Ширина поверхности
+     * @param height    Высота поверхности
+     * @param precision Точность хранения
+     * @param scale     Шаг квантования (только для {@link SurfacePrecision#SHORT})
+     * @param offset    Значение, соответствующее коду 0 (только для {@link SurfacePrecision#SHORT})
+     */
+    public MappedSurface(String path, int width, int height, SurfacePrecision precision, double scale, double offset) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Размеры поверхности не могут быть отрицательными");
+        }
+        if (precision == SurfacePrecision.SHORT && !(scale > 0)) {
+            throw new IllegalArgumentException("Шаг квантования должен быть положительным");
+        }
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.precision = precision;
+        this.scale = scale;
+        this.offset = offset;
+        this.valueBytes = precision.getBytes();
+        long rowSize = (long) width * valueBytes;
+        if (rowSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Строка поверхности не помещается в сегмент отображения");
+        }
+        this.rowBytes = (int) rowSize;
+        this.rowsPerSegment = rowBytes == 0 ? Math.max(height, 1) : (int) Math.min(Math.max(height, 1), MAX_SEGMENT_SIZE / rowBytes);
+        map();
+    }
+
+    /**
+     * Создать файл поверхности, заполненной нулями,
+     * и отобразить его в память. Содержимое существующего
+     * файла перезаписывается, файл не усекается, чтобы его можно
+     * было переиспользовать, пока старое отображение не освобождено
+     *
+     * @param path      Путь к файлу
+     * @param width     Ширина поверхности
+     * @param height    Высота поверхности
+     * @param precision Точность хранения
+     * @param scale     Шаг квантования (только для {@link SurfacePrecision#SHORT})
+     * @param offset    Значение, соответствующее коду 0 (только для {@link SurfacePrecision#SHORT})
+     * @return Поверхность
+     */
+    public static MappedSurface create(String path, int width, int height, SurfacePrecision precision,
+                                       double scale, double offset) {
+        MappedSurface surface = new MappedSurface(path, width, height, precision, scale, offset);
+        surface.fill(0);
+        return surface;
+    }
+
+    /**
+     * Отобразить файл в память сегментами,
+     * при необходимости увеличив размер файла
+     */
+    private void map() {
+        int segmentCount = (height + rowsPerSegment - 1) / rowsPerSegment;
+        segments = new MappedByteBuffer[segmentCount];
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            long size = (long) rowBytes * height;
+            if (file.length() < size) {
+                file.setLength(size);
+            }
+            FileChannel channel = file.getChannel();
+            for (int s = 0; s < segmentCount; s++) {
+                int rows = Math.min(rowsPerSegment, height - s * rowsPerSegment);
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) s * rowsPerSegment * rowBytes, (long) rows * rowBytes);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось отобразить в память файл поверхности " + path, e);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Путь к файлу поверхности
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return Точность хранения
+     */
+    public SurfacePrecision getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Получить буфер сегмента со строкой y, установленный
+     * на точку {x;y}. Буфер не разделяет позицию с сегментом,
+     * поэтому строки можно читать и писать из разных потоков
+     *
+     * @param x Координата x
+     * @param y Координата y
+     * @return Буфер
+     */
+    private ByteBuffer bufferAt(int x, int y) {
+        ByteBuffer buffer = segments[y / rowsPerSegment].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(positionOf(x, y));
+        return buffer;
+    }
+
+    private int positionOf(int x, int y) {
+        return (y % rowsPerSegment) * rowBytes + x * valueBytes;
+    }
+
+    private short encode(double value) {
+        long code = Math.round((value - offset) / scale);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, code));
+    }
+
+    @Override
+    public double get(int x, int y) {
+        MappedByteBuffer segment = segments[y / rowsPerSegment];
+        int position = positionOf(x, y);
+        switch (precision) {
+            case DOUBLE:
+                return segment.getDouble(position);
+            case FLOAT:
+                return segment.getFloat(position);
+            default:
+                return offset + scale * segment.getShort(position);
+        }
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        MappedByteBuffer segment = segments[y / rowsPerSegment];
+        int position = positionOf(x, y);
+        switch (precision) {
+            case DOUBLE:
+                segment.putDouble(position, value);
+                break;
+            case FLOAT:
+                segment.putFloat(position, (float) value);
+                break;
+            default:
+                segment.putShort(position, encode(value));
+        }
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        ByteBuffer buffer = bufferAt(x, y);
+        switch (precision) {
+            case DOUBLE:
+                buffer.asDoubleBuffer().get(target, targetOffset, count);
+                break;
+            case FLOAT:
+                FloatBuffer floats = buffer.asFloatBuffer();
+                for (int k = 0; k < count; k++) {
+                    target[targetOffset + k] = floats.get(k);
+                }
+                break;
+            default:
+                ShortBuffer shorts = buffer.asShortBuffer();
+                for (int k = 0; k < count; k++) {
+                    target[targetOffset + k] = offset + scale * shorts.get(k);
+                }
+        }
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        ByteBuffer buffer = bufferAt(x, y);
+        switch (precision) {
+            case DOUBLE:
+                buffer.asDoubleBuffer().put(source, sourceOffset, count);
+                break;
+            case FLOAT:
+                FloatBuffer floats = buffer.asFloatBuffer();
+                for (int k = 0; k < count; k++) {
+                    floats.put(k, (float) source[sourceOffset + k]);
+                }
+                break;
+            default:
+                ShortBuffer shorts = buffer.asShortBuffer();
+                for (int k = 0; k < count; k++) {
+                    shorts.put(k, encode(source[sourceOffset + k]));
+                }
+        }
+    }
+
+    /**
+     * Создать копию поверхности во временном файле
+     * в том же каталоге. Файл удаляется при завершении программы
+     *
+     * @return Копия поверхности
+     */
+    @Override
+    public MappedSurface copy() {
+        try {
+            File file = new File(path).getAbsoluteFile();
+            File copyFile = File.createTempFile("surface", ".bin", file.getParentFile());
+            copyFile.deleteOnExit();
+            MappedSurface copy = new MappedSurface(copyFile.getPath(), width, height, precision, scale, offset);
+            copyTo(copy);
+            return copy;
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось создать копию поверхности " + path, e);
+        }
+    }
+
+    /**
+     * Записать измененные значения на диск
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Записать значения на диск и освободить сегменты.
+     * Память отображения освобождается сборщиком мусора
+     */
+    @Override
+    public void close() {
+        flush();
+        segments = new MappedByteBuffer[0];
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        map();
+    }
+}
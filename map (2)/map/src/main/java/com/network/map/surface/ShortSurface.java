@@ -0,0 +1,138 @@
+package com.network.map.surface;
+
+import java.util.Arrays;
+
+/**
+ * Поверхность, хранящая значения построчно в одном массиве short
+ * (2 байта на точку) в формате с фиксированной точкой:
+ * значение = offset + scale * code.
+ * <p>
+ * При записи значение округляется до ближайшего кода, значения
+ * за пределами диапазона [offset - 32768 * scale; offset + 32767 * scale]
+ * ограничиваются его границами. Чтобы 0 (провал) хранился точно,
+ * offset должен быть кратен scale
+ */
+public class ShortSurface implements Surface {
+    private final short[] data;
+    private final int width;
+    private final int height;
+    private final double scale;
+    private final double offset;
+
+    /**
+     * Создать поверхность, заполненную нулями
+     *
+     * @param width  Ширина поверхности
+     * @param height Высота поверхности
+     * @param scale  Шаг квантования
+     * @param offset Значение, соответствующее коду 0
+     */
+    public ShortSurface(int width, int height, double scale, double offset) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Размеры поверхности не могут быть отрицательными");
+        }
+        if (!(scale > 0)) {
+            throw new IllegalArgumentException("Шаг квантования должен быть положительным");
+        }
+        this.data = new short[Math.multiplyExact(width, height)];
+        this.width = width;
+        this.height = height;
+        this.scale = scale;
+        this.offset = offset;
+        if (offset != 0) {
+            fill(0);
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Получить массив кодов поверхности
+     *
+     * @return Массив кодов
+     */
+    public short[] getData() {
+        return data;
+    }
+
+    /**
+     * @return Шаг квантования
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * @return Значение, соответствующее коду 0
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Преобразовать значение в код
+     *
+     * @param value Значение
+     * @return Код
+     */
+    public short encode(double value) {
+        long code = Math.round((value - offset) / scale);
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, code));
+    }
+
+    /**
+     * Преобразовать код в значение
+     *
+     * @param code Код
+     * @return Значение
+     */
+    public double decode(short code) {
+        return offset + scale * code;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return decode(data[y * width + x]);
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        data[y * width + x] = encode(value);
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        int index = y * width + x;
+        for (int k = 0; k < count; k++) {
+            target[targetOffset + k] = offset + scale * data[index + k];
+        }
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        int index = y * width + x;
+        for (int k = 0; k < count; k++) {
+            data[index + k] = encode(source[sourceOffset + k]);
+        }
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(data, encode(value));
+    }
+
+    @Override
+    public ShortSurface copy() {
+        ShortSurface copy = new ShortSurface(width, height, scale, offset);
+        System.arraycopy(data, 0, copy.data, 0, data.length);
+        return copy;
+    }
+}
@@ -0,0 +1,140 @@
+package com.network.map.surface;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Поверхность (матрица значений уровня сигнала)
+ * размером width x height.
+ * <p>
+ * Точки адресуются координатами {x;y}, где x - номер столбца,
+ * y - номер строки. Для обхода больших поверхностей следует
+ * использовать построчное копирование ({@link #readRow}, {@link #writeRow})
+ * вместо поточечного доступа
+ */
+public interface Surface extends Serializable {
+    /**
+     * Получить ширину поверхности
+     *
+     * @return Ширина поверхности
+     */
+    int getWidth();
+
+    /**
+     * Получить высоту поверхности
+     *
+     * @return Высота поверхности
+     */
+    int getHeight();
+
+    /**
+     * Получить значение в точке {x;y}
+     *
+     * @param x Координата x
+     * @param y Координата y
+     * @return Значение
+     */
+    double get(int x, int y);
+
+    /**
+     * Записать значение в точку {x;y}
+     *
+     * @param x     Координата x
+     * @param y     Координата y
+     * @param value Значение
+     */
+    void set(int x, int y, double value);
+
+    /**
+     * Скопировать отрезок строки y, начиная с x, в массив
+     *
+     * @param y            Номер строки
+     * @param x            Номер первого столбца
+     * @param count        Кол-во точек
+     * @param target       Массив, в который копируются значения
+     * @param targetOffset Позиция в массиве
+     */
+    void readRow(int y, int x, int count, double[] target, int targetOffset);
+
+    /**
+     * Записать отрезок строки y, начиная с x, из массива
+     *
+     * @param y            Номер строки
+     * @param x            Номер первого столбца
+     * @param count        Кол-во точек
+     * @param source       Массив значений
+     * @param sourceOffset Позиция в массиве
+     */
+    void writeRow(int y, int x, int count, double[] source, int sourceOffset);
+
+    /**
+     * Скопировать строку y целиком в массив
+     *
+     * @param y      Номер строки
+     * @param target Массив длиной не меньше ширины поверхности
+     * @return Массив target
+     */
+    default double[] readRow(int y, double[] target) {
+        readRow(y, 0, getWidth(), target, 0);
+        return target;
+    }
+
+    /**
+     * Записать строку y целиком из массива
+     *
+     * @param y      Номер строки
+     * @param source Массив длиной не меньше ширины поверхности
+     */
+    default void writeRow(int y, double[] source) {
+        writeRow(y, 0, getWidth(), source, 0);
+    }
+
+    /**
+     * Заполнить поверхность значением
+     *
+     * @param value Значение
+     */
+    default void fill(double value) {
+        double[] row = new double[getWidth()];
+        Arrays.fill(row, value);
+        for (int y = 0; y < getHeight(); y++) {
+            writeRow(y, row);
+        }
+    }
+
+    /**
+     * Скопировать значения поверхности в другую
+     * поверхность того же размера
+     *
+     * @param target Поверхность, в которую копируются значения
+     */
+    default void copyTo(Surface target) {
+        if (target.getWidth() != getWidth() || target.getHeight() != getHeight()) {
+            throw new IllegalArgumentException("Размеры поверхностей не совпадают");
+        }
+        double[] row = new double[getWidth()];
+        for (int y = 0; y < getHeight(); y++) {
+            target.writeRow(y, readRow(y, row));
+        }
+    }
+
+    /**
+     * Создать независимую копию поверхности
+     *
+     * @return Копия поверхности
+     */
+    Surface copy();
+
+    /**
+     * Преобразовать поверхность в матрицу [height][width]
+     *
+     * @return Матрица значений
+     */
+    default double[][] toArray() {
+        double[][] matrix = new double[getHeight()][getWidth()];
+        for (int y = 0; y < matrix.length; y++) {
+            readRow(y, matrix[y]);
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,59 @@
+package com.network.map.surface;
+
+/**
+ * Точность хранения значений поверхности
+ */
+public enum SurfacePrecision {
+    /**
+     * double, 8 байт на точку
+     */
+    DOUBLE(Double.BYTES) {
+        @Override
+        public Surface create(int width, int height, double scale, double offset) {
+            return new DoubleSurface(width, height);
+        }
+    },
+    /**
+     * float, 4 байта на точку
+     */
+    FLOAT(Float.BYTES) {
+        @Override
+        public Surface create(int width, int height, double scale, double offset) {
+            return new FloatSurface(width, height);
+        }
+    },
+    /**
+     * short с фиксированной точкой, 2 байта на точку
+     * (см. {@link ShortSurface})
+     */
+    SHORT(Short.BYTES) {
+        @Override
+        public Surface create(int width, int height, double scale, double offset) {
+            return new ShortSurface(width, height, scale, offset);
+        }
+    };
+
+    private final int bytes;
+
+    SurfacePrecision(int bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return Объем одной точки, байт
+     */
+    public int getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Создать поверхность, заполненную нулями
+     *
+     * @param width  Ширина поверхности
+     * @param height Высота поверхности
+     * @param scale  Шаг квантования (только для {@link #SHORT})
+     * @param offset Значение, соответствующее коду 0 (только для {@link #SHORT})
+     * @return Поверхность
+     */
+    public abstract Surface create(int width, int height, double scale, double offset);
+}
@@ -1,5 +1,6 @@
 package com.network.map.ui;
 
+import com.network.map.surface.Surface;
 import org.jzy3d.analysis.AbstractAnalysis;
 import org.jzy3d.analysis.AnalysisLauncher;
 import org.jzy3d.chart.factories.AWTChartComponentFactory;
@@ -12,17 +13,22 @@ import org.jzy3d.plot3d.builder.Mapper;
 import org.jzy3d.plot3d.builder.concrete.OrthonormalGrid;
 import org.jzy3d.plot3d.primitives.Shape;
 import org.jzy3d.plot3d.rendering.canvas.Quality;
+import org.jzy3d.plot3d.rendering.scene.Graph;
+
+import java.awt.*;
 
 /**
  * Класс, отвечающий за отображение поверхности
  * в отдельном окне
  */
 public class SurfaceGraphics extends AbstractAnalysis {
-    private double[][] surface;
+    private static final int STEPS = 80;
+    private Surface surface;
     private int rangeMinValue;
     private int rangeMaxValue;
+    private Shape shape;
 
-    public SurfaceGraphics(double[][] surface, int rangeMinValue, int rangeMaxValue) throws Exception {
+    public SurfaceGraphics(Surface surface, int rangeMinValue, int rangeMaxValue) throws Exception {
         super();
         this.rangeMinValue = rangeMinValue;
         this.rangeMaxValue = rangeMaxValue;
@@ -32,28 +38,57 @@ public class SurfaceGraphics extends AbstractAnalysis {
 
     public void init() {
 //        final int steps = (rangeMaxValue - rangeMinValue) / surface.length;
-        final int steps = 80;
-        Shape approximatedShape = prepareSurfaceForRendering(surface, steps);
+        shape = prepareSurfaceForRendering(surface, STEPS);
         chart = AWTChartComponentFactory.chart(Quality.Advanced, getCanvasType());
-        chart.getScene().getGraph().add(approximatedShape);
+        chart.getScene().getGraph().add(shape);
+    }
+
+    /**
+     * Заменить поверхность в открытом окне. Значения
+     * поверхности читаются только при вызове
+     *
+     * @param surface Поверхность того же размера
+     */
+    public void update(Surface surface) {
+        this.surface = surface;
+        Shape updatedShape = prepareSurfaceForRendering(surface, STEPS);
+        Graph graph = chart.getScene().getGraph();
+        graph.remove(shape, false);
+        shape = updatedShape;
+        graph.add(shape, true);
+    }
+
+    /**
+     * @return Верхняя граница диапазона осей
+     */
+    public int getRangeMaxValue() {
+        return rangeMaxValue;
+    }
+
+    /**
+     * @return Окно поверхности не закрыто
+     */
+    public boolean isOpen() {
+        Object canvas = chart != null ? chart.getCanvas() : null;
+        return canvas instanceof Component && ((Component) canvas).isDisplayable();
     }
 
     /**
      * Подготовить поверхность для отрисовки
      *
-     * @param map   Поверхность в виде матрицы
+     * @param map   Поверхность
      * @param steps Шаг отрисовки
      * @return Подготовленная поверхность
      */
-    private Shape prepareSurfaceForRendering(double[][] map, int steps) {
-        final double scaleCoef = (double) surface.length / (rangeMaxValue - rangeMinValue);
+    private Shape prepareSurfaceForRendering(Surface map, int steps) {
+        final double scaleCoef = (double) surface.getHeight() / (rangeMaxValue - rangeMinValue);
         Mapper mapper = new Mapper() {
             @Override
             public double f(double x, double y) {
                 int i = (int) (y * scaleCoef);
                 int j = (int) (x * scaleCoef);
-                return i < map.length && j < map[i].length
-                        ? map[i][j]
+                return i < map.getHeight() && j < map.getWidth()
+                        ? map.get(j, i)
                         : 0;
             }
         };
@@ -2,6 +2,7 @@ package com.network.map.ui.form;
 
 import com.network.map.MapGenerationConfig;
 import com.network.map.MapManager;
+import com.network.map.experiment.PolynomPowExperiment;
 import com.network.map.ui.wrapper.SignalSourceWrapper;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
@@ -9,11 +10,15 @@ import org.apache.commons.lang3.StringUtils;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -23,6 +28,14 @@ import java.util.stream.Collectors;
 public class MainForm extends JFrame {
     private List<SignalSourceWrapper> signalSourceWrappers = new ArrayList();
     private MapManager mapManager;
+    /**
+     * Источники сигналов сгенерированной карты, соответствующие
+     * источникам на форме (null - карта не сгенерирована или
+     * не соответствует форме)
+     */
+    private Map<SignalSourceWrapper, MapGenerationConfig.Signal> mapSignals;
+    private Thread approximationThread;
+    private PolynomPowExperiment experiment;
 
     private JPanel contentPane;
     private JTabbedPane tabbedPane1;
@@ -76,6 +89,7 @@ public class MainForm extends JFrame {
             public void mouseClicked(MouseEvent e) {
                 MapGenerationConfig mapGenerationConfig = prepareMapGenerationConfig();
                 mapManager.generate(mapGenerationConfig);
+                linkMapSignals();
                 mapManager.displayGeneratedSurface();
             }
         });
@@ -86,9 +100,7 @@ public class MainForm extends JFrame {
                 int approximationScale = Integer.parseInt(!StringUtils.isBlank(inputApproximationScale.getText()) ? inputApproximationScale.getText() : "1");
                 int polynomPow = Integer.parseInt(!StringUtils.isBlank(inputPolynomPow.getText()) ? inputPolynomPow.getText() : "1");
 
-                double sko = mapManager.approximate(approximationScale, polynomPow);
-                mapManager.displayApproximatedSurface();
-                inputApproximationLog.setText(String.format("СКО: %1$,.5f", sko));
+                startApproximation(approximationScale, polynomPow);
             }
         });
         randomizeSignals.addMouseListener(new MouseAdapter() {
@@ -99,6 +111,7 @@ public class MainForm extends JFrame {
                 int height = Integer.parseInt(!StringUtils.isBlank(inputMapHeight.getText()) ? inputMapHeight.getText() : "0");
                 double maxRecesionSpeed = Double.parseDouble(!StringUtils.isBlank(inputMaxRecesionSpeed.getText()) ? inputMaxRecesionSpeed.getText() : "1");
                 double maxValue = Double.parseDouble(!StringUtils.isBlank(inputMaxValue.getText()) ? inputMaxValue.getText() : "10");
+                mapSignals = null;
                 signalSourceWrappers.stream()
                         .forEach(signalWrapper -> {
                             MapGenerationConfig.Signal signal = new MapGenerationConfig.Signal()
@@ -113,12 +126,16 @@ public class MainForm extends JFrame {
         btnStartPolynomPowExperiment.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
+                if (experiment != null && !experiment.isFinished()) {
+                    experiment.cancel();
+                    return;
+                }
                 MapGenerationConfig mapGenerationConfig = prepareMapGenerationConfig();
                 Map<String, Object> params = Map.of(
                         "polynomPowFrom", Integer.parseInt(!StringUtils.isBlank(inputMinPolynomPow.getText()) ? inputMinPolynomPow.getText() : "2"),
                         "polynomPowTo", Integer.parseInt(!StringUtils.isBlank(inputMaxPolynomPow.getText()) ? inputMaxPolynomPow.getText() : "10")
                 );
-                mapManager.startExperiment(MapManager.ExperimentType.SKO_BY_POLYNOM_POW, params, mapGenerationConfig);
+                startPolynomPowExperiment(params, mapGenerationConfig);
             }
         });
         btnSaveToFile.addMouseListener(new MouseAdapter() {
@@ -126,19 +143,31 @@ public class MainForm extends JFrame {
             public void mouseClicked(MouseEvent e) {
                 MapGenerationConfig mapGenerationConfig = prepareMapGenerationConfig();
                 mapManager.generate(mapGenerationConfig);
-                mapManager.saveToFile();
+                linkMapSignals();
+                try {
+                    mapManager.saveToFile();
+                } catch (RuntimeException ex) {
+                    showFileError(ex);
+                    return;
+                }
                 System.out.println("Карта сохранена в файл");
             }
         });
         btnLoadFromFile.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
+                try {
+                    mapManager.loadFromFile();
+                } catch (RuntimeException ex) {
+                    showFileError(ex);
+                    return;
+                }
                 clearSignals();
-                mapManager.loadFromFile();
                 List<MapGenerationConfig.Signal> signals = mapManager.getSignals();
                 signalSourceWrappers = signals.stream()
                         .map(signal -> addNewSignal(genSignalsGroup, signal))
                         .collect(Collectors.toList());
+                linkMapSignals();
                 inputMapWidth.setText(mapManager.getMap().getSurfaceWidth() + "");
                 inputMapHeight.setText(mapManager.getMap().getSurfaceHeight() + "");
                 genSignalsGroup.updateUI();
@@ -147,6 +176,96 @@ public class MainForm extends JFrame {
         });
     }
 
+    /**
+     * Запустить аппроксимацию от грубой к точной в фоновом потоке.
+     * Оценка погрешности каждого уровня выводится в лог сразу,
+     * итоговая поверхность отображается после последнего уровня.
+     * Незавершенная предыдущая аппроксимация прерывается,
+     * ее уровни и результат не отображаются
+     *
+     * @param approximationScale Множитель масштаба аппроксимирующей поверхности
+     * @param polynomPow         Степень полинома
+     */
+    private void startApproximation(int approximationScale, int polynomPow) {
+        if (approximationThread != null) {
+            approximationThread.interrupt();
+        }
+        inputApproximationLog.setText("");
+        approximationThread = new Thread(() -> {
+            Thread current = Thread.currentThread();
+            double sko = mapManager.approximateProgressive(approximationScale, polynomPow, level ->
+                    SwingUtilities.invokeLater(() -> {
+                        if (approximationThread != current) return;
+                        inputApproximationLog.append(String.format(
+                                "Шаг %1$d: СКО ~ %2$,.5f (%3$d мс)%n",
+                                level.getStep(), level.getEstimatedSko(), level.getElapsedMillis()
+                        ));
+                    })
+            );
+            if (Double.isNaN(sko)) return;
+            SwingUtilities.invokeLater(() -> {
+                if (approximationThread == current) {
+                    showApproximationResult();
+                }
+            });
+        });
+        approximationThread.start();
+    }
+
+    /**
+     * Запустить эксперимент зависимости погрешности от степени
+     * полинома в пуле потоков. Прогресс выводится в лог,
+     * пока эксперимент выполняется, кнопка запуска отменяет его
+     *
+     * @param params              Параметры эксперимента
+     * @param mapGenerationConfig Параметры генерации карты
+     */
+    private void startPolynomPowExperiment(Map<String, Object> params, MapGenerationConfig mapGenerationConfig) {
+        inputApproximationLog.setText("");
+        try {
+            experiment = mapManager.startExperiment(MapManager.ExperimentType.SKO_BY_POLYNOM_POW, params,
+                    mapGenerationConfig, createPolynomPowExperimentListener());
+        } catch (IllegalArgumentException e) {
+            inputApproximationLog.append("Ошибка эксперимента: " + e.getMessage());
+            return;
+        }
+        btnStartPolynomPowExperiment.setText("Отменить");
+    }
+
+    private PolynomPowExperiment.Listener createPolynomPowExperimentListener() {
+        return new PolynomPowExperiment.Listener() {
+            @Override
+            public void onResult(int approximationPow, double sko) {
+            }
+
+            @Override
+            public void onProgress(int completed, int total) {
+                SwingUtilities.invokeLater(() -> inputApproximationLog.append(String.format(
+                        "Обработано степеней: %1$d из %2$d%n", completed, total)));
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                SwingUtilities.invokeLater(() -> inputApproximationLog.append(String.format(
+                        "Ошибка эксперимента: %s%n", error.getMessage())));
+            }
+
+            @Override
+            public void onFinished(boolean cancelled) {
+                SwingUtilities.invokeLater(() -> {
+                    inputApproximationLog.append(cancelled ? "Эксперимент отменен" : "Эксперимент завершен");
+                    btnStartPolynomPowExperiment.setText("Начать");
+                });
+            }
+        };
+    }
+
+    @SneakyThrows
+    private void showApproximationResult() {
+        inputApproximationLog.append(mapManager.getApproximationErrorMetrics().toString());
+        mapManager.displayApproximatedSurface();
+    }
+
     /**
      * Собрать данные с формы и сформировать
      * объект с параметрами генерации карты
@@ -172,12 +291,62 @@ public class MainForm extends JFrame {
      * Очистить источники сигналов
      * на форме
      */
+    private void showFileError(RuntimeException e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(contentPane, e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+    }
+
     private void clearSignals() {
         signalSourceWrappers = new ArrayList<>();
-        mapManager.clearSignals();
+        mapSignals = null;
         genSignalsGroup.removeAll();
     }
 
+    /**
+     * Связать источники сигналов на форме
+     * с источниками сгенерированной карты
+     */
+    private void linkMapSignals() {
+        mapSignals = new HashMap<>();
+        List<MapGenerationConfig.Signal> signals = mapManager.getSignals();
+        for (int i = 0; i < signalSourceWrappers.size(); i++) {
+            mapSignals.put(signalSourceWrappers.get(i), signals.get(i));
+        }
+    }
+
+    /**
+     * Применить изменение источника сигнала на форме
+     * к сгенерированной карте и отобразить ее. Новый источник
+     * добавляется на карту, при изменении координат источник
+     * перемещается, при изменении уровня или скорости спада - заменяется
+     *
+     * @param signalSourceWrapper Обертка для источника сигнала
+     */
+    @SneakyThrows
+    private void applySignalChange(SignalSourceWrapper signalSourceWrapper) {
+        if (mapSignals == null || !signalSourceWrapper.isFilled()) return;
+
+        MapGenerationConfig.Signal signal = mapSignals.get(signalSourceWrapper);
+        if (signal != null
+                && signal.getPikeValue() == signalSourceWrapper.getMaxValue()
+                && signal.getDegradationSpeed() == signalSourceWrapper.getRecesionSpeed()) {
+            if (Objects.equals(signal.getX(), signalSourceWrapper.getX())
+                    && Objects.equals(signal.getY(), signalSourceWrapper.getY())) {
+                return;
+            }
+            mapManager.moveSignal(signal, signalSourceWrapper.getX(), signalSourceWrapper.getY());
+        } else {
+            if (signal != null) {
+                mapManager.removeSignal(signal);
+            }
+            signal = new MapGenerationConfig.Signal(signalSourceWrapper.getX(), signalSourceWrapper.getY(),
+                    signalSourceWrapper.getMaxValue(), signalSourceWrapper.getRecesionSpeed());
+            mapManager.addSignal(signal);
+            mapSignals.put(signalSourceWrapper, signal);
+        }
+        mapManager.displayGeneratedSurface();
+    }
+
     /**
      * Добавить новый источник сигнала
      * на форму
@@ -246,12 +415,27 @@ public class MainForm extends JFrame {
         signalSourceParams.add(removeSignalSource, new com.intellij.uiDesigner.core.GridConstraints(0, 8, 1, 1, com.intellij.uiDesigner.core.GridConstraints.ANCHOR_CENTER, com.intellij.uiDesigner.core.GridConstraints.FILL_HORIZONTAL, com.intellij.uiDesigner.core.GridConstraints.SIZEPOLICY_CAN_SHRINK | com.intellij.uiDesigner.core.GridConstraints.SIZEPOLICY_CAN_GROW, com.intellij.uiDesigner.core.GridConstraints.SIZEPOLICY_FIXED, null, null, null, 0, false));
 
         SignalSourceWrapper signalSourceWrapper = new SignalSourceWrapper(signalSourceParams);
+        for (JTextField field : new JTextField[]{signalX, signalY, signalMaxValue, signalRecesionSpeed}) {
+            field.addActionListener(e -> applySignalChange(signalSourceWrapper));
+            field.addFocusListener(new FocusAdapter() {
+                @Override
+                public void focusLost(FocusEvent e) {
+                    applySignalChange(signalSourceWrapper);
+                }
+            });
+        }
         removeSignalSource.addMouseListener(new MouseAdapter() {
+            @SneakyThrows
             @Override
             public void mouseClicked(MouseEvent e) {
                 panel.remove(signalSourceParams);
                 signalSourceWrappers.remove(signalSourceWrapper);
                 genSignalsGroup.updateUI();
+                MapGenerationConfig.Signal signal = mapSignals != null ? mapSignals.remove(signalSourceWrapper) : null;
+                if (signal != null) {
+                    mapManager.removeSignal(signal);
+                    mapManager.displayGeneratedSurface();
+                }
             }
         });
 
@@ -64,6 +64,18 @@ public class SignalSourceWrapper {
         return getDoubleValue("signalRecesionSpeed");
     }
 
+    /**
+     * Проверить, что на форме заданы
+     * все параметры источника сигнала
+     *
+     * @return Все параметры заданы
+     */
+    public boolean isFilled() {
+        return getX() != null && getY() != null
+                && getDoubleValue("signalMaxValue") != null
+                && getDoubleValue("signalRecesionSpeed") != null;
+    }
+
     /**
      * Задать координату X источника сигнала
      *
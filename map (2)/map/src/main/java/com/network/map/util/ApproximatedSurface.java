@@ -0,0 +1,105 @@
+package com.network.map.util;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+
+/**
+ * Аппроксимирующая поверхность, размер которой в approximationScale
+ * раз больше карты, без хранения значений.
+ * <p>
+ * Хранится только построенная аппроксимация ({@link SurfaceApproximation}),
+ * значения вычисляются при чтении только для запрошенных точек:
+ * точка {x;y} поверхности соответствует точке {x / scale; y / scale} карты.
+ * Поверхность доступна только для чтения, при сериализации
+ * и копировании значения вычисляются полностью ({@link DoubleSurface})
+ */
+public class ApproximatedSurface implements Surface {
+    private final transient SurfaceApproximation approximation;
+    private final int approximationScale;
+
+    /**
+     * @param approximation      Построенная аппроксимация карты
+     * @param approximationScale Множитель, показывающий во сколько
+     *                           раз кол-во точек на аппроксимирующей
+     *                           поверхности будет больше, чем было
+     *                           в карте
+     */
+    public ApproximatedSurface(SurfaceApproximation approximation, int approximationScale) {
+        if (approximationScale < 1) {
+            throw new IllegalArgumentException("Масштаб аппроксимирующей поверхности должен быть положительным");
+        }
+        this.approximation = approximation;
+        this.approximationScale = approximationScale;
+    }
+
+    public SurfaceApproximation getApproximation() {
+        return approximation;
+    }
+
+    public int getApproximationScale() {
+        return approximationScale;
+    }
+
+    /**
+     * Та же аппроксимация с другим масштабом (без вычислений)
+     *
+     * @param approximationScale Новый масштаб
+     * @return Аппроксимирующая поверхность
+     */
+    public ApproximatedSurface withScale(int approximationScale) {
+        return new ApproximatedSurface(approximation, approximationScale);
+    }
+
+    @Override
+    public int getWidth() {
+        return approximation.getWidth() * approximationScale;
+    }
+
+    @Override
+    public int getHeight() {
+        return approximation.getHeight() * approximationScale;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        double[] value = new double[1];
+        readRow(y, x, 1, value, 0);
+        return value[0];
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        throw new UnsupportedOperationException("Аппроксимирующая поверхность доступна только для чтения");
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        if (x < 0 || y < 0 || count < 0 || x + count > getWidth() || y >= getHeight()) {
+            throw new IllegalArgumentException("Область выходит за границы поверхности");
+        }
+        double step = 1.0 / approximationScale;
+        approximation.evaluate(((double) y) / approximationScale, ((double) x) / approximationScale,
+                step, count, target, targetOffset);
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        throw new UnsupportedOperationException("Аппроксимирующая поверхность доступна только для чтения");
+    }
+
+    /**
+     * Вычислить все значения поверхности
+     *
+     * @return Копия поверхности в памяти
+     */
+    @Override
+    public Surface copy() {
+        DoubleSurface copy = new DoubleSurface(getWidth(), getHeight());
+        copyTo(copy);
+        return copy;
+    }
+
+    private Object writeReplace() {
+        return copy();
+    }
+}
@@ -0,0 +1,165 @@
+package com.network.map.util;
+
+import com.network.map.NetworkMap;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+
+/**
+ * Метод аппроксимации карты
+ */
+public enum ApproximationMethod {
+    /**
+     * Полином по степеням x и y, коэффициенты которого находятся
+     * из нормальной системы (см. {@link ApproximationUtils})
+     */
+    MONOMIAL {
+        @Override
+        public Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                   Surface approximatedSurface, boolean parallel) {
+            return ApproximationUtils.approximate(map, approximationScale, approximationPow,
+                    approximatedSurface, parallel);
+        }
+
+        @Override
+        public SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel) {
+            return new MonomialApproximation(surface, approximationPow, parallel);
+        }
+    },
+    /**
+     * Полином в ортонормированном базисе (см. {@link OrthogonalApproximation})
+     */
+    ORTHOGONAL {
+        @Override
+        public Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                   Surface approximatedSurface, boolean parallel) {
+            return new OrthogonalApproximation(map.getSurfaceData(), approximationPow, parallel)
+                    .approximate(approximationScale, approximationPow, approximatedSurface);
+        }
+
+        @Override
+        public SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel) {
+            return new OrthogonalApproximation(surface, approximationPow, parallel);
+        }
+    },
+    /**
+     * Сглаживающий бикубический B-сплайн (см. {@link SplineApproximation}).
+     * Степень полинома задает кол-во интервалов сплайна по каждой оси
+     */
+    SPLINE {
+        @Override
+        public Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                   Surface approximatedSurface, boolean parallel) {
+            return ((SplineApproximation) fit(map.getSurfaceData(), approximationPow, parallel))
+                    .approximate(approximationScale, approximatedSurface);
+        }
+
+        @Override
+        public SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel) {
+            return new SplineApproximation(surface, approximationPow,
+                    SplineApproximation.DEFAULT_SMOOTHING, parallel);
+        }
+    },
+    /**
+     * Локальные полиномы тайлов со смешиванием на швах
+     * (см. {@link TiledApproximation})
+     */
+    TILED {
+        @Override
+        public Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                   Surface approximatedSurface, boolean parallel) {
+            return ((TiledApproximation) fit(map.getSurfaceData(), approximationPow, parallel))
+                    .approximate(approximationScale, approximatedSurface);
+        }
+
+        @Override
+        public SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel) {
+            return new TiledApproximation(surface, TiledApproximation.DEFAULT_TILE_SIZE,
+                    TiledApproximation.DEFAULT_OVERLAP, approximationPow, parallel);
+        }
+    },
+    /**
+     * Полином по выборке строк и столбцов карты с оценкой СКО
+     * по отложенной выборке (см. {@link SubsampledApproximation})
+     */
+    SUBSAMPLED {
+        @Override
+        public Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                   Surface approximatedSurface, boolean parallel) {
+            new ApproximatedSurface(fit(map.getSurfaceData(), approximationPow, parallel), approximationScale)
+                    .copyTo(approximatedSurface);
+            return approximatedSurface;
+        }
+
+        @Override
+        public SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel) {
+            return new SubsampledApproximation(surface, approximationPow,
+                    Math.min(SubsampledApproximation.DEFAULT_SAMPLE_SIZE, surface.getWidth()),
+                    Math.min(SubsampledApproximation.DEFAULT_SAMPLE_SIZE, surface.getHeight()),
+                    SubsampledApproximation.DEFAULT_HOLDOUT_SIZE, SubsampledApproximation.Sampling.STRATIFIED,
+                    SubsampledApproximation.DEFAULT_SEED);
+        }
+    };
+
+    /**
+     * Аппроксимировать карту и записать аппроксимирующую
+     * поверхность в approximatedSurface
+     *
+     * @param map                 Объект, содержащий сгенерированную карту
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в сгенерированной ранее карте
+     * @param approximationPow    Степень полинома
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @param parallel            Аппроксимировать параллельно
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public abstract Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                        Surface approximatedSurface, boolean parallel);
+
+    /**
+     * Построить аппроксимацию карты без вычисления аппроксимирующей
+     * поверхности. Значения вычисляются по запросу
+     * ({@link ApproximatedSurface})
+     *
+     * @param map              Объект, содержащий сгенерированную карту
+     * @param approximationPow Степень полинома
+     * @param parallel         Аппроксимировать параллельно
+     * @return Аппроксимация карты
+     */
+    public SurfaceApproximation fit(NetworkMap map, int approximationPow, boolean parallel) {
+        return fit(map.getSurfaceData(), approximationPow, parallel);
+    }
+
+    /**
+     * Построить аппроксимацию поверхности без вычисления
+     * аппроксимирующей поверхности
+     *
+     * @param surface          Аппроксимируемая поверхность
+     * @param approximationPow Степень полинома
+     * @param parallel         Аппроксимировать параллельно
+     * @return Аппроксимация поверхности
+     */
+    public abstract SurfaceApproximation fit(Surface surface, int approximationPow, boolean parallel);
+
+    /**
+     * Аппроксимировать карту
+     *
+     * @param map                Объект, содержащий сгенерированную карту
+     * @param approximationScale Множитель, показывающий во сколько
+     *                           раз кол-во точек на аппроксимирующей
+     *                           поверхности будет больше, чем было
+     *                           в сгенерированной ранее карте
+     * @param approximationPow   Степень полинома
+     * @param parallel           Аппроксимировать параллельно
+     * @return Аппроксимирующая поверхность
+     */
+    public Surface approximate(NetworkMap map, int approximationScale, int approximationPow, boolean parallel) {
+        Surface surface = map.getSurfaceData();
+        return approximate(map, approximationScale, approximationPow, new DoubleSurface(
+                surface.getWidth() * approximationScale,
+                surface.getHeight() * approximationScale
+        ), parallel);
+    }
+}
@@ -1,16 +1,22 @@
 package com.network.map.util;
 
 import com.network.map.NetworkMap;
-import lombok.AllArgsConstructor;
-import lombok.Getter;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
 
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Утилитный класс, содержащий методы
  * для аппроксимации поверхности
  */
 public class ApproximationUtils {
+    /**
+     * Минимальное кол-во строк (столбцов), обрабатываемых
+     * одной задачей в параллельном режиме
+     */
+    private static final int MIN_ROWS_PER_TASK = 64;
 
     /**
      * Аппроксимировать карту с заданным параметрами
@@ -22,49 +28,154 @@ public class ApproximationUtils {
      *                           поверхности будет больше, чем было
      *                           в сгенерированной ранее карте
      * @param approximationPow   Степень полинома
-     * @return Матрица, представляющая аппроксимирующую поверхность
+     * @return Аппроксимирующая поверхность
      */
-    public static double[][] approximate(NetworkMap map, int approximationScale, int approximationPow) {
-        double[][] copiedSurface = Arrays.stream(map.getSurface())
-                .map(double[]::clone)
-                .toArray(double[][]::new);
+    public static Surface approximate(NetworkMap map, int approximationScale, int approximationPow) {
+        return approximate(map, approximationScale, approximationPow, false);
+    }
 
-        double[][] surfaceApproximationCoefs = new double[copiedSurface.length][];
-        double[] x = new double[copiedSurface.length];
-        for (int i = 0; i < x.length; i++) {
-            x[i] = i;
-        }
-        for (int i = 0; i < copiedSurface.length; i++) {
-            GaussianMatrix gaussianMatrix = prepareGaussianMatrix(x, copiedSurface[i], approximationPow);
-            surfaceApproximationCoefs[i] = resolveMatrixCoefs(gaussianMatrix.getMatrix(), gaussianMatrix.getB(), approximationPow);
-        }
+    /**
+     * Аппроксимировать карту с заданным параметрами
+     * approximationScale и approximationPow
+     *
+     * @param map                Объект, содержащий сгенерированную карту
+     * @param approximationScale Множитель, показывающий во сколько
+     *                           раз кол-во точек на аппроксимирующей
+     *                           поверхности будет больше, чем было
+     *                           в сгенерированной ранее карте
+     * @param approximationPow   Степень полинома
+     * @param parallel           Аппроксимировать параллельно
+     *                           (результат совпадает с однопоточным)
+     * @return Аппроксимирующая поверхность
+     */
+    public static Surface approximate(NetworkMap map, int approximationScale, int approximationPow, boolean parallel) {
+        Surface surface = map.getSurfaceData();
+        DoubleSurface approximatedSurface = new DoubleSurface(
+                surface.getWidth() * approximationScale,
+                surface.getHeight() * approximationScale
+        );
+        return approximate(map, approximationScale, approximationPow, approximatedSurface, parallel);
+    }
 
-        for (int i = 0; i < copiedSurface.length; i++) {
-            copiedSurface[i] = new double[map.getSurfaceWidth() * approximationScale];
-            for (int j = 0; j < copiedSurface[i].length; j++) {
-                copiedSurface[i][j] = ApproximationUtils.approximate(surfaceApproximationCoefs[i], ((double) j) / approximationScale);
-            }
+    /**
+     * Аппроксимировать карту с заданным параметрами
+     * approximationScale и approximationPow и записать
+     * аппроксимирующую поверхность в approximatedSurface.
+     * <p>
+     * В памяти хранятся только коэффициенты ({@link MonomialApproximation}),
+     * карта и аппроксимирующая поверхность обрабатываются
+     * построчно и могут храниться вне кучи ({@link com.network.map.surface.MappedSurface})
+     *
+     * @param map                 Объект, содержащий сгенерированную карту
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в сгенерированной ранее карте
+     * @param approximationPow    Степень полинома
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public static Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                      Surface approximatedSurface) {
+        return approximate(map, approximationScale, approximationPow, approximatedSurface, false);
+    }
+
+    /**
+     * Аппроксимировать карту с заданным параметрами
+     * approximationScale и approximationPow и записать
+     * аппроксимирующую поверхность в approximatedSurface.
+     * <p>
+     * В параллельном режиме строки карты, столбцы блока
+     * свободных членов и строки аппроксимирующей поверхности
+     * обрабатываются полосами в {@link ForkJoinPool#commonPool()}.
+     * Каждая строка (столбец) вычисляется теми же операциями
+     * в том же порядке, что и в однопоточном режиме, а буферы
+     * выделяются каждой задаче отдельно, поэтому результат
+     * побитово совпадает с однопоточным
+     *
+     * @param map                 Объект, содержащий сгенерированную карту
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в сгенерированной ранее карте
+     * @param approximationPow    Степень полинома
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @param parallel            Аппроксимировать параллельно
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public static Surface approximate(NetworkMap map, int approximationScale, int approximationPow,
+                                      Surface approximatedSurface, boolean parallel) {
+        Surface surface = map.getSurfaceData();
+        int width = surface.getWidth();
+        int height = surface.getHeight();
+        if (approximatedSurface.getWidth() != width * approximationScale
+                || approximatedSurface.getHeight() != height * approximationScale) {
+            throw new IllegalArgumentException("Размеры аппроксимирующей поверхности не соответствуют масштабу");
         }
+        return new MonomialApproximation(surface, approximationPow, parallel)
+                .approximate(approximationScale, approximatedSurface);
+    }
 
-        double[][] surfaceApproximationOrtogonalCoefs = new double[map.getSurfaceHeight() * approximationScale][];
-        double[][] approximatedSurface = new double[map.getSurfaceHeight() * approximationScale][];
-        for (int i = 0; i < approximatedSurface.length; i++) {
-            double[] approximationSource = new double[copiedSurface.length];
-            for (int j = 0; j < approximationSource.length; j++) {
-                approximationSource[j] = copiedSurface[j][i];
-            }
-            GaussianMatrix gaussianMatrix = prepareGaussianMatrix(x, approximationSource, approximationPow);
-            surfaceApproximationOrtogonalCoefs[i] = resolveMatrixCoefs(gaussianMatrix.getMatrix(), gaussianMatrix.getB(), approximationPow);
+    /**
+     * Обработать строки [0; rowsCount) полосами,
+     * в параллельном режиме - в {@link ForkJoinPool#commonPool()}
+     *
+     * @param rowsCount Кол-во строк
+     * @param parallel  Обрабатывать полосы параллельно
+     * @param action    Обработка полосы строк
+     */
+    static void forEachRowBand(int rowsCount, boolean parallel, RowBandAction action) {
+        forEachRowBand(rowsCount, MIN_ROWS_PER_TASK, parallel, action);
+    }
+
+    /**
+     * Обработать строки [0; rowsCount) полосами не менее чем
+     * по minRowsPerTask строк, в параллельном режиме -
+     * в {@link ForkJoinPool#commonPool()}
+     *
+     * @param rowsCount      Кол-во строк
+     * @param minRowsPerTask Минимальное кол-во строк одной задачи
+     * @param parallel       Обрабатывать полосы параллельно
+     * @param action         Обработка полосы строк
+     */
+    static void forEachRowBand(int rowsCount, int minRowsPerTask, boolean parallel, RowBandAction action) {
+        if (!parallel || rowsCount <= minRowsPerTask) {
+            action.apply(0, rowsCount);
+            return;
         }
+        ForkJoinPool.commonPool().invoke(new RowBandTask(action, minRowsPerTask, 0, rowsCount));
+    }
 
-        for (int i = 0; i < map.getSurfaceHeight() * approximationScale; i++) {
-            approximatedSurface[i] = new double[map.getSurfaceWidth() * approximationScale];
-            for (int j = 0; j < approximatedSurface[i].length; j++) {
-                approximatedSurface[i][j] = ApproximationUtils.approximate(surfaceApproximationOrtogonalCoefs[i], ((double) j) / approximationScale);
-            }
+    /**
+     * Сформировать массив абсцисс 0..N-1
+     *
+     * @param N Кол-во точек
+     * @return Массив абсцисс
+     */
+    static double[] createAbscissas(int N) {
+        double[] x = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = i;
         }
+        return x;
+    }
 
-        return mirrorMatrix(approximatedSurface);
+    /**
+     * Сформировать массив абсцисс сетки с шагом 1 / scale:
+     * 0, 1 / scale, ..., (N - 1) / scale
+     *
+     * @param N     Кол-во точек
+     * @param scale Кол-во точек сетки на единицу
+     * @return Массив абсцисс
+     */
+    static double[] createAbscissas(int N, int scale) {
+        double[] x = new double[N];
+        for (int i = 0; i < N; i++) {
+            x[i] = ((double) i) / scale;
+        }
+        return x;
     }
 
     /**
@@ -76,38 +187,7 @@ public class ApproximationUtils {
      * @return Значение Y
      */
     public static double approximate(double[] approximationCoefs, double x) {
-        double approximationResult = 0;
-        for (int i = 0; i < approximationCoefs.length; i++) {
-            approximationResult += approximationCoefs[i] * Math.pow(x, i);
-        }
-        return approximationResult;
-    }
-
-    /**
-     * Подготовить матрицу для последующего нахождения
-     * коэффициентов аппроксимации методом Гаусса
-     *
-     * @param x          Массив X значений
-     * @param y          Массив Y значений
-     * @param polynomPow Степень полинома
-     * @return Матрица для последующего нахождения
-     * коэффициентов аппроксимации методом Гаусса
-     */
-    private static GaussianMatrix prepareGaussianMatrix(double[] x, double[] y, int polynomPow) {
-        int N = x.length;
-        double[] b = new double[polynomPow + 1];
-        double[][] matrix = new double[polynomPow + 1][];
-        for (int i = 0; i < polynomPow + 1; i++) {
-            matrix[i] = new double[polynomPow + 1];
-            for (int k = 0; k < polynomPow + 1; k++) {
-                matrix[i][k] = getSumOfPows(x, k + i, N);
-            }
-            for (int k = 0; k < N; k++) {
-                b[i] += Math.pow(x[k], i) * y[k];
-            }
-        }
-        transformToMatrixWithNotZeroDiagonalCoefs(matrix, b);
-        return new GaussianMatrix(matrix, b);
+        return PolynomialEvaluator.evaluate(approximationCoefs, x);
     }
 
     /**
@@ -141,138 +221,55 @@ public class ApproximationUtils {
         }
     }
 
-    /**
-     * Нахождение коэффициентов аппроксимации
-     * методом Гаусса
-     *
-     * @param x          Исходная матрица
-     * @param b          Свободные члены
-     * @param polynomPow Степень полинома
-     * @return Коэффициенты аппроксимации
-     */
-    public static double[] resolveMatrixCoefs(double[][] x, double[] b, int polynomPow) {
-        double[][] clonedX = new double[x.length][];
-        for (int i = 0; i < clonedX.length; i++) {
-            clonedX[i] = new double[x[i].length];
-            for (int j = 0; j < clonedX[i].length; j++) {
-                clonedX[i][j] = x[i][j];
-            }
-        }
-
-        double[] coefs = new double[x.length];
-        int N = b.length;
-        for (int k = 0; k < polynomPow + 1; k++) {
-            for (int i = k + 1; i < polynomPow + 1; i++) {
-                if (clonedX[k][k] == 0) {
-                    throw new RuntimeException("На диагонали найден нулевой элемент. Решений нет");
-                }
-                double M = clonedX[i][k] / clonedX[k][k];
-                for (int j = k; j < polynomPow + 1; j++) {
-                    clonedX[i][j] -= M * clonedX[k][j];
-                }
-                b[i] -= M * b[k];
-            }
-        }
-
-        for (int i = (polynomPow + 1) - 1; i >= 0; i--) {
-            double s = 0;
-            for (int j = i; j < polynomPow + 1; j++) {
-                s = s + clonedX[i][j] * coefs[j];
-            }
-            coefs[i] = (b[i] - s) / clonedX[i][i];
-        }
-
-        return coefs;
-    }
-
     /**
      * Нахождение СКО между сгенерированной картой и
-     * аппроксимирующей плоскостью
+     * аппроксимирующей плоскостью (остальные погрешности
+     * вычисляет {@link ErrorMetrics})
      *
      * @param generatedMatrix    Сгенерированная карта
      * @param approximatedMatrix Аппроксимирующая плоскость
      * @return СКО
      */
-    public static double calcSko(double[][] generatedMatrix, double[][] approximatedMatrix) {
-        int generatedWidth = generatedMatrix[0].length;
-        int generatedHeight = generatedMatrix.length;
-        approximatedMatrix = reduceMatrixDimensionsTo(approximatedMatrix, generatedWidth, generatedHeight);
-        double sumOfDiffers = 0;
-        for (int i = 0; i < generatedMatrix.length; i++) {
-            for (int j = 0; j < generatedMatrix[i].length; j++) {
-                double difference = generatedMatrix[i][j] - approximatedMatrix[i][j];
-                sumOfDiffers += difference * difference;
-            }
-        }
-        sumOfDiffers /= generatedWidth * generatedHeight;
-        return Math.sqrt(sumOfDiffers);
+    public static double calcSko(Surface generatedMatrix, Surface approximatedMatrix) {
+        return ErrorMetrics.compute(generatedMatrix, approximatedMatrix, false).getRmse();
     }
 
     /**
-     * Нахождение суммы степеней
-     *
-     * @param x
-     * @param pow
-     * @param N
-     * @return
+     * Обработка полосы строк [fromRow; toRow)
      */
-    private static double getSumOfPows(double[] x, int pow, int N) {
-        double sum = 0;
-        for (int i = 0; i < N; i++) {
-            sum += Math.pow(x[i], pow);
-        }
-        return sum;
+    @FunctionalInterface
+    interface RowBandAction {
+        void apply(int fromRow, int toRow);
     }
 
     /**
-     * Отразить матрицу зеркально относительно диагонали
-     *
-     * @param matrix Матрица
-     * @return Отраженная матрица
+     * Задача обработки полосы строк,
+     * рекурсивно делящая полосу пополам
      */
-    private static double[][] mirrorMatrix(double[][] matrix) {
-        double[][] mirroredMatrix = new double[matrix[0].length][matrix.length];
-        for (int i = 0; i < mirroredMatrix.length; i++) {
-            for (int j = 0; j < mirroredMatrix[i].length; j++) {
-                mirroredMatrix[i][j] = matrix[j][i];
-            }
-        }
-        return mirroredMatrix;
-    }
+    private static class RowBandTask extends RecursiveAction {
+        private final RowBandAction action;
+        private final int minRowsPerTask;
+        private final int fromRow;
+        private final int toRow;
 
-    /**
-     * Привести матрицу к нужным размерам
-     *
-     * @param matrix    Исходная матрица
-     * @param newWidth  Новая ширина
-     * @param newHeight Новая высота
-     * @return Матрица с новыми размерами
-     */
-    private static double[][] reduceMatrixDimensionsTo(double[][] matrix, int newWidth, int newHeight) {
-        int scaleX = matrix[0].length / newWidth;
-        int scaleY = matrix.length / newHeight;
-        if (scaleY < 1 || scaleX < 1) {
-            throw new IllegalArgumentException("Размерность новой матрицы должна быть меньше размерности исходной");
+        RowBandTask(RowBandAction action, int minRowsPerTask, int fromRow, int toRow) {
+            this.action = action;
+            this.minRowsPerTask = minRowsPerTask;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
         }
 
-        double[][] reducedMatrix = new double[newHeight][newWidth];
-        for (int i = 0; i < reducedMatrix.length; i++) {
-            for (int j = 0; j < reducedMatrix[i].length; j++) {
-                reducedMatrix[i][j] = matrix[i * scaleY][j * scaleX];
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= minRowsPerTask) {
+                action.apply(fromRow, toRow);
+                return;
             }
+            int middle = (fromRow + toRow) >>> 1;
+            invokeAll(
+                    new RowBandTask(action, minRowsPerTask, fromRow, middle),
+                    new RowBandTask(action, minRowsPerTask, middle, toRow)
+            );
         }
-
-        return reducedMatrix;
-    }
-
-    /**
-     * Класс обертка для матрицы и
-     * свободных членов
-     */
-    @Getter
-    @AllArgsConstructor
-    private static class GaussianMatrix {
-        private double[][] matrix;
-        private double[] b;
     }
 }
@@ -0,0 +1,99 @@
+package com.network.map.util;
+
+/**
+ * Решение системы линейных уравнений A * x = b с симметричной
+ * положительно определенной ленточной матрицей сразу для множества
+ * столбцов свободных членов.
+ * <p>
+ * Матрица раскладывается один раз (разложение Холецкого A = L * L^T,
+ * L сохраняет ширину ленты), после чего каждая система решается
+ * прямой и обратной подстановкой за O(n * bandwidth).
+ * Свободные члены хранятся блоком b[строка][номер системы],
+ * как в {@link BatchedLinearSolver}
+ */
+final class BandedCholeskySolver {
+    private final int bandwidth;
+    /**
+     * Лента множителя L: l[i][d] = L[i][i - d], d = 0..bandwidth
+     */
+    private final double[][] l;
+
+    /**
+     * @param band      Нижняя лента матрицы: band[i][d] = A[i][i - d],
+     *                  d = 0..bandwidth (не изменяется)
+     * @param bandwidth Кол-во ненулевых диагоналей под главной
+     */
+    BandedCholeskySolver(double[][] band, int bandwidth) {
+        int n = band.length;
+        this.bandwidth = bandwidth;
+        this.l = new double[n][bandwidth + 1];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - bandwidth); j <= i; j++) {
+                double sum = band[i][i - j];
+                for (int k = Math.max(0, i - bandwidth); k < j; k++) {
+                    sum -= l[i][i - k] * l[j][j - k];
+                }
+                if (j == i) {
+                    if (!(sum > 0)) {
+                        throw new RuntimeException("Матрица системы вырождена. Решений нет");
+                    }
+                    l[i][0] = Math.sqrt(sum);
+                } else {
+                    l[i][i - j] = sum / l[j][0];
+                }
+            }
+        }
+    }
+
+    /**
+     * Решить системы для всех столбцов блока свободных членов.
+     * Решение записывается на место свободных членов
+     *
+     * @param b Блок свободных членов [размерность системы][кол-во систем]
+     */
+    void solve(double[][] b) {
+        solve(b, 0, b.length > 0 ? b[0].length : 0);
+    }
+
+    /**
+     * Решить системы для столбцов блока свободных членов [fromColumn; toColumn).
+     * Изменяются только эти столбцы, поэтому разные диапазоны
+     * столбцов можно решать параллельно
+     *
+     * @param b          Блок свободных членов [размерность системы][кол-во систем]
+     * @param fromColumn Первый столбец
+     * @param toColumn   Столбец, следующий за последним
+     */
+    void solve(double[][] b, int fromColumn, int toColumn) {
+        int n = l.length;
+        for (int i = 0; i < n; i++) {
+            double[] bi = b[i];
+            for (int k = Math.max(0, i - bandwidth); k < i; k++) {
+                double m = l[i][i - k];
+                double[] bk = b[k];
+                for (int c = fromColumn; c < toColumn; c++) {
+                    bi[c] -= m * bk[c];
+                }
+            }
+            double d = l[i][0];
+            for (int c = fromColumn; c < toColumn; c++) {
+                bi[c] /= d;
+            }
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            double[] bi = b[i];
+            for (int k = i + 1; k <= Math.min(n - 1, i + bandwidth); k++) {
+                double m = l[k][k - i];
+                double[] bk = b[k];
+                for (int c = fromColumn; c < toColumn; c++) {
+                    bi[c] -= m * bk[c];
+                }
+            }
+            double d = l[i][0];
+            for (int c = fromColumn; c < toColumn; c++) {
+                bi[c] /= d;
+            }
+        }
+    }
+}
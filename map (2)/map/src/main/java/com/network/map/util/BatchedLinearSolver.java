@@ -0,0 +1,114 @@
+package com.network.map.util;
+
+/**
+ * Решение системы линейных уравнений A * x = b сразу
+ * для множества столбцов свободных членов.
+ * <p>
+ * Матрица A раскладывается один раз (LU-разложение с выбором
+ * ведущего элемента по столбцу), после чего каждая система решается
+ * прямой и обратной подстановкой. Свободные члены всех систем хранятся
+ * блоком b[строка][номер системы], поэтому подстановка выполняется
+ * сразу для всех систем по непрерывным строкам блока и без выделения памяти
+ */
+final class BatchedLinearSolver {
+    private final double[][] lu;
+    private final int[] pivot;
+
+    /**
+     * @param matrix Матрица системы (не изменяется)
+     */
+    BatchedLinearSolver(double[][] matrix) {
+        int n = matrix.length;
+        this.lu = new double[n][];
+        for (int i = 0; i < n; i++) {
+            lu[i] = matrix[i].clone();
+        }
+        this.pivot = new int[n];
+
+        for (int k = 0; k < n; k++) {
+            int p = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(lu[i][k]) > Math.abs(lu[p][k])) {
+                    p = i;
+                }
+            }
+            if (lu[p][k] == 0) {
+                throw new RuntimeException("Матрица системы вырождена. Решений нет");
+            }
+            pivot[k] = p;
+            double[] temp = lu[k];
+            lu[k] = lu[p];
+            lu[p] = temp;
+
+            for (int i = k + 1; i < n; i++) {
+                double m = lu[i][k] /= lu[k][k];
+                for (int j = k + 1; j < n; j++) {
+                    lu[i][j] -= m * lu[k][j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Решить системы для всех столбцов блока свободных членов.
+     * Решение записывается на место свободных членов: после вызова
+     * b[i][c] - i-я неизвестная системы c
+     *
+     * @param b Блок свободных членов [размерность системы][кол-во систем]
+     */
+    void solve(double[][] b) {
+        solve(b, 0, b.length > 0 ? b[0].length : 0);
+    }
+
+    /**
+     * Решить системы для столбцов блока свободных членов [fromColumn; toColumn).
+     * Изменяются только эти столбцы, поэтому разные диапазоны
+     * столбцов можно решать параллельно
+     *
+     * @param b          Блок свободных членов [размерность системы][кол-во систем]
+     * @param fromColumn Первый столбец
+     * @param toColumn   Столбец, следующий за последним
+     */
+    void solve(double[][] b, int fromColumn, int toColumn) {
+        int n = lu.length;
+        for (int k = 0; k < n; k++) {
+            if (pivot[k] != k) {
+                double[] bk = b[k];
+                double[] bp = b[pivot[k]];
+                for (int c = fromColumn; c < toColumn; c++) {
+                    double temp = bk[c];
+                    bk[c] = bp[c];
+                    bp[c] = temp;
+                }
+            }
+        }
+
+        for (int i = 1; i < n; i++) {
+            double[] bi = b[i];
+            for (int j = 0; j < i; j++) {
+                double l = lu[i][j];
+                if (l == 0) continue;
+                double[] bj = b[j];
+                for (int c = fromColumn; c < toColumn; c++) {
+                    bi[c] -= l * bj[c];
+                }
+            }
+        }
+
+        for (int i = n - 1; i >= 0; i--) {
+            double[] bi = b[i];
+            for (int j = i + 1; j < n; j++) {
+                double u = lu[i][j];
+                if (u == 0) continue;
+                double[] bj = b[j];
+                for (int c = fromColumn; c < toColumn; c++) {
+                    bi[c] -= u * bj[c];
+                }
+            }
+            double d = lu[i][i];
+            for (int c = fromColumn; c < toColumn; c++) {
+                bi[c] /= d;
+            }
+        }
+    }
+}
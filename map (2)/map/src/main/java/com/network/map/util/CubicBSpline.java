@@ -0,0 +1,55 @@
+package com.network.map.util;
+
+import java.io.Serializable;
+
+/**
+ * Базис равномерного кубического B-сплайна на отрезке [0; length],
+ * разбитом на segments равных интервалов.
+ * <p>
+ * Базис состоит из segments + 3 функций, в каждой точке отрезка
+ * отличны от нуля ровно 4 соседние функции
+ */
+final class CubicBSpline implements Serializable {
+    private final int segments;
+    private final double step;
+
+    /**
+     * @param length   Длина отрезка
+     * @param segments Кол-во интервалов
+     */
+    CubicBSpline(double length, int segments) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("Кол-во интервалов сплайна должно быть положительным");
+        }
+        this.segments = segments;
+        this.step = length > 0 ? length / segments : 1;
+    }
+
+    /**
+     * @return Кол-во базисных функций
+     */
+    int getCount() {
+        return segments + 3;
+    }
+
+    /**
+     * Значения ненулевых базисных функций в точке t
+     *
+     * @param t       Точка отрезка
+     * @param weights Массив из 4 значений функций first..first + 3
+     * @return Номер первой ненулевой функции first
+     */
+    int weights(double t, double[] weights) {
+        double u = t / step;
+        int first = Math.max(0, Math.min((int) Math.floor(u), segments - 1));
+        double f = u - first;
+        double g = 1 - f;
+        double f2 = f * f;
+        double f3 = f2 * f;
+        weights[0] = g * g * g / 6;
+        weights[1] = (3 * f3 - 6 * f2 + 4) / 6;
+        weights[2] = (-3 * f3 + 3 * f2 + 3 * f + 1) / 6;
+        weights[3] = f3 / 6;
+        return first;
+    }
+}
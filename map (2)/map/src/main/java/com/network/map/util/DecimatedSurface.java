@@ -0,0 +1,74 @@
+package com.network.map.util;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+
+/**
+ * Прореженная поверхность: каждая step-я строка и каждый
+ * step-й столбец исходной поверхности без копирования значений.
+ * Точка {x;y} соответствует точке {x * step; y * step} исходной поверхности.
+ * Доступна только для чтения
+ */
+final class DecimatedSurface implements Surface {
+    private final Surface source;
+    private final int step;
+
+    /**
+     * @param source Исходная поверхность
+     * @param step   Шаг прореживания
+     */
+    DecimatedSurface(Surface source, int step) {
+        if (step < 1) {
+            throw new IllegalArgumentException("Шаг прореживания должен быть положительным");
+        }
+        this.source = source;
+        this.step = step;
+    }
+
+    @Override
+    public int getWidth() {
+        return (source.getWidth() + step - 1) / step;
+    }
+
+    @Override
+    public int getHeight() {
+        return (source.getHeight() + step - 1) / step;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return source.get(x * step, y * step);
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        throw new UnsupportedOperationException("Прореженная поверхность доступна только для чтения");
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        if (step == 1) {
+            source.readRow(y, x, count, target, targetOffset);
+            return;
+        }
+        if (count == 0) return;
+        int sourceCount = (count - 1) * step + 1;
+        double[] row = new double[sourceCount];
+        source.readRow(y * step, x * step, sourceCount, row, 0);
+        for (int j = 0; j < count; j++) {
+            target[targetOffset + j] = row[j * step];
+        }
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        throw new UnsupportedOperationException("Прореженная поверхность доступна только для чтения");
+    }
+
+    @Override
+    public Surface copy() {
+        DoubleSurface copy = new DoubleSurface(getWidth(), getHeight());
+        copyTo(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,234 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * Погрешности аппроксимации карты в узлах карты: СКО, средняя
+ * абсолютная погрешность, смещение, максимальная погрешность
+ * с координатами и гистограмма абсолютных погрешностей.
+ * <p>
+ * Все характеристики вычисляются за один проход по строкам карты
+ * без промежуточных копий: строка аппроксимирующей поверхности читается
+ * в буфер задачи (для {@link ApproximatedSurface} вычисляются только
+ * значения в узлах карты). Суммы строк вычисляются с компенсацией
+ * погрешности округления и складываются в порядке строк,
+ * поэтому результат не зависит от разбиения на полосы
+ * и совпадает в параллельном и однопоточном режимах
+ */
+@Getter
+public class ErrorMetrics implements Serializable {
+    /**
+     * Ширина интервала гистограммы по умолчанию
+     */
+    public static final double DEFAULT_BIN_WIDTH = 0.01;
+    /**
+     * Кол-во интервалов гистограммы по умолчанию
+     */
+    public static final int DEFAULT_BINS_COUNT = 1000;
+
+    private final long count;
+    /**
+     * СКО
+     */
+    private final double rmse;
+    /**
+     * Средняя абсолютная погрешность
+     */
+    private final double mae;
+    /**
+     * Средняя погрешность (аппроксимация - карта)
+     */
+    private final double bias;
+    private final double maxAbsError;
+    private final int maxErrorX;
+    private final int maxErrorY;
+    private final double binWidth;
+    /**
+     * Кол-во точек с абсолютной погрешностью в [i * binWidth; (i + 1) * binWidth).
+     * Последний интервал содержит также все большие погрешности
+     */
+    private final long[] histogram;
+
+    private ErrorMetrics(long count, double sumOfErrors, double sumOfAbsErrors, double sumOfSquares,
+                         double maxAbsError, int maxErrorX, int maxErrorY, double binWidth, long[] histogram) {
+        this.count = count;
+        this.rmse = count > 0 ? Math.sqrt(sumOfSquares / count) : 0;
+        this.mae = count > 0 ? sumOfAbsErrors / count : 0;
+        this.bias = count > 0 ? sumOfErrors / count : 0;
+        this.maxAbsError = maxAbsError;
+        this.maxErrorX = maxErrorX;
+        this.maxErrorY = maxErrorY;
+        this.binWidth = binWidth;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Вычислить погрешности с гистограммой по умолчанию
+     *
+     * @param generatedMatrix    Сгенерированная карта
+     * @param approximatedMatrix Аппроксимирующая поверхность
+     * @param parallel           Обрабатывать полосы строк параллельно
+     * @return Погрешности
+     */
+    public static ErrorMetrics compute(Surface generatedMatrix, Surface approximatedMatrix, boolean parallel) {
+        return compute(generatedMatrix, approximatedMatrix, DEFAULT_BIN_WIDTH, DEFAULT_BINS_COUNT, parallel);
+    }
+
+    /**
+     * Вычислить погрешности аппроксимирующей поверхности в узлах карты.
+     * Размер поверхности должен быть кратен размеру карты
+     *
+     * @param generatedMatrix    Сгенерированная карта
+     * @param approximatedMatrix Аппроксимирующая поверхность
+     * @param binWidth           Ширина интервала гистограммы
+     * @param binsCount          Кол-во интервалов гистограммы
+     * @param parallel           Обрабатывать полосы строк параллельно
+     * @return Погрешности
+     */
+    public static ErrorMetrics compute(Surface generatedMatrix, Surface approximatedMatrix,
+                                       double binWidth, int binsCount, boolean parallel) {
+        if (!(binWidth > 0) || binsCount < 1) {
+            throw new IllegalArgumentException("Некорректные параметры гистограммы");
+        }
+        if (approximatedMatrix instanceof ApproximatedSurface) {
+            // Значения вычисляются по запросу, поэтому
+            // вычисляются только точки в узлах карты
+            approximatedMatrix = ((ApproximatedSurface) approximatedMatrix).withScale(1);
+        }
+        Surface approximated = approximatedMatrix;
+        int width = generatedMatrix.getWidth();
+        int height = generatedMatrix.getHeight();
+        int scaleX = approximated.getWidth() / Math.max(1, width);
+        int scaleY = approximated.getHeight() / Math.max(1, height);
+        if (scaleY < 1 || scaleX < 1) {
+            throw new IllegalArgumentException("Размерность новой матрицы должна быть меньше размерности исходной");
+        }
+
+        double[] rowsErrors = new double[height];
+        double[] rowsAbsErrors = new double[height];
+        double[] rowsSquares = new double[height];
+        double[] rowsMax = new double[height];
+        int[] rowsMaxX = new int[height];
+        long[] histogram = new long[binsCount];
+        ApproximationUtils.forEachRowBand(height, parallel, (fromRow, toRow) -> {
+            double[] generatedRow = new double[width];
+            double[] approximatedRow = new double[approximated.getWidth()];
+            long[] bandHistogram = new long[binsCount];
+            CompensatedSum errors = new CompensatedSum();
+            CompensatedSum absErrors = new CompensatedSum();
+            CompensatedSum squares = new CompensatedSum();
+            for (int i = fromRow; i < toRow; i++) {
+                generatedMatrix.readRow(i, generatedRow);
+                approximated.readRow(i * scaleY, approximatedRow);
+                errors.reset();
+                absErrors.reset();
+                squares.reset();
+                double max = -1;
+                int maxX = 0;
+                for (int j = 0; j < width; j++) {
+                    double error = approximatedRow[j * scaleX] - generatedRow[j];
+                    double absError = Math.abs(error);
+                    errors.add(error);
+                    absErrors.add(absError);
+                    squares.add(error * error);
+                    if (absError > max) {
+                        max = absError;
+                        maxX = j;
+                    }
+                    bandHistogram[(int) Math.min(binsCount - 1, absError / binWidth)]++;
+                }
+                rowsErrors[i] = errors.get();
+                rowsAbsErrors[i] = absErrors.get();
+                rowsSquares[i] = squares.get();
+                rowsMax[i] = max;
+                rowsMaxX[i] = maxX;
+            }
+            synchronized (histogram) {
+                for (int b = 0; b < binsCount; b++) {
+                    histogram[b] += bandHistogram[b];
+                }
+            }
+        });
+
+        CompensatedSum errors = new CompensatedSum();
+        CompensatedSum absErrors = new CompensatedSum();
+        CompensatedSum squares = new CompensatedSum();
+        double max = 0;
+        int maxX = 0;
+        int maxY = 0;
+        for (int i = 0; i < height; i++) {
+            errors.add(rowsErrors[i]);
+            absErrors.add(rowsAbsErrors[i]);
+            squares.add(rowsSquares[i]);
+            if (rowsMax[i] > max) {
+                max = rowsMax[i];
+                maxX = rowsMaxX[i];
+                maxY = i;
+            }
+        }
+        return new ErrorMetrics((long) width * height, errors.get(), absErrors.get(), squares.get(),
+                max, maxX, maxY, binWidth, histogram);
+    }
+
+    /**
+     * Оценка перцентиля абсолютной погрешности по гистограмме
+     * (с точностью до ширины интервала)
+     *
+     * @param percentile Перцентиль от 0 до 100
+     * @return Абсолютная погрешность, которую не превышают
+     * percentile процентов точек
+     */
+    public double getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Перцентиль должен быть от 0 до 100");
+        }
+        if (count == 0) return 0;
+        double rank = percentile / 100 * count;
+        long cumulative = 0;
+        for (int b = 0; b < histogram.length - 1; b++) {
+            if (histogram[b] > 0 && cumulative + histogram[b] >= rank) {
+                double inBin = (rank - cumulative) / histogram[b];
+                return Math.min(maxAbsError, (b + inBin) * binWidth);
+            }
+            cumulative += histogram[b];
+        }
+        return maxAbsError;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("СКО: %1$,.5f%nСредняя погрешность: %2$,.5f%nСмещение: %3$,.5f%n"
+                        + "Макс. погрешность: %4$,.5f {%5$d;%6$d}%n95%% точек: < %7$,.5f",
+                rmse, mae, bias, maxAbsError, maxErrorX, maxErrorY, getPercentile(95));
+    }
+
+    /**
+     * Сумма с компенсацией погрешности округления (алгоритм Неймайера)
+     */
+    private static final class CompensatedSum {
+        private double sum;
+        private double compensation;
+
+        void add(double value) {
+            double t = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - t) + value;
+            } else {
+                compensation += (value - t) + sum;
+            }
+            sum = t;
+        }
+
+        double get() {
+            return sum + compensation;
+        }
+
+        void reset() {
+            sum = 0;
+            compensation = 0;
+        }
+    }
+}
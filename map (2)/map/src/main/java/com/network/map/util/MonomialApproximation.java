@@ -0,0 +1,128 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+
+/**
+ * Аппроксимация карты полиномом по степеням x и y,
+ * коэффициенты которого находятся из нормальной системы
+ * метода наименьших квадратов ({@link NormalEquations}).
+ * <p>
+ * Аппроксимация методом наименьших квадратов линейна по значениям,
+ * поэтому аппроксимация по столбцам значений полиномов строк
+ * совпадает с полиномом, коэффициенты которого аппроксимируют
+ * по столбцам коэффициенты полиномов строк. В памяти хранятся только
+ * коэффициенты, карта обрабатывается построчно
+ */
+public class MonomialApproximation implements SurfaceApproximation {
+    private final int width;
+    private final int height;
+    private final int pow;
+    private final boolean parallel;
+    /**
+     * Коэффициенты: coefs[k][m] - коэффициент при x^k * y^m
+     */
+    private final double[][] coefs;
+
+    /**
+     * @param surface  Аппроксимируемая карта
+     * @param pow      Степень полинома
+     * @param parallel Аппроксимировать параллельно
+     *                 (результат совпадает с однопоточным)
+     */
+    public MonomialApproximation(Surface surface, int pow, boolean parallel) {
+        this.width = surface.getWidth();
+        this.height = surface.getHeight();
+        this.pow = pow;
+        this.parallel = parallel;
+        NormalEquations rowEquations = new NormalEquations(ApproximationUtils.createAbscissas(width), pow);
+        NormalEquations columnEquations = width == height
+                ? rowEquations
+                : new NormalEquations(ApproximationUtils.createAbscissas(height), pow);
+
+        // rowsApproximationCoefs[k][i] - коэффициент при x^k полинома строки i
+        double[][] rowsApproximationCoefs = new double[pow + 1][height];
+        ApproximationUtils.forEachRowBand(height, parallel, (fromRow, toRow) -> {
+            double[] row = new double[width];
+            for (int i = fromRow; i < toRow; i++) {
+                rowEquations.rightHandSide(surface.readRow(i, row), rowsApproximationCoefs, i);
+            }
+            rowEquations.solve(rowsApproximationCoefs, fromRow, toRow);
+        });
+
+        // columnCoefs[m][k] - коэффициент при y^m полинома, аппроксимирующего
+        // по столбцу коэффициенты при x^k полиномов строк
+        double[][] columnCoefs = new double[pow + 1][pow + 1];
+        for (int k = 0; k < pow + 1; k++) {
+            columnEquations.rightHandSide(rowsApproximationCoefs[k], columnCoefs, k);
+        }
+        columnEquations.solve(columnCoefs);
+        this.coefs = new double[pow + 1][pow + 1];
+        for (int m = 0; m < pow + 1; m++) {
+            for (int k = 0; k < pow + 1; k++) {
+                coefs[k][m] = columnCoefs[m][k];
+            }
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return (long) coefs.length * coefs.length * Double.BYTES;
+    }
+
+    /**
+     * Построить аппроксимирующую поверхность
+     *
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в карте
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public Surface approximate(int approximationScale, Surface approximatedSurface) {
+        if (approximatedSurface.getWidth() != width * approximationScale
+                || approximatedSurface.getHeight() != height * approximationScale) {
+            throw new IllegalArgumentException("Размеры аппроксимирующей поверхности не соответствуют масштабу");
+        }
+        double[] approximatedX = ApproximationUtils.createAbscissas(approximatedSurface.getWidth(), approximationScale);
+        ApproximationUtils.forEachRowBand(approximatedSurface.getHeight(), parallel, (fromRow, toRow) -> {
+            double[] rowCoefs = new double[pow + 1];
+            double[] approximatedRow = new double[approximatedSurface.getWidth()];
+            for (int i = fromRow; i < toRow; i++) {
+                rowCoefs(((double) i) / approximationScale, rowCoefs);
+                PolynomialEvaluator.evaluate(rowCoefs, approximatedX, approximatedRow);
+                approximatedSurface.writeRow(i, approximatedRow);
+            }
+        });
+        return approximatedSurface;
+    }
+
+    @Override
+    public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+        double[] rowCoefs = new double[pow + 1];
+        rowCoefs(y, rowCoefs);
+        for (int j = 0; j < count; j++) {
+            target[targetOffset + j] = PolynomialEvaluator.evaluate(rowCoefs, x + j * step);
+        }
+    }
+
+    /**
+     * Коэффициенты при x^k сечения полинома прямой y = const
+     */
+    private void rowCoefs(double y, double[] rowCoefs) {
+        for (int k = 0; k < rowCoefs.length; k++) {
+            rowCoefs[k] = PolynomialEvaluator.evaluate(coefs[k], y);
+        }
+    }
+}
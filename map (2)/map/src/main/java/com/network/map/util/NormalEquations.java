@@ -0,0 +1,96 @@
+package com.network.map.util;
+
+/**
+ * Нормальная система уравнений метода наименьших квадратов
+ * для аппроксимации полиномом степени polynomPow по абсциссам x.
+ * <p>
+ * Матрица системы (суммы степеней абсцисс) зависит только
+ * от абсцисс, поэтому вычисляется и раскладывается
+ * ({@link BatchedLinearSolver}) один раз для всех аппроксимируемых
+ * строк (или столбцов) вместе с таблицей степеней абсцисс.
+ * Для каждой строки остается вычислить только свободные члены
+ * за O(N * polynomPow), а системы всех строк решаются одним блоком
+ */
+final class NormalEquations {
+    private final int polynomPow;
+    /**
+     * Таблица степеней абсцисс: powers[i][k] = x[k]^i
+     */
+    private final double[][] powers;
+    private final BatchedLinearSolver solver;
+
+    /**
+     * @param x          Массив X значений
+     * @param polynomPow Степень полинома
+     */
+    NormalEquations(double[] x, int polynomPow) {
+        int N = x.length;
+        this.polynomPow = polynomPow;
+        this.powers = new double[polynomPow + 1][N];
+        double[] sumsOfPows = new double[2 * polynomPow + 1];
+        for (int k = 0; k < N; k++) {
+            double pow = 1;
+            for (int i = 0; i < sumsOfPows.length; i++) {
+                if (i <= polynomPow) {
+                    powers[i][k] = pow;
+                }
+                sumsOfPows[i] += pow;
+                pow *= x[k];
+            }
+        }
+
+        double[][] matrix = new double[polynomPow + 1][polynomPow + 1];
+        for (int i = 0; i < polynomPow + 1; i++) {
+            for (int k = 0; k < polynomPow + 1; k++) {
+                matrix[i][k] = sumsOfPows[i + k];
+            }
+        }
+        this.solver = new BatchedLinearSolver(matrix);
+    }
+
+    int getPolynomPow() {
+        return polynomPow;
+    }
+
+    /**
+     * Вычислить свободные члены системы для значений y
+     * и записать их в столбец блока свободных членов
+     *
+     * @param y      Массив Y значений
+     * @param b      Блок свободных членов [polynomPow + 1][кол-во систем]
+     * @param column Номер системы (столбца блока)
+     */
+    void rightHandSide(double[] y, double[][] b, int column) {
+        for (int i = 0; i < polynomPow + 1; i++) {
+            double[] xPows = powers[i];
+            double sum = 0;
+            for (int k = 0; k < xPows.length; k++) {
+                sum += xPows[k] * y[k];
+            }
+            b[i][column] = sum;
+        }
+    }
+
+    /**
+     * Найти коэффициенты полиномов для всех столбцов блока
+     * свободных членов. После вызова b[i][c] - коэффициент
+     * при x^i полинома, аппроксимирующего значения системы c
+     *
+     * @param b Блок свободных членов [polynomPow + 1][кол-во систем]
+     */
+    void solve(double[][] b) {
+        solver.solve(b);
+    }
+
+    /**
+     * Найти коэффициенты полиномов для столбцов блока
+     * свободных членов [fromColumn; toColumn)
+     *
+     * @param b          Блок свободных членов [polynomPow + 1][кол-во систем]
+     * @param fromColumn Первый столбец
+     * @param toColumn   Столбец, следующий за последним
+     */
+    void solve(double[][] b, int fromColumn, int toColumn) {
+        solver.solve(b, fromColumn, toColumn);
+    }
+}
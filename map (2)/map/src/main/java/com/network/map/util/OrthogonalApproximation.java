@@ -0,0 +1,325 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+
+import java.util.Arrays;
+
+/**
+ * Аппроксимация карты методом наименьших квадратов
+ * в базисе полиномов, ортонормированных на узлах карты
+ * ({@link OrthogonalPolynomials}).
+ * <p>
+ * Коэффициенты аппроксимации - проекции карты на произведения
+ * полиномов q_k(x) * r_m(y) и не зависят от степени аппроксимации:
+ * аппроксимация степени pow использует коэффициенты с k, m <= pow.
+ * Повышение степени на 1 требует одной дополнительной проекции
+ * каждой строки карты, а младшие коэффициенты используются повторно.
+ * По равенству Парсеваля сумма квадратов отклонений аппроксимации
+ * степени pow от карты равна сумме квадратов карты минус сумма
+ * квадратов коэффициентов, поэтому СКО вычисляется для всех степеней
+ * сразу, без построения аппроксимирующих поверхностей.
+ * <p>
+ * Результат совпадает с {@link ApproximationUtils#approximate(com.network.map.NetworkMap, int, int)}
+ * с точностью до погрешности вычислений, но не требует решения
+ * плохо обусловленной нормальной системы.
+ * <p>
+ * Ссылка на карту после построения не хранится: для повышения
+ * степени ({@link #increasePow}) карта передается повторно
+ */
+public class OrthogonalApproximation implements SurfaceApproximation {
+    private final int x0;
+    private final int y0;
+    private final int width;
+    private final int height;
+    private final boolean parallel;
+    private final OrthogonalPolynomials rowPolynomials;
+    private final OrthogonalPolynomials columnPolynomials;
+    /**
+     * Проекции строк карты: rowsProjections[k][i] - проекция строки i на q_k
+     */
+    private double[][] rowsProjections = new double[0][];
+    /**
+     * Коэффициенты аппроксимации: coefs[m][k] - коэффициент при r_m(y) * q_k(x)
+     */
+    private double[][] coefs = new double[0][];
+    private double sumOfSquares;
+    private int maxPow = -1;
+
+    /**
+     * @param surface  Аппроксимируемая карта
+     * @param maxPow   Максимальная степень полинома
+     * @param parallel Проецировать строки карты параллельно
+     *                 (результат совпадает с однопоточным)
+     */
+    public OrthogonalApproximation(Surface surface, int maxPow, boolean parallel) {
+        this(surface, 0, 0, surface.getWidth(), surface.getHeight(), null, null, maxPow, parallel);
+    }
+
+    /**
+     * Аппроксимация прямоугольного окна карты в локальных координатах окна.
+     * Готовые полиномы могут использоваться несколькими аппроксимациями
+     * одновременно, если они уже построены до степени maxPow
+     *
+     * @param surface           Аппроксимируемая карта
+     * @param x0                Левая граница окна
+     * @param y0                Верхняя граница окна
+     * @param width             Ширина окна
+     * @param height            Высота окна
+     * @param rowPolynomials    Полиномы по узлам 0..width-1 или null
+     * @param columnPolynomials Полиномы по узлам 0..height-1 или null
+     * @param maxPow            Максимальная степень полинома
+     * @param parallel          Проецировать строки окна параллельно
+     */
+    OrthogonalApproximation(Surface surface, int x0, int y0, int width, int height,
+                            OrthogonalPolynomials rowPolynomials, OrthogonalPolynomials columnPolynomials,
+                            int maxPow, boolean parallel) {
+        this.x0 = x0;
+        this.y0 = y0;
+        this.width = width;
+        this.height = height;
+        this.parallel = parallel;
+        this.rowPolynomials = rowPolynomials != null
+                ? rowPolynomials
+                : new OrthogonalPolynomials(ApproximationUtils.createAbscissas(width), 0);
+        this.columnPolynomials = columnPolynomials != null
+                ? columnPolynomials
+                : width == height
+                ? this.rowPolynomials
+                : new OrthogonalPolynomials(ApproximationUtils.createAbscissas(height), 0);
+        increasePow(surface, maxPow);
+    }
+
+    /**
+     * @return Максимальная степень полинома
+     */
+    public int getMaxPow() {
+        return maxPow;
+    }
+
+    /**
+     * Коэффициенты аппроксимации в ортонормированном базисе
+     *
+     * @return Копия коэффициентов: [m][k] - коэффициент при r_m(y) * q_k(x)
+     */
+    public double[][] getCoefs() {
+        double[][] copy = new double[coefs.length][];
+        for (int m = 0; m < coefs.length; m++) {
+            copy[m] = coefs[m].clone();
+        }
+        return copy;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        long size = getCoefsSizeInBytes() + rowPolynomials.getSizeInBytes();
+        return columnPolynomials != rowPolynomials ? size + columnPolynomials.getSizeInBytes() : size;
+    }
+
+    /**
+     * @return Объем коэффициентов и проекций строк без полиномов, байт
+     */
+    long getCoefsSizeInBytes() {
+        return ((long) coefs.length * coefs.length + (long) rowsProjections.length * height) * Double.BYTES;
+    }
+
+    OrthogonalPolynomials getRowPolynomials() {
+        return rowPolynomials;
+    }
+
+    OrthogonalPolynomials getColumnPolynomials() {
+        return columnPolynomials;
+    }
+
+    /**
+     * Повысить максимальную степень полинома. Вычисляются
+     * только проекции строк карты на новые полиномы
+     *
+     * @param surface   Карта, по которой построена аппроксимация
+     * @param newMaxPow Новая максимальная степень полинома
+     */
+    public void increasePow(Surface surface, int newMaxPow) {
+        if (newMaxPow <= maxPow) return;
+        if (surface.getWidth() < x0 + width || surface.getHeight() < y0 + height) {
+            throw new IllegalArgumentException("Размеры карты не соответствуют аппроксимации");
+        }
+        rowPolynomials.extend(newMaxPow);
+        columnPolynomials.extend(newMaxPow);
+
+        int fromPow = maxPow + 1;
+        rowsProjections = Arrays.copyOf(rowsProjections, newMaxPow + 1);
+        for (int k = fromPow; k <= newMaxPow; k++) {
+            rowsProjections[k] = new double[height];
+        }
+        double[] rowsSumsOfSquares = fromPow == 0 ? new double[height] : null;
+        ApproximationUtils.forEachRowBand(height, parallel, (fromRow, toRow) -> {
+            double[] row = new double[width];
+            for (int i = fromRow; i < toRow; i++) {
+                surface.readRow(y0 + i, x0, width, row, 0);
+                rowPolynomials.project(row, rowsProjections, i, fromPow, newMaxPow);
+                if (rowsSumsOfSquares != null) {
+                    double sum = 0;
+                    for (int j = 0; j < width; j++) {
+                        sum += row[j] * row[j];
+                    }
+                    rowsSumsOfSquares[i] = sum;
+                }
+            }
+        });
+        if (rowsSumsOfSquares != null) {
+            for (double rowSumOfSquares : rowsSumsOfSquares) {
+                sumOfSquares += rowSumOfSquares;
+            }
+        }
+
+        double[][] newCoefs = new double[newMaxPow + 1][newMaxPow + 1];
+        for (int m = 0; m <= newMaxPow; m++) {
+            double[] r = columnPolynomials.values(m);
+            for (int k = 0; k <= newMaxPow; k++) {
+                if (m < fromPow && k < fromPow) {
+                    newCoefs[m][k] = coefs[m][k];
+                    continue;
+                }
+                double[] projections = rowsProjections[k];
+                double sum = 0;
+                for (int i = 0; i < height; i++) {
+                    sum += projections[i] * r[i];
+                }
+                newCoefs[m][k] = sum;
+            }
+        }
+        coefs = newCoefs;
+        maxPow = newMaxPow;
+    }
+
+    /**
+     * СКО аппроксимации степени pow в узлах карты
+     *
+     * @param pow Степень полинома, не больше максимальной
+     * @return СКО
+     */
+    public double getSko(int pow) {
+        return getSkoByPow()[checkPow(pow)];
+    }
+
+    /**
+     * СКО аппроксимаций всех степеней 0..maxPow в узлах карты
+     *
+     * @return Массив СКО по степени полинома
+     */
+    public double[] getSkoByPow() {
+        double[] sko = new double[maxPow + 1];
+        double count = (double) width * height;
+        double residual = sumOfSquares;
+        for (int pow = 0; pow <= maxPow; pow++) {
+            for (int i = 0; i < pow; i++) {
+                residual -= coefs[pow][i] * coefs[pow][i] + coefs[i][pow] * coefs[i][pow];
+            }
+            residual -= coefs[pow][pow] * coefs[pow][pow];
+            sko[pow] = Math.sqrt(Math.max(0, residual) / count);
+        }
+        return sko;
+    }
+
+    /**
+     * Построить аппроксимирующую поверхность степени pow
+     *
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в карте
+     * @param pow                 Степень полинома, не больше максимальной
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public Surface approximate(int approximationScale, int pow, Surface approximatedSurface) {
+        checkPow(pow);
+        if (approximatedSurface.getWidth() != width * approximationScale
+                || approximatedSurface.getHeight() != height * approximationScale) {
+            throw new IllegalArgumentException("Размеры аппроксимирующей поверхности не соответствуют масштабу");
+        }
+        double[] approximatedX = ApproximationUtils.createAbscissas(approximatedSurface.getWidth(), approximationScale);
+        ApproximationUtils.forEachRowBand(approximatedSurface.getHeight(), parallel, (fromRow, toRow) -> {
+            double[] columnValues = new double[pow + 1];
+            double[] rowCoefs = new double[pow + 1];
+            double[] approximatedRow = new double[approximatedX.length];
+            double[][] workspace = new double[2][approximatedX.length];
+            for (int i = fromRow; i < toRow; i++) {
+                rowCoefs(((double) i) / approximationScale, pow, columnValues, rowCoefs);
+                evaluateRow(rowCoefs, pow, approximatedX, approximatedRow, workspace);
+                approximatedSurface.writeRow(i, approximatedRow);
+            }
+        });
+        return approximatedSurface;
+    }
+
+    /**
+     * Значения аппроксимации максимальной степени
+     * (в координатах окна)
+     */
+    @Override
+    public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+        double[] columnValues = new double[maxPow + 1];
+        double[] rowCoefs = new double[maxPow + 1];
+        rowCoefs(y, maxPow, columnValues, rowCoefs);
+        for (int j = 0; j < count; j++) {
+            rowPolynomials.valuesAt(x + j * step, maxPow, columnValues);
+            double sum = 0;
+            for (int k = 0; k <= maxPow; k++) {
+                sum += rowCoefs[k] * columnValues[k];
+            }
+            target[targetOffset + j] = sum;
+        }
+    }
+
+    /**
+     * Коэффициенты (в базисе q_k) сечения аппроксимации степени pow
+     * прямой y = const
+     *
+     * @param y            Координата сечения в координатах окна
+     * @param pow          Степень полинома
+     * @param columnValues Рабочий массив длиной не меньше pow + 1
+     * @param rowCoefs     Массив коэффициентов длиной не меньше pow + 1
+     */
+    void rowCoefs(double y, int pow, double[] columnValues, double[] rowCoefs) {
+        columnPolynomials.valuesAt(y, pow, columnValues);
+        Arrays.fill(rowCoefs, 0, pow + 1, 0);
+        for (int m = 0; m <= pow; m++) {
+            double r = columnValues[m];
+            double[] coefsRow = coefs[m];
+            for (int k = 0; k <= pow; k++) {
+                rowCoefs[k] += r * coefsRow[k];
+            }
+        }
+    }
+
+    /**
+     * Значения сечения с коэффициентами rowCoefs во всех точках сетки x
+     *
+     * @param rowCoefs  Коэффициенты сечения ({@link #rowCoefs})
+     * @param pow       Степень полинома
+     * @param x         Точки сетки в координатах окна
+     * @param target    Массив значений длиной не меньше x.length
+     * @param workspace Рабочие массивы [2][не меньше x.length]
+     */
+    void evaluateRow(double[] rowCoefs, int pow, double[] x, double[] target, double[][] workspace) {
+        rowPolynomials.evaluate(rowCoefs, pow, x, target, workspace);
+    }
+
+    private int checkPow(int pow) {
+        if (pow < 0 || pow > maxPow) {
+            throw new IllegalArgumentException("Степень полинома должна быть от 0 до " + maxPow);
+        }
+        return pow;
+    }
+}
@@ -0,0 +1,180 @@
+package com.network.map.util;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Полиномы q_0..q_maxPow, ортонормированные на заданных узлах x
+ * (скалярное произведение - сумма по узлам).
+ * <p>
+ * Полиномы строятся трехчленным рекуррентным соотношением (процедура Стилтьеса):
+ * gamma_k * q_k(x) = (x - alpha_{k-1}) * q_{k-1}(x) - gamma_{k-1} * q_{k-2}(x),
+ * поэтому коэффициенты аппроксимации методом наименьших квадратов -
+ * просто проекции значений на полиномы, без решения плохо обусловленной
+ * нормальной системы. Повышение степени добавляет полиномы,
+ * не пересчитывая уже построенные
+ */
+final class OrthogonalPolynomials implements Serializable {
+    private final double[] x;
+    /**
+     * Значения полиномов в узлах: values[k][i] = q_k(x_i)
+     */
+    private double[][] values = new double[0][];
+    private double[] alpha = new double[0];
+    private double[] gamma = new double[0];
+    private int maxPow = -1;
+
+    /**
+     * @param x      Узлы
+     * @param maxPow Максимальная степень полинома
+     */
+    OrthogonalPolynomials(double[] x, int maxPow) {
+        this.x = x;
+        extend(maxPow);
+    }
+
+    /**
+     * @return Объем узлов, значений и коэффициентов рекуррентного соотношения, байт
+     */
+    long getSizeInBytes() {
+        return ((long) values.length * x.length + x.length + alpha.length + gamma.length) * Double.BYTES;
+    }
+
+    int getMaxPow() {
+        return maxPow;
+    }
+
+    /**
+     * Значения полинома q_k в узлах
+     *
+     * @param k Степень полинома
+     * @return Массив значений (не копируется)
+     */
+    double[] values(int k) {
+        return values[k];
+    }
+
+    /**
+     * Достроить полиномы до степени newMaxPow
+     *
+     * @param newMaxPow Новая максимальная степень
+     */
+    void extend(int newMaxPow) {
+        if (newMaxPow <= maxPow) return;
+        int N = x.length;
+        if (newMaxPow >= N) {
+            throw new IllegalArgumentException("Степень полинома должна быть меньше кол-ва точек");
+        }
+        values = Arrays.copyOf(values, newMaxPow + 1);
+        alpha = Arrays.copyOf(alpha, newMaxPow + 1);
+        gamma = Arrays.copyOf(gamma, newMaxPow + 1);
+        for (int k = maxPow + 1; k <= newMaxPow; k++) {
+            double[] q = new double[N];
+            if (k == 0) {
+                Arrays.fill(q, 1 / Math.sqrt(N));
+            } else {
+                double[] q1 = values[k - 1];
+                double[] q2 = k > 1 ? values[k - 2] : q;
+                double a = alpha[k - 1];
+                double g = gamma[k - 1];
+                double norm = 0;
+                for (int i = 0; i < N; i++) {
+                    q[i] = (x[i] - a) * q1[i] - g * q2[i];
+                    norm += q[i] * q[i];
+                }
+                norm = Math.sqrt(norm);
+                if (!(norm > 0)) {
+                    throw new IllegalArgumentException("Степень полинома должна быть меньше кол-ва различных точек");
+                }
+                for (int i = 0; i < N; i++) {
+                    q[i] /= norm;
+                }
+                gamma[k] = norm;
+            }
+            double a = 0;
+            for (int i = 0; i < N; i++) {
+                a += x[i] * q[i] * q[i];
+            }
+            alpha[k] = a;
+            values[k] = q;
+        }
+        maxPow = newMaxPow;
+    }
+
+    /**
+     * Вычислить проекции значений y на полиномы q_fromPow..q_toPow
+     * и записать их в столбец блока коэффициентов
+     *
+     * @param y       Значения в узлах
+     * @param coefs   Блок коэффициентов [степень][номер столбца]
+     * @param column  Номер столбца
+     * @param fromPow Первая степень
+     * @param toPow   Последняя степень (включительно)
+     */
+    void project(double[] y, double[][] coefs, int column, int fromPow, int toPow) {
+        for (int k = fromPow; k <= toPow; k++) {
+            double[] q = values[k];
+            double sum = 0;
+            for (int i = 0; i < q.length; i++) {
+                sum += y[i] * q[i];
+            }
+            coefs[k][column] = sum;
+        }
+    }
+
+    /**
+     * Значения полиномов q_0..q_pow в произвольной точке t
+     *
+     * @param t      Точка
+     * @param pow    Максимальная степень
+     * @param target Массив значений длиной не меньше pow + 1
+     */
+    void valuesAt(double t, int pow, double[] target) {
+        double previous = 0;
+        double current = 1 / Math.sqrt(x.length);
+        target[0] = current;
+        for (int k = 1; k <= pow; k++) {
+            double next = ((t - alpha[k - 1]) * current - gamma[k - 1] * previous) / gamma[k];
+            target[k] = next;
+            previous = current;
+            current = next;
+        }
+    }
+
+    /**
+     * Значения комбинации sum(coefs[k] * q_k), k = 0..pow,
+     * во всех точках сетки t. Рекуррентное соотношение выполняется
+     * сразу для всей сетки по непрерывным массивам
+     *
+     * @param coefs     Коэффициенты комбинации
+     * @param pow       Максимальная степень
+     * @param t         Точки сетки
+     * @param target    Массив значений длиной не меньше t.length
+     * @param workspace Рабочие массивы [2][не меньше t.length]
+     */
+    void evaluate(double[] coefs, int pow, double[] t, double[] target, double[][] workspace) {
+        int N = t.length;
+        double[] previous = workspace[0];
+        double[] current = workspace[1];
+        double q0 = 1 / Math.sqrt(x.length);
+        for (int j = 0; j < N; j++) {
+            previous[j] = 0;
+            current[j] = q0;
+            target[j] = coefs[0] * q0;
+        }
+        for (int k = 1; k <= pow; k++) {
+            double a = alpha[k - 1];
+            double g = gamma[k - 1];
+            double norm = gamma[k];
+            double coef = coefs[k];
+            for (int j = 0; j < N; j++) {
+                double next = ((t[j] - a) * current[j] - g * previous[j]) / norm;
+                previous[j] = next;
+                target[j] += coef * next;
+            }
+            double[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.network.map.util;
+
+/**
+ * Вычисление значений полинома по схеме Горнера
+ * (без {@link Math#pow} и выделения памяти).
+ * Коэффициенты задаются по возрастанию степени:
+ * coefs[i] - коэффициент при x^i
+ */
+public final class PolynomialEvaluator {
+    private PolynomialEvaluator() {
+    }
+
+    /**
+     * Значение полинома в точке x
+     *
+     * @param coefs Коэффициенты полинома
+     * @param x     Значение X
+     * @return Значение полинома
+     */
+    public static double evaluate(double[] coefs, double x) {
+        double result = 0;
+        for (int i = coefs.length - 1; i >= 0; i--) {
+            result = result * x + coefs[i];
+        }
+        return result;
+    }
+
+    /**
+     * Значения полинома во всех точках сетки x.
+     * Схема Горнера выполняется сразу для всей сетки:
+     * на каждом шаге обрабатывается непрерывный массив,
+     * поэтому цикл хорошо векторизуется
+     *
+     * @param coefs  Коэффициенты полинома
+     * @param x      Точки сетки
+     * @param target Массив значений длиной не меньше x.length
+     */
+    public static void evaluate(double[] coefs, double[] x, double[] target) {
+        int N = x.length;
+        double leading = coefs.length > 0 ? coefs[coefs.length - 1] : 0;
+        for (int j = 0; j < N; j++) {
+            target[j] = leading;
+        }
+        for (int i = coefs.length - 2; i >= 0; i--) {
+            double coef = coefs[i];
+            for (int j = 0; j < N; j++) {
+                target[j] = target[j] * x[j] + coef;
+            }
+        }
+    }
+}
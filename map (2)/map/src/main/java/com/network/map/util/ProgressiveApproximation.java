@@ -0,0 +1,134 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.function.Consumer;
+
+/**
+ * Аппроксимация от грубой к точной.
+ * <p>
+ * Карта аппроксимируется сначала по прореженной поверхности
+ * (каждая 8-я, затем 4-я, 2-я строка и столбец), затем целиком.
+ * Каждый уровень передается слушателю вместе с оценкой СКО
+ * по узлам прореженной поверхности, поэтому грубый результат
+ * доступен через доли времени полной аппроксимации:
+ * уровень с шагом step обрабатывает в step^2 раз меньше точек,
+ * а все грубые уровни вместе - около трети точек карты.
+ * Аппроксимация каждого уровня задается в координатах исходной карты
+ */
+public class ProgressiveApproximation {
+    /**
+     * Шаги прореживания по умолчанию
+     */
+    public static final int[] DEFAULT_STEPS = {8, 4, 2, 1};
+
+    private ProgressiveApproximation() {
+    }
+
+    /**
+     * Аппроксимировать поверхность от грубой к точной.
+     * Уровни, в которых точек прореженной поверхности
+     * меньше, чем нужно для степени полинома, пропускаются.
+     * При прерывании потока возвращается последний
+     * построенный уровень
+     *
+     * @param surface          Аппроксимируемая карта
+     * @param method           Метод аппроксимации
+     * @param approximationPow Степень полинома
+     * @param steps            Шаги прореживания по убыванию,
+     *                         последний уровень всегда строится по всей карте
+     * @param parallel         Аппроксимировать параллельно
+     * @param listener         Слушатель построенных уровней
+     * @return Аппроксимация по всей карте или последний построенный уровень
+     */
+    public static SurfaceApproximation approximate(Surface surface, ApproximationMethod method, int approximationPow,
+                                                   int[] steps, boolean parallel, Consumer<Level> listener) {
+        SurfaceApproximation result = null;
+        long start = System.nanoTime();
+        int previousStep = Integer.MAX_VALUE;
+        for (int i = 0; i <= steps.length; i++) {
+            int step = i < steps.length ? steps[i] : 1;
+            if (step >= previousStep || step < 1) continue;
+            previousStep = step;
+            if (Thread.currentThread().isInterrupted()) break;
+
+            Surface decimated = step == 1 ? surface : new DecimatedSurface(surface, step);
+            if (step > 1 && Math.min(decimated.getWidth(), decimated.getHeight()) <= approximationPow + 1) continue;
+            SurfaceApproximation approximation = method.fit(decimated, approximationPow, parallel);
+            double sko = ErrorMetrics.compute(decimated, new ApproximatedSurface(approximation, 1), parallel).getRmse();
+            result = step == 1 ? approximation : new DecimatedApproximation(approximation, step, surface);
+            listener.accept(new Level(step, result, sko, (System.nanoTime() - start) / 1_000_000));
+        }
+        return result;
+    }
+
+    /**
+     * Уровень аппроксимации
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Level {
+        /**
+         * Шаг прореживания (1 - вся карта)
+         */
+        private final int step;
+        /**
+         * Аппроксимация в координатах исходной карты
+         */
+        private final SurfaceApproximation approximation;
+        /**
+         * СКО по узлам прореженной поверхности
+         */
+        private final double estimatedSko;
+        /**
+         * Время от начала аппроксимации, мс
+         */
+        private final long elapsedMillis;
+
+        /**
+         * @return Уровень построен по всей карте
+         */
+        public boolean isFinal() {
+            return step == 1;
+        }
+    }
+
+    /**
+     * Аппроксимация прореженной поверхности в координатах исходной карты
+     */
+    private static class DecimatedApproximation implements SurfaceApproximation {
+        private final SurfaceApproximation approximation;
+        private final int step;
+        private final int width;
+        private final int height;
+
+        DecimatedApproximation(SurfaceApproximation approximation, int step, Surface source) {
+            this.approximation = approximation;
+            this.step = step;
+            this.width = source.getWidth();
+            this.height = source.getHeight();
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public long getSizeInBytes() {
+            return approximation.getSizeInBytes();
+        }
+
+        @Override
+        public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+            approximation.evaluate(y / this.step, x / this.step, step / this.step, count, target, targetOffset);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.network.map.util;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+
+/**
+ * Выборка точек исходной поверхности на пересечении заданных
+ * строк и столбцов без копирования значений.
+ * Точка {x;y} соответствует точке {columns[x]; rows[y]}
+ * исходной поверхности. Доступна только для чтения
+ */
+final class SampledSurface implements Surface {
+    private final Surface source;
+    private final int[] columns;
+    private final int[] rows;
+
+    /**
+     * @param source  Исходная поверхность
+     * @param columns Номера столбцов выборки
+     * @param rows    Номера строк выборки
+     */
+    SampledSurface(Surface source, int[] columns, int[] rows) {
+        this.source = source;
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    @Override
+    public int getWidth() {
+        return columns.length;
+    }
+
+    @Override
+    public int getHeight() {
+        return rows.length;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return source.get(columns[x], rows[y]);
+    }
+
+    @Override
+    public void set(int x, int y, double value) {
+        throw new UnsupportedOperationException("Выборка точек поверхности доступна только для чтения");
+    }
+
+    @Override
+    public void readRow(int y, int x, int count, double[] target, int targetOffset) {
+        int row = rows[y];
+        for (int j = 0; j < count; j++) {
+            target[targetOffset + j] = source.get(columns[x + j], row);
+        }
+    }
+
+    @Override
+    public void writeRow(int y, int x, int count, double[] source, int sourceOffset) {
+        throw new UnsupportedOperationException("Выборка точек поверхности доступна только для чтения");
+    }
+
+    @Override
+    public Surface copy() {
+        DoubleSurface copy = new DoubleSurface(getWidth(), getHeight());
+        copyTo(copy);
+        return copy;
+    }
+}
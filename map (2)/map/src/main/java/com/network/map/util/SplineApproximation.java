@@ -0,0 +1,158 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+
+/**
+ * Аппроксимация карты сглаживающим бикубическим B-сплайном.
+ * <p>
+ * В отличие от одного полинома на всю строку, сплайн состоит
+ * из кубических кусков на segments интервалах и следует за несколькими
+ * пиками сигнала без повышения степени. Как и в {@link ApproximationUtils},
+ * сначала аппроксимируются строки карты, затем по столбцам - коэффициенты
+ * сплайнов строк. Системы уравнений ленточные ({@link SplineEquations}),
+ * поэтому аппроксимация линейна по размеру карты, а значение
+ * в каждой точке аппроксимирующей поверхности - сумма 16 слагаемых
+ */
+public class SplineApproximation implements SurfaceApproximation {
+    /**
+     * Коэффициент штрафа за кривизну по умолчанию.
+     * Малый штраф только устраняет вырожденность системы
+     * при большом кол-ве интервалов и почти не сглаживает
+     */
+    public static final double DEFAULT_SMOOTHING = 1e-3;
+
+    private final int width;
+    private final int height;
+    private final boolean parallel;
+    private final CubicBSpline rowSpline;
+    private final CubicBSpline columnSpline;
+    /**
+     * Коэффициенты: coefs[m][k] - коэффициент при B_m(y) * B_k(x)
+     */
+    private final double[][] coefs;
+
+    /**
+     * @param surface   Аппроксимируемая карта
+     * @param segments  Кол-во интервалов сплайна по каждой оси
+     * @param smoothing Коэффициент штрафа за кривизну
+     * @param parallel  Аппроксимировать параллельно
+     *                  (результат совпадает с однопоточным)
+     */
+    public SplineApproximation(Surface surface, int segments, double smoothing, boolean parallel) {
+        this.width = surface.getWidth();
+        this.height = surface.getHeight();
+        this.parallel = parallel;
+        SplineEquations rowEquations = new SplineEquations(width, segments, smoothing);
+        SplineEquations columnEquations = width == height
+                ? rowEquations
+                : new SplineEquations(height, segments, smoothing);
+        this.rowSpline = rowEquations.getSpline();
+        this.columnSpline = columnEquations.getSpline();
+
+        // rowsCoefs[k][i] - коэффициент при B_k(x) сплайна строки i
+        double[][] rowsCoefs = new double[rowSpline.getCount()][height];
+        ApproximationUtils.forEachRowBand(height, parallel, (fromRow, toRow) -> {
+            double[] row = new double[width];
+            for (int i = fromRow; i < toRow; i++) {
+                rowEquations.rightHandSide(surface.readRow(i, row), rowsCoefs, i);
+            }
+            rowEquations.solve(rowsCoefs, fromRow, toRow);
+        });
+
+        this.coefs = new double[columnSpline.getCount()][rowSpline.getCount()];
+        for (int k = 0; k < rowSpline.getCount(); k++) {
+            columnEquations.rightHandSide(rowsCoefs[k], coefs, k);
+        }
+        columnEquations.solve(coefs, 0, rowSpline.getCount());
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return (long) coefs.length * coefs[0].length * Double.BYTES;
+    }
+
+    /**
+     * Построить аппроксимирующую поверхность
+     *
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в карте
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public Surface approximate(int approximationScale, Surface approximatedSurface) {
+        if (approximatedSurface.getWidth() != width * approximationScale
+                || approximatedSurface.getHeight() != height * approximationScale) {
+            throw new IllegalArgumentException("Размеры аппроксимирующей поверхности не соответствуют масштабу");
+        }
+        int approximatedWidth = approximatedSurface.getWidth();
+        int[] first = new int[approximatedWidth];
+        double[] weights = new double[4 * approximatedWidth];
+        double[] w = new double[4];
+        for (int j = 0; j < approximatedWidth; j++) {
+            first[j] = rowSpline.weights(((double) j) / approximationScale, w);
+            System.arraycopy(w, 0, weights, 4 * j, 4);
+        }
+
+        ApproximationUtils.forEachRowBand(approximatedSurface.getHeight(), parallel, (fromRow, toRow) -> {
+            double[] columnWeights = new double[4];
+            double[] rowCoefs = new double[rowSpline.getCount()];
+            double[] approximatedRow = new double[approximatedWidth];
+            for (int i = fromRow; i < toRow; i++) {
+                rowCoefs(((double) i) / approximationScale, columnWeights, rowCoefs);
+                for (int j = 0; j < approximatedWidth; j++) {
+                    approximatedRow[j] = value(rowCoefs, first[j], weights, 4 * j);
+                }
+                approximatedSurface.writeRow(i, approximatedRow);
+            }
+        });
+        return approximatedSurface;
+    }
+
+    @Override
+    public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+        double[] weights = new double[4];
+        double[] rowCoefs = new double[rowSpline.getCount()];
+        rowCoefs(y, weights, rowCoefs);
+        for (int j = 0; j < count; j++) {
+            int first = rowSpline.weights(x + j * step, weights);
+            target[targetOffset + j] = value(rowCoefs, first, weights, 0);
+        }
+    }
+
+    /**
+     * Коэффициенты при B_k(x) сечения сплайна прямой y = const
+     */
+    private void rowCoefs(double y, double[] columnWeights, double[] rowCoefs) {
+        int m = columnSpline.weights(y, columnWeights);
+        double[] c0 = coefs[m];
+        double[] c1 = coefs[m + 1];
+        double[] c2 = coefs[m + 2];
+        double[] c3 = coefs[m + 3];
+        for (int k = 0; k < rowCoefs.length; k++) {
+            rowCoefs[k] = columnWeights[0] * c0[k] + columnWeights[1] * c1[k]
+                    + columnWeights[2] * c2[k] + columnWeights[3] * c3[k];
+        }
+    }
+
+    /**
+     * Значение сечения в точке, где отличны от нуля базисные функции
+     * first..first + 3 со значениями weights[offset..offset + 3]
+     */
+    private static double value(double[] rowCoefs, int first, double[] weights, int offset) {
+        return weights[offset] * rowCoefs[first] + weights[offset + 1] * rowCoefs[first + 1]
+                + weights[offset + 2] * rowCoefs[first + 2] + weights[offset + 3] * rowCoefs[first + 3];
+    }
+}
@@ -0,0 +1,98 @@
+package com.network.map.util;
+
+/**
+ * Система уравнений сглаживающего кубического B-сплайна
+ * по узлам 0..N-1: (B^T * B + smoothing * D^T * D) * c = B^T * y,
+ * где B - значения базисных функций в узлах, а D - вторые разности
+ * коэффициентов (штраф за кривизну).
+ * <p>
+ * Матрица системы ленточная (3 диагонали под главной), зависит
+ * только от узлов и раскладывается ({@link BandedCholeskySolver})
+ * один раз для всех аппроксимируемых строк (или столбцов).
+ * Свободные члены строки вычисляются за O(N), решение - за O(segments)
+ */
+final class SplineEquations {
+    private static final int BANDWIDTH = 3;
+
+    private final CubicBSpline spline;
+    /**
+     * Номер первой ненулевой базисной функции в каждом узле
+     */
+    private final int[] first;
+    /**
+     * Значения 4 ненулевых базисных функций в каждом узле: weights[4 * k + a]
+     */
+    private final double[] weights;
+    private final BandedCholeskySolver solver;
+
+    /**
+     * @param N         Кол-во узлов
+     * @param segments  Кол-во интервалов сплайна
+     * @param smoothing Коэффициент штрафа за кривизну
+     */
+    SplineEquations(int N, int segments, double smoothing) {
+        this.spline = new CubicBSpline(N - 1, segments);
+        this.first = new int[N];
+        this.weights = new double[4 * N];
+        int count = spline.getCount();
+        double[][] band = new double[count][BANDWIDTH + 1];
+        double[] w = new double[4];
+        for (int k = 0; k < N; k++) {
+            int s = spline.weights(k, w);
+            first[k] = s;
+            System.arraycopy(w, 0, weights, 4 * k, 4);
+            for (int a = 0; a < 4; a++) {
+                for (int b = 0; b <= a; b++) {
+                    band[s + a][a - b] += w[a] * w[b];
+                }
+            }
+        }
+        double[] difference = {1, -2, 1};
+        for (int r = 0; r + 2 < count; r++) {
+            for (int a = 0; a < 3; a++) {
+                for (int b = 0; b <= a; b++) {
+                    band[r + a][a - b] += smoothing * difference[a] * difference[b];
+                }
+            }
+        }
+        this.solver = new BandedCholeskySolver(band, BANDWIDTH);
+    }
+
+    CubicBSpline getSpline() {
+        return spline;
+    }
+
+    /**
+     * Вычислить свободные члены системы для значений y
+     * и записать их в столбец блока свободных членов
+     *
+     * @param y      Значения в узлах
+     * @param b      Блок свободных членов [кол-во базисных функций][кол-во систем]
+     * @param column Номер системы (столбца блока)
+     */
+    void rightHandSide(double[] y, double[][] b, int column) {
+        for (double[] bi : b) {
+            bi[column] = 0;
+        }
+        for (int k = 0; k < first.length; k++) {
+            int s = first[k];
+            double value = y[k];
+            b[s][column] += weights[4 * k] * value;
+            b[s + 1][column] += weights[4 * k + 1] * value;
+            b[s + 2][column] += weights[4 * k + 2] * value;
+            b[s + 3][column] += weights[4 * k + 3] * value;
+        }
+    }
+
+    /**
+     * Найти коэффициенты сплайнов для столбцов блока
+     * свободных членов [fromColumn; toColumn)
+     *
+     * @param b          Блок свободных членов [кол-во базисных функций][кол-во систем]
+     * @param fromColumn Первый столбец
+     * @param toColumn   Столбец, следующий за последним
+     */
+    void solve(double[][] b, int fromColumn, int toColumn) {
+        solver.solve(b, fromColumn, toColumn);
+    }
+}
@@ -0,0 +1,208 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+import lombok.Getter;
+
+import java.util.Random;
+
+/**
+ * Аппроксимация карты полиномом по выборке точек.
+ * <p>
+ * Из карты выбираются sampleColumns столбцов и sampleRows строк
+ * (случайно или по одному случайному из каждой полосы равной ширины),
+ * и полином строится по точкам на их пересечении
+ * ({@link OrthogonalApproximation} с полиномами, ортонормированными
+ * на координатах выбранных строк и столбцов). Время аппроксимации
+ * зависит только от размера выборки, а не от размера карты.
+ * <p>
+ * СКО оценивается по отложенной выборке случайных точек,
+ * не входящих в выборку аппроксимации, вместе с доверительным
+ * интервалом уровня 95% (по центральной предельной теореме
+ * для среднего квадрата отклонения)
+ */
+@Getter
+public class SubsampledApproximation implements SurfaceApproximation {
+    /**
+     * Размер выборки строк и столбцов по умолчанию
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 256;
+    /**
+     * Размер отложенной выборки по умолчанию
+     */
+    public static final int DEFAULT_HOLDOUT_SIZE = 10_000;
+    /**
+     * Начальное значение генератора по умолчанию,
+     * чтобы повторная аппроксимация давала тот же результат
+     */
+    public static final long DEFAULT_SEED = 1;
+    /**
+     * Квантиль нормального распределения для доверительного интервала 95%
+     */
+    private static final double CONFIDENCE_QUANTILE = 1.96;
+
+    private final int width;
+    private final int height;
+    private final Sampling sampling;
+    private final int[] sampleColumns;
+    private final int[] sampleRows;
+    private final OrthogonalApproximation approximation;
+    /**
+     * Кол-во точек отложенной выборки
+     */
+    private final int holdoutSize;
+    /**
+     * Оценка СКО по отложенной выборке
+     */
+    private final double sko;
+    /**
+     * Нижняя граница доверительного интервала СКО
+     */
+    private final double skoLower;
+    /**
+     * Верхняя граница доверительного интервала СКО
+     */
+    private final double skoUpper;
+
+    /**
+     * @param surface          Аппроксимируемая карта
+     * @param approximationPow Степень полинома
+     * @param sampleColumns    Кол-во столбцов выборки (не больше ширины карты)
+     * @param sampleRows       Кол-во строк выборки (не больше высоты карты)
+     * @param holdoutSize      Размер отложенной выборки
+     * @param sampling         Способ выбора строк и столбцов
+     * @param seed             Начальное значение генератора случайных чисел
+     */
+    public SubsampledApproximation(Surface surface, int approximationPow, int sampleColumns, int sampleRows,
+                                   int holdoutSize, Sampling sampling, long seed) {
+        this.width = surface.getWidth();
+        this.height = surface.getHeight();
+        if (sampleColumns <= approximationPow || sampleRows <= approximationPow
+                || sampleColumns > width || sampleRows > height || holdoutSize < 0) {
+            throw new IllegalArgumentException("Некорректный размер выборки");
+        }
+        this.sampling = sampling;
+        Random random = new Random(seed);
+        this.sampleColumns = sampling.select(width, sampleColumns, random);
+        this.sampleRows = sampling.select(height, sampleRows, random);
+        this.approximation = new OrthogonalApproximation(
+                new SampledSurface(surface, this.sampleColumns, this.sampleRows), 0, 0,
+                sampleColumns, sampleRows,
+                new OrthogonalPolynomials(toDouble(this.sampleColumns), approximationPow),
+                new OrthogonalPolynomials(toDouble(this.sampleRows), approximationPow),
+                approximationPow, false
+        );
+
+        boolean[] isSampleColumn = new boolean[width];
+        for (int x : this.sampleColumns) {
+            isSampleColumn[x] = true;
+        }
+        boolean[] isSampleRow = new boolean[height];
+        for (int y : this.sampleRows) {
+            isSampleRow[y] = true;
+        }
+        long available = (long) width * height - (long) sampleColumns * sampleRows;
+        int count = (int) Math.min(holdoutSize, available);
+        this.holdoutSize = count;
+        double sum = 0;
+        double sumOfSquares = 0;
+        double[] value = new double[1];
+        for (int i = 0; i < count; ) {
+            int x = random.nextInt(width);
+            int y = random.nextInt(height);
+            if (isSampleColumn[x] && isSampleRow[y]) continue;
+            approximation.evaluate(y, x, 0, 1, value, 0);
+            double error = value[0] - surface.get(x, y);
+            double squaredError = error * error;
+            sum += squaredError;
+            sumOfSquares += squaredError * squaredError;
+            i++;
+        }
+        double mse = count > 0 ? sum / count : 0;
+        double variance = count > 1 ? Math.max(0, (sumOfSquares - sum * mse) / (count - 1)) : 0;
+        double halfWidth = count > 0 ? CONFIDENCE_QUANTILE * Math.sqrt(variance / count) : 0;
+        this.sko = Math.sqrt(mse);
+        this.skoLower = Math.sqrt(Math.max(0, mse - halfWidth));
+        this.skoUpper = Math.sqrt(mse + halfWidth);
+    }
+
+    private static double[] toDouble(int[] values) {
+        double[] result = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i];
+        }
+        return result;
+    }
+
+    /**
+     * Коэффициенты аппроксимации в базисе полиномов,
+     * ортонормированных на выбранных строках и столбцах
+     *
+     * @return Копия коэффициентов: [m][k] - коэффициент при r_m(y) * q_k(x)
+     */
+    public double[][] getCoefs() {
+        return approximation.getCoefs();
+    }
+
+    @Override
+    public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+        approximation.evaluate(y, x, step, count, target, targetOffset);
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return approximation.getSizeInBytes() + (long) (sampleColumns.length + sampleRows.length) * Integer.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("СКО по %1$d точкам: %2$,.5f [%3$,.5f; %4$,.5f]", holdoutSize, sko, skoLower, skoUpper);
+    }
+
+    /**
+     * Способ выбора строк (столбцов) выборки
+     */
+    public enum Sampling {
+        /**
+         * Случайные строки без повторений
+         */
+        RANDOM {
+            @Override
+            int[] select(int N, int count, Random random) {
+                // Выборка Флойда: count различных чисел из [0; N)
+                boolean[] selected = new boolean[N];
+                for (int j = N - count; j < N; j++) {
+                    int t = random.nextInt(j + 1);
+                    selected[selected[t] ? j : t] = true;
+                }
+                int[] result = new int[count];
+                for (int i = 0, k = 0; i < N; i++) {
+                    if (selected[i]) {
+                        result[k++] = i;
+                    }
+                }
+                return result;
+            }
+        },
+        /**
+         * По одной случайной строке из каждой
+         * из count полос равной ширины
+         */
+        STRATIFIED {
+            @Override
+            int[] select(int N, int count, Random random) {
+                int[] result = new int[count];
+                for (int i = 0; i < count; i++) {
+                    int from = (int) ((long) i * N / count);
+                    int to = (int) ((long) (i + 1) * N / count);
+                    result[i] = from + random.nextInt(to - from);
+                }
+                return result;
+            }
+        };
+
+        /**
+         * Выбрать count различных номеров из [0; N) по возрастанию
+         */
+        abstract int[] select(int N, int count, Random random);
+    }
+}
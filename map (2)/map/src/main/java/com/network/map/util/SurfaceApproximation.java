@@ -0,0 +1,39 @@
+package com.network.map.util;
+
+import java.io.Serializable;
+
+/**
+ * Построенная аппроксимация карты, хранящая только коэффициенты.
+ * Значения вычисляются по запросу в произвольных точках
+ * в координатах карты (в том числе между узлами),
+ * см. {@link ApproximatedSurface}. Аппроксимация не ссылается
+ * на карту, поэтому ее можно хранить в кэше и сериализовать
+ */
+public interface SurfaceApproximation extends Serializable {
+    /**
+     * @return Ширина аппроксимированной карты
+     */
+    int getWidth();
+
+    /**
+     * @return Высота аппроксимированной карты
+     */
+    int getHeight();
+
+    /**
+     * @return Объем коэффициентов и таблиц аппроксимации в памяти, байт
+     */
+    long getSizeInBytes();
+
+    /**
+     * Значения аппроксимации в точках {x + j * step; y}, j = 0..count-1
+     *
+     * @param y            Координата y точек
+     * @param x            Координата x первой точки
+     * @param step         Шаг по x
+     * @param count        Кол-во точек
+     * @param target       Массив значений
+     * @param targetOffset Индекс первого значения в target
+     */
+    void evaluate(double y, double x, double step, int count, double[] target, int targetOffset);
+}
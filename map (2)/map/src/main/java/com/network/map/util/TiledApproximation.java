@@ -0,0 +1,321 @@
+package com.network.map.util;
+
+import com.network.map.surface.Surface;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Аппроксимация карты локальными полиномами невысокой степени.
+ * <p>
+ * Карта делится на тайлы размером tileSize. Для каждого тайла
+ * строится аппроксимация {@link OrthogonalApproximation} окна
+ * между центрами соседних тайлов, расширенного на overlap.
+ * Значения соседних аппроксимаций смешиваются разбиением единицы:
+ * по каждой оси вес тайла равен cos^2 от расстояния до центра тайла
+ * (в долях tileSize * pi / 2), поэтому сумма весов двух соседних
+ * тайлов равна 1 и швы между тайлами гладкие.
+ * <p>
+ * Тайлы аппроксимируются независимо, поэтому время и память
+ * растут линейно с площадью карты
+ */
+public class TiledApproximation implements SurfaceApproximation {
+    /**
+     * Размер тайла по умолчанию
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+    /**
+     * Перекрытие окон аппроксимации по умолчанию
+     */
+    public static final int DEFAULT_OVERLAP = 16;
+
+    private final int width;
+    private final int height;
+    private final int tileSize;
+    private final int coefsCount;
+    private final int columns;
+    private final int rows;
+    private final boolean parallel;
+    private final int[] windowX0;
+    private final int[] windowY0;
+    /**
+     * Аппроксимации тайлов: tiles[ty * columns + tx]
+     */
+    private final OrthogonalApproximation[] tiles;
+    private final int[] tilePows;
+
+    /**
+     * @param surface  Аппроксимируемая карта
+     * @param tileSize Размер тайла
+     * @param overlap  Перекрытие окон аппроксимации соседних тайлов
+     * @param pow      Степень полиномов тайлов (для маленьких окон
+     *                 уменьшается до кол-ва точек окна - 1)
+     * @param parallel Аппроксимировать тайлы параллельно
+     *                 (результат совпадает с однопоточным)
+     */
+    public TiledApproximation(Surface surface, int tileSize, int overlap, int pow, boolean parallel) {
+        if (tileSize <= 0 || overlap < 0 || pow < 0) {
+            throw new IllegalArgumentException("Некорректные параметры аппроксимации тайлами");
+        }
+        this.width = surface.getWidth();
+        this.height = surface.getHeight();
+        this.tileSize = tileSize;
+        this.parallel = parallel;
+        this.columns = Math.max(1, (width + tileSize - 1) / tileSize);
+        this.rows = Math.max(1, (height + tileSize - 1) / tileSize);
+        this.windowX0 = new int[columns];
+        int[] windowWidth = new int[columns];
+        for (int tx = 0; tx < columns; tx++) {
+            windowX0[tx] = Math.max(0, windowStart(tx) - overlap);
+            windowWidth[tx] = Math.min(width, windowStart(tx + 2) + 1 + overlap) - windowX0[tx];
+        }
+        this.windowY0 = new int[rows];
+        int[] windowHeight = new int[rows];
+        for (int ty = 0; ty < rows; ty++) {
+            windowY0[ty] = Math.max(0, windowStart(ty) - overlap);
+            windowHeight[ty] = Math.min(height, windowStart(ty + 2) + 1 + overlap) - windowY0[ty];
+        }
+
+        // Полиномы зависят только от размера окна и строятся
+        // заранее, чтобы тайлы использовали их одновременно
+        Map<Integer, OrthogonalPolynomials> polynomials = new HashMap<>();
+        this.tilePows = new int[columns * rows];
+        for (int ty = 0; ty < rows; ty++) {
+            for (int tx = 0; tx < columns; tx++) {
+                int tilePow = Math.min(pow, Math.min(windowWidth[tx], windowHeight[ty]) - 1);
+                tilePows[ty * columns + tx] = tilePow;
+                polynomials(polynomials, windowWidth[tx], tilePow);
+                polynomials(polynomials, windowHeight[ty], tilePow);
+            }
+        }
+
+        int maxPow = 0;
+        for (int tilePow : tilePows) {
+            maxPow = Math.max(maxPow, tilePow);
+        }
+        this.coefsCount = maxPow + 1;
+
+        this.tiles = new OrthogonalApproximation[columns * rows];
+        ApproximationUtils.forEachRowBand(tiles.length, 1, parallel, (fromTile, toTile) -> {
+            for (int tile = fromTile; tile < toTile; tile++) {
+                int tx = tile % columns;
+                int ty = tile / columns;
+                tiles[tile] = new OrthogonalApproximation(surface, windowX0[tx], windowY0[ty],
+                        windowWidth[tx], windowHeight[ty],
+                        polynomials.get(windowWidth[tx]), polynomials.get(windowHeight[ty]),
+                        tilePows[tile], false);
+            }
+        });
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        // Полиномы общие для тайлов с одинаковым размером окна
+        Set<OrthogonalPolynomials> polynomials = Collections.newSetFromMap(new IdentityHashMap<>());
+        long size = (long) (windowX0.length + windowY0.length + tilePows.length) * Integer.BYTES;
+        for (OrthogonalApproximation tile : tiles) {
+            size += tile.getCoefsSizeInBytes();
+            polynomials.add(tile.getRowPolynomials());
+            polynomials.add(tile.getColumnPolynomials());
+        }
+        for (OrthogonalPolynomials polynomial : polynomials) {
+            size += polynomial.getSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * Начало области, где вес тайла tile отличен от нуля:
+     * центр предыдущего тайла (tile - 0.5) * tileSize
+     */
+    private int windowStart(int tile) {
+        return (int) Math.floor((tile - 0.5) * tileSize);
+    }
+
+    private static void polynomials(Map<Integer, OrthogonalPolynomials> polynomials, int N, int pow) {
+        OrthogonalPolynomials existing = polynomials.get(N);
+        if (existing == null) {
+            polynomials.put(N, new OrthogonalPolynomials(ApproximationUtils.createAbscissas(N), pow));
+        } else {
+            existing.extend(pow);
+        }
+    }
+
+    /**
+     * Построить аппроксимирующую поверхность
+     *
+     * @param approximationScale  Множитель, показывающий во сколько
+     *                            раз кол-во точек на аппроксимирующей
+     *                            поверхности будет больше, чем было
+     *                            в карте
+     * @param approximatedSurface Поверхность размером в approximationScale
+     *                            раз больше карты
+     * @return Аппроксимирующая поверхность approximatedSurface
+     */
+    public Surface approximate(int approximationScale, Surface approximatedSurface) {
+        if (approximatedSurface.getWidth() != width * approximationScale
+                || approximatedSurface.getHeight() != height * approximationScale) {
+            throw new IllegalArgumentException("Размеры аппроксимирующей поверхности не соответствуют масштабу");
+        }
+        int approximatedWidth = approximatedSurface.getWidth();
+        ColumnPlan plan = new ColumnPlan(0, 1.0 / approximationScale, approximatedWidth);
+        ApproximationUtils.forEachRowBand(approximatedSurface.getHeight(), parallel, (fromRow, toRow) -> {
+            RowBuffers buffers = new RowBuffers(approximatedWidth);
+            double[] approximatedRow = new double[approximatedWidth];
+            for (int i = fromRow; i < toRow; i++) {
+                evaluateRow(((double) i) / approximationScale, plan, approximatedRow, 0, buffers);
+                approximatedSurface.writeRow(i, approximatedRow);
+            }
+        });
+        return approximatedSurface;
+    }
+
+    @Override
+    public void evaluate(double y, double x, double step, int count, double[] target, int targetOffset) {
+        evaluateRow(y, new ColumnPlan(x, step, count), target, targetOffset, new RowBuffers(count));
+    }
+
+    /**
+     * Значения в точках строки y, заданных планом столбцов
+     */
+    private void evaluateRow(double y, ColumnPlan plan, double[] target, int targetOffset, RowBuffers buffers) {
+        Arrays.fill(target, targetOffset, targetOffset + plan.count, 0);
+        int firstRow = blend(y, rows, buffers.rowBlend);
+        for (int r = 0; r < 2; r++) {
+            double weightY = buffers.rowBlend[r];
+            if (weightY == 0) continue;
+            int ty = firstRow + r;
+            for (int tx = plan.fromTile; tx < plan.toTile; tx++) {
+                double[] x = plan.localX[tx - plan.fromTile];
+                if (x.length == 0) continue;
+                int tile = ty * columns + tx;
+                int pow = tilePows[tile];
+                tiles[tile].rowCoefs(y - windowY0[ty], pow, buffers.columnValues, buffers.rowCoefs);
+                for (int k = 0; k <= pow; k++) {
+                    buffers.rowCoefs[k] *= weightY;
+                }
+                tiles[tile].evaluateRow(buffers.rowCoefs, pow, x, buffers.tileRow, buffers.workspace);
+                double[] weights = plan.weights[tx - plan.fromTile];
+                int from = targetOffset + plan.from[tx - plan.fromTile];
+                for (int j = 0; j < x.length; j++) {
+                    target[from + j] += weights[j] * buffers.tileRow[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Веса двух соседних тайлов в точке t по одной оси
+     *
+     * @param t       Координата точки
+     * @param count   Кол-во тайлов по оси
+     * @param weights Веса тайлов first и first + 1
+     * @return Номер первого тайла first
+     */
+    private int blend(double t, int count, double[] weights) {
+        double u = t / tileSize - 0.5;
+        int first = (int) Math.floor(u);
+        if (first < 0) {
+            weights[0] = 1;
+            weights[1] = 0;
+            return 0;
+        }
+        if (first >= count - 1) {
+            weights[0] = 1;
+            weights[1] = 0;
+            return count - 1;
+        }
+        double c = Math.cos((u - first) * Math.PI / 2);
+        weights[0] = c * c;
+        weights[1] = 1 - c * c;
+        return first;
+    }
+
+    /**
+     * Для точек строки {x + j * step}, j = 0..count-1, и каждого столбца
+     * тайлов - диапазон точек с ненулевым весом тайла, их абсциссы
+     * в координатах окна тайла и веса
+     */
+    private class ColumnPlan {
+        private final int count;
+        private final int fromTile;
+        private final int toTile;
+        private final int[] from;
+        private final double[][] localX;
+        private final double[][] weights;
+
+        ColumnPlan(double x, double step, int count) {
+            this.count = count;
+            double[] blend = new double[2];
+            int fromTile = columns;
+            int toTile = 0;
+            for (int j = 0; j < count; j += Math.max(1, count - 1)) {
+                int first = blend(x + j * step, columns, blend);
+                fromTile = Math.min(fromTile, first);
+                toTile = Math.max(toTile, Math.min(columns, first + 2));
+            }
+            this.fromTile = Math.min(fromTile, toTile);
+            this.toTile = toTile;
+
+            int tilesCount = this.toTile - this.fromTile;
+            this.from = new int[tilesCount];
+            int[] to = new int[tilesCount];
+            Arrays.fill(from, count);
+            for (int j = 0; j < count; j++) {
+                int first = blend(x + j * step, columns, blend) - this.fromTile;
+                for (int c = 0; c < 2; c++) {
+                    if (blend[c] == 0) continue;
+                    from[first + c] = Math.min(from[first + c], j);
+                    to[first + c] = j + 1;
+                }
+            }
+            this.localX = new double[tilesCount][];
+            this.weights = new double[tilesCount][];
+            for (int t = 0; t < tilesCount; t++) {
+                int tileCount = Math.max(0, to[t] - from[t]);
+                localX[t] = new double[tileCount];
+                weights[t] = new double[tileCount];
+            }
+            for (int j = 0; j < count; j++) {
+                double xj = x + j * step;
+                int first = blend(xj, columns, blend) - this.fromTile;
+                for (int c = 0; c < 2; c++) {
+                    if (blend[c] == 0) continue;
+                    int t = first + c;
+                    localX[t][j - from[t]] = xj - windowX0[this.fromTile + t];
+                    weights[t][j - from[t]] = blend[c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Буферы вычисления строки
+     */
+    private class RowBuffers {
+        private final double[] rowBlend = new double[2];
+        private final double[] columnValues = new double[coefsCount];
+        private final double[] rowCoefs = new double[coefsCount];
+        private final double[] tileRow;
+        private final double[][] workspace;
+
+        RowBuffers(int count) {
+            this.tileRow = new double[count];
+            this.workspace = new double[2][count];
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.network.map;
+
+import com.network.map.surface.Surface;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.network.map.NetworkMapImplTest.assertSameAsGenerated;
+import static com.network.map.NetworkMapImplTest.assertSameSurface;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class MapManagerTest {
+
+    @Test
+    void snapshotFollowsEditsAndSharedSnapshotIsNotChanged() {
+        MapManager mapManager = new MapManager();
+        mapManager.generate(MapGenerationConfig.builder()
+                .surfaceWidth(300)
+                .surfaceHeight(200)
+                .signals(MapGenerationConfig.randomSignals(300, 200, 6, 10, 0.05, 0.3, new Random(5)))
+                .build());
+        NetworkMapImpl map = (NetworkMapImpl) mapManager.getMap();
+
+        mapManager.addSignal(new MapGenerationConfig.Signal(150, 100, 12.0, 0.1));
+        mapManager.moveSignal(map.getSignals().get(0), 10, 190);
+        mapManager.removeSignal(map.getSignals().get(2));
+        Surface shared = mapManager.getGeneratedSurface();
+        assertSameAsGenerated(map);
+        assertSameSurface(map.getSurfaceData(), shared);
+        Surface sharedValues = shared.copy();
+
+        mapManager.moveSignal(map.getSignals().get(1), 299, 0);
+        Surface current = mapManager.getGeneratedSurface();
+        assertNotSame(shared, current);
+        assertSameSurface(sharedValues, shared);
+        assertSameAsGenerated(map);
+        assertSameSurface(map.getSurfaceData(), current);
+    }
+}
@@ -0,0 +1,118 @@
+package com.network.map;
+
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.genstrategy.GenerateSimpleStrategy;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetworkMapImplTest {
+
+    @Test
+    void loadsMapSavedAsMatrix(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("map.txt");
+        try (InputStream legacy = getClass().getResourceAsStream("/map.txt")) {
+            Files.copy(legacy, file);
+        }
+
+        NetworkMapImpl map = new NetworkMapImpl();
+        map.loadFromFile(file.toString());
+
+        Surface surface = map.getSurfaceData();
+        assertEquals(map.getSurfaceWidth(), surface.getWidth());
+        assertEquals(map.getSurfaceHeight(), surface.getHeight());
+        assertEquals(SurfacePrecision.DOUBLE, map.getMapGenerationConfig().getSurfacePrecision());
+        assertTrue(map.getGenerateStrategy() instanceof GenerateSimpleStrategy);
+        MapGenerationConfig.Signal signal = map.getSignals().get(0);
+        assertTrue(surface.get(signal.getX(), signal.getY()) > 0);
+    }
+
+    @Test
+    void savedMapIsLoadedUnchanged(@TempDir Path dir) {
+        MapGenerationConfig config = MapGenerationConfig.builder()
+                .surfaceWidth(40)
+                .surfaceHeight(30)
+                .signals(MapGenerationConfig.randomSignals(40, 30, 4, 10, 0.05, 0.5, new Random(3)))
+                .build();
+        NetworkMapImpl saved = new NetworkMapImpl(new GenerateClosedFormStrategy());
+        saved.generate(config);
+        String path = dir.resolve("saved.txt").toString();
+        saved.saveToFile(path);
+
+        NetworkMapImpl loaded = new NetworkMapImpl();
+        loaded.loadFromFile(path);
+
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 40; x++) {
+                assertEquals(saved.getSurfaceData().get(x, y), loaded.getSurfaceData().get(x, y));
+            }
+        }
+        assertEquals(4, loaded.getSignals().size());
+        assertTrue(loaded.getGenerateStrategy() instanceof GenerateClosedFormStrategy);
+    }
+
+    @Test
+    void failedLoadKeepsCurrentMap(@TempDir Path dir) {
+        NetworkMapImpl map = new NetworkMapImpl();
+        Surface surface = map.getSurfaceData();
+
+        assertThrows(RuntimeException.class, () -> map.loadFromFile(dir.resolve("missing.txt").toString()));
+        assertSame(surface, map.getSurfaceData());
+    }
+
+    @Test
+    void incrementalEditsMatchFullGeneration() {
+        MapGenerationConfig config = MapGenerationConfig.builder()
+                .surfaceWidth(300)
+                .surfaceHeight(200)
+                .signals(MapGenerationConfig.randomSignals(300, 200, 6, 10, 0.05, 0.3, new Random(5)))
+                .build();
+        NetworkMapImpl map = new NetworkMapImpl(new GenerateClosedFormStrategy());
+        map.generate(config);
+
+        map.addSignal(new MapGenerationConfig.Signal(150, 100, 12.0, 0.1));
+        assertSameAsGenerated(map);
+        map.moveSignal(map.getSignals().get(0), 10, 190);
+        assertSameAsGenerated(map);
+        map.removeSignal(map.getSignals().get(2));
+        assertSameAsGenerated(map);
+        map.moveSignal(map.getSignals().get(map.getSignals().size() - 1), 299, 0);
+        assertSameAsGenerated(map);
+        map.removeSignal(map.getSignals().get(map.getSignals().size() - 1));
+        assertSameAsGenerated(map);
+    }
+
+    static void assertSameAsGenerated(NetworkMapImpl map) {
+        MapGenerationConfig config = map.getMapGenerationConfig();
+        MapGenerationConfig copy = MapGenerationConfig.builder()
+                .surfaceWidth(config.getSurfaceWidth())
+                .surfaceHeight(config.getSurfaceHeight())
+                .signals(new ArrayList<>(config.getSignals()))
+                .build();
+        assertSameSurface(new NetworkMapImpl(new GenerateClosedFormStrategy()).generate(copy).getSurfaceData(),
+                map.getSurfaceData());
+    }
+
+    static void assertSameSurface(Surface expected, Surface actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.get(x, y), actual.get(x, y), "x=" + x + ", y=" + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.network.map.experiment;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.NetworkMapImpl;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.surface.Surface;
+import com.network.map.surface.SurfacePrecision;
+import com.network.map.util.ApproximationMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ExperimentPointTest {
+
+    @Test
+    void sameParametersGiveSameMap() {
+        MapGenerationConfig first = point(100, 5, ApproximationMethod.ORTHOGONAL)
+                .createMapGenerationConfig(7, SurfacePrecision.DOUBLE);
+        MapGenerationConfig second = point(100, 5, ApproximationMethod.SPLINE)
+                .createMapGenerationConfig(7, SurfacePrecision.DOUBLE);
+
+        assertSameSignals(first.getSignals(), second.getSignals());
+        Surface firstMap = new NetworkMapImpl(new GenerateClosedFormStrategy()).generate(first).getSurfaceData();
+        Surface secondMap = new NetworkMapImpl(new GenerateClosedFormStrategy()).generate(second).getSurfaceData();
+        for (int y = 0; y < firstMap.getHeight(); y++) {
+            for (int x = 0; x < firstMap.getWidth(); x++) {
+                assertEquals(firstMap.get(x, y), secondMap.get(x, y));
+            }
+        }
+    }
+
+    /**
+     * Расстановка источников не зависит от запуска JVM
+     */
+    @Test
+    void signalsDoNotDependOnJvmRun() {
+        List<MapGenerationConfig.Signal> signals = point(100, 3, ApproximationMethod.ORTHOGONAL)
+                .createMapGenerationConfig(7, SurfacePrecision.DOUBLE)
+                .getSignals();
+
+        assertEquals(79, signals.get(0).getX());
+        assertEquals(59, signals.get(0).getY());
+        assertEquals(8.590058580635423, signals.get(0).getPikeValue());
+        assertEquals(0.07850030047539769, signals.get(0).getDegradationSpeed());
+    }
+
+    @Test
+    void differentSeedsGiveDifferentMaps() {
+        MapGenerationConfig first = point(100, 5, ApproximationMethod.ORTHOGONAL)
+                .createMapGenerationConfig(7, SurfacePrecision.DOUBLE);
+        MapGenerationConfig second = point(100, 5, ApproximationMethod.ORTHOGONAL)
+                .createMapGenerationConfig(8, SurfacePrecision.DOUBLE);
+
+        assertNotEquals(first.getSignals().get(0).getPikeValue(), second.getSignals().get(0).getPikeValue());
+    }
+
+    private static ExperimentPoint point(int mapSize, int signalsCount, ApproximationMethod method) {
+        Map<ExperimentParameter, Double> values = new EnumMap<>(ExperimentParameter.class);
+        values.put(ExperimentParameter.MAP_SIZE, (double) mapSize);
+        values.put(ExperimentParameter.SIGNALS_COUNT, (double) signalsCount);
+        return new ExperimentPoint(values, method);
+    }
+
+    private static void assertSameSignals(List<MapGenerationConfig.Signal> expected,
+                                          List<MapGenerationConfig.Signal> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getX(), actual.get(i).getX());
+            assertEquals(expected.get(i).getY(), actual.get(i).getY());
+            assertEquals(expected.get(i).getPikeValue(), actual.get(i).getPikeValue());
+            assertEquals(expected.get(i).getDegradationSpeed(), actual.get(i).getDegradationSpeed());
+        }
+    }
+}
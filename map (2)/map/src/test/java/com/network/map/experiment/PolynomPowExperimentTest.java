@@ -0,0 +1,116 @@
+package com.network.map.experiment;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+import com.network.map.util.ApproximationMethod;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PolynomPowExperimentTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reportsAllPows() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        PolynomPowExperiment experiment = new PolynomPowExperiment(ApproximationMethod.MONOMIAL, 1, 3,
+                executor, listener);
+
+        experiment.start(surface(8, 8));
+
+        assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+        assertEquals(3, listener.results.size());
+        assertNull(listener.error.get());
+        assertFalse(listener.cancelled);
+    }
+
+    @Test
+    void tooHighPowIsReportedAsError() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        PolynomPowExperiment experiment = new PolynomPowExperiment(ApproximationMethod.ORTHOGONAL, 2, 8,
+                executor, listener);
+
+        experiment.start(surface(8, 16));
+
+        assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+        assertTrue(listener.error.get() instanceof IllegalArgumentException);
+        assertTrue(listener.results.isEmpty());
+        assertFalse(listener.cancelled);
+        assertTrue(experiment.isFinished());
+    }
+
+    @Test
+    void checkSurfaceSizeRejectsTooHighPow() {
+        PolynomPowExperiment experiment = new PolynomPowExperiment(ApproximationMethod.ORTHOGONAL, 2, 8,
+                executor, new RecordingListener());
+
+        experiment.checkSurfaceSize(9, 9);
+        assertThrows(IllegalArgumentException.class, () -> experiment.checkSurfaceSize(8, 16));
+    }
+
+    @Test
+    void failureBeforeStartFinishesExperiment() throws InterruptedException {
+        RecordingListener listener = new RecordingListener();
+        PolynomPowExperiment experiment = new PolynomPowExperiment(ApproximationMethod.MONOMIAL, 1, 3,
+                executor, listener);
+        RuntimeException failure = new RuntimeException("Карта не сгенерирована");
+
+        experiment.fail(failure);
+
+        assertTrue(listener.finished.await(10, TimeUnit.SECONDS));
+        assertEquals(failure, listener.error.get());
+        assertEquals(failure, experiment.getError());
+        assertTrue(listener.results.isEmpty());
+    }
+
+    private static Surface surface(int width, int height) {
+        Surface surface = new DoubleSurface(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                surface.set(x, y, Math.sin(x * 0.3) + Math.cos(y * 0.2));
+            }
+        }
+        return surface;
+    }
+
+    private static class RecordingListener implements PolynomPowExperiment.Listener {
+        final Map<Integer, Double> results = new ConcurrentHashMap<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch finished = new CountDownLatch(1);
+        volatile boolean cancelled;
+
+        @Override
+        public void onResult(int approximationPow, double sko) {
+            results.put(approximationPow, sko);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error.set(error);
+        }
+
+        @Override
+        public void onFinished(boolean cancelled) {
+            this.cancelled = cancelled;
+            finished.countDown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.network.map.genstrategy;
+
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+import org.junit.jupiter.api.Test;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChamferHoleFillerTest {
+
+    @Test
+    void fillsHoleThatTurnsBack() {
+        // Провал идет вверх по левому столбцу и возвращается вниз по правому,
+        // стенка между ними не распространяет значение (0.5 - 1 < 0)
+        double[][] matrix = new double[7][3];
+        for (int y = 1; y < 7; y++) {
+            matrix[y][1] = 0.5;
+        }
+        matrix[6][0] = 20;
+        Surface surface = DoubleSurface.fromArray(matrix);
+
+        ChamferHoleFiller.fill(surface, false);
+
+        assertSameSurface(reference(DoubleSurface.fromArray(matrix)), surface);
+        assertEquals(8, surface.get(2, 6));
+    }
+
+    @Test
+    void fillsWindingHolesLikeShortestPaths() {
+        // Провалы занимают большую часть карты и образуют связные невыпуклые области,
+        // высота больше полосы строк, поэтому полосы обрабатываются с перекрытием
+        double[][] matrix = randomHoles(300, 700, 0.75, 3);
+
+        Surface expected = reference(DoubleSurface.fromArray(matrix));
+        Surface sequential = DoubleSurface.fromArray(matrix);
+        ChamferHoleFiller.fill(sequential, false);
+        Surface parallel = DoubleSurface.fromArray(matrix);
+        ChamferHoleFiller.fill(parallel, true);
+
+        assertSameSurface(expected, sequential);
+        assertSameSurface(expected, parallel);
+    }
+
+    /**
+     * Заполнение провалов поиском кратчайших путей: значение провала -
+     * максимум по непроваленным точкам (значение точки - длина пути
+     * до нее через провалы), но не меньше 0
+     */
+    private static Surface reference(Surface surface) {
+        int width = surface.getWidth();
+        int height = surface.getHeight();
+        boolean[] holes = new boolean[width * height];
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(b[0], a[0]));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                holes[y * width + x] = surface.get(x, y) == 0;
+                if (!holes[y * width + x]) {
+                    queue.add(new double[]{surface.get(x, y), x, y});
+                }
+            }
+        }
+        while (!queue.isEmpty()) {
+            double[] point = queue.poll();
+            double value = point[0] - 1;
+            if (value <= 0) break;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int x = (int) point[1] + dx;
+                    int y = (int) point[2] + dy;
+                    if (x < 0 || y < 0 || x >= width || y >= height || !holes[y * width + x]) continue;
+                    if (value > surface.get(x, y)) {
+                        surface.set(x, y, value);
+                        queue.add(new double[]{value, x, y});
+                    }
+                }
+            }
+        }
+        return surface;
+    }
+
+    private static double[][] randomHoles(int width, int height, double holesShare, long seed) {
+        Random random = new Random(seed);
+        double[][] matrix = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (random.nextDouble() >= holesShare) {
+                    matrix[y][x] = random.nextInt(4) == 0 ? 1 + random.nextDouble() * 20 : random.nextDouble();
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static void assertSameSurface(Surface expected, Surface actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.get(x, y), actual.get(x, y), "x=" + x + ", y=" + y);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.network.map.genstrategy;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.surface.DoubleSurface;
+import com.network.map.surface.Surface;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GenerateClosedFormStrategyTest {
+
+    @Test
+    void parallelGenerationIsBitIdentical() {
+        MapGenerationConfig config = config(517, 389, 40, 7);
+
+        Surface sequential = new GenerateClosedFormStrategy(false).generate(new DoubleSurface(517, 389), config);
+        Surface parallel = new GenerateClosedFormStrategy(true).generate(new DoubleSurface(517, 389), config);
+
+        assertBitIdentical(sequential, parallel);
+    }
+
+    @Test
+    void parallelContributorsMatchSequential() {
+        MapGenerationConfig config = config(300, 450, 25, 11);
+        int[] sequentialContributors = new int[300 * 450];
+        int[] parallelContributors = new int[300 * 450];
+
+        Surface sequential = new GenerateClosedFormStrategy(false)
+                .generate(new DoubleSurface(300, 450), sequentialContributors, config);
+        Surface parallel = new GenerateClosedFormStrategy(true)
+                .generate(new DoubleSurface(300, 450), parallelContributors, config);
+
+        assertBitIdentical(sequential, parallel);
+        assertArrayEquals(sequentialContributors, parallelContributors);
+    }
+
+    @Test
+    void culledGenerationMatchesAllSignalsAtEveryPoint() {
+        MapGenerationConfig config = config(400, 300, 2000, 3);
+        config.getSignals().add(new MapGenerationConfig.Signal(-30, 150, 8.0, 0.1));
+        config.getSignals().add(new MapGenerationConfig.Signal(420, -10, 6.0, 0.05));
+        config.getSignals().add(new MapGenerationConfig.Signal(200, 150, 0.5, 0.0));
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            Surface culled = new GenerateClosedFormStrategy(parallel).generate(new DoubleSurface(400, 300), config);
+            assertBitIdentical(bruteForce(config), culled);
+        }
+    }
+
+    /**
+     * Уровень сигнала в каждой точке по всем источникам без индекса
+     */
+    private static Surface bruteForce(MapGenerationConfig config) {
+        Surface surface = new DoubleSurface(config.getSurfaceWidth(), config.getSurfaceHeight());
+        for (int y = 0; y < surface.getHeight(); y++) {
+            for (int x = 0; x < surface.getWidth(); x++) {
+                double max = 0;
+                for (MapGenerationConfig.Signal signal : config.getSignals()) {
+                    double dx = x - (double) signal.getX();
+                    double dy = y - (double) signal.getY();
+                    double value = signal.getPikeValue() - Math.sqrt(dx * dx + dy * dy) * signal.getDegradationSpeed();
+                    if (value > max) {
+                        max = value;
+                    }
+                }
+                surface.set(x, y, max);
+            }
+        }
+        return surface;
+    }
+
+    static MapGenerationConfig config(int width, int height, int signalsCount, long seed) {
+        return MapGenerationConfig.builder()
+                .surfaceWidth(width)
+                .surfaceHeight(height)
+                .signals(MapGenerationConfig.randomSignals(width, height, signalsCount, 10, 0.02, 0.5,
+                        new Random(seed)))
+                .build();
+    }
+
+    static void assertBitIdentical(Surface expected, Surface actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(Double.doubleToRawLongBits(expected.get(x, y)),
+                        Double.doubleToRawLongBits(actual.get(x, y)), "x=" + x + ", y=" + y);
+            }
+        }
+    }
+}
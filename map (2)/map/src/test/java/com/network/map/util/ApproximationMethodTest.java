@@ -0,0 +1,146 @@
+package com.network.map.util;
+
+import com.network.map.MapGenerationConfig;
+import com.network.map.NetworkMap;
+import com.network.map.NetworkMapImpl;
+import com.network.map.genstrategy.GenerateClosedFormStrategy;
+import com.network.map.surface.Surface;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ApproximationMethodTest {
+
+    @ParameterizedTest
+    @EnumSource(ApproximationMethod.class)
+    void parallelApproximationMatchesSequential(ApproximationMethod method) {
+        NetworkMap map = generate(300, 200, 12);
+        for (int scale = 1; scale <= 2; scale++) {
+            Surface sequential = method.approximate(map, scale, 5, false);
+            Surface parallel = method.approximate(map, scale, 5, true);
+
+            assertEquals(sequential.getWidth(), parallel.getWidth());
+            assertEquals(sequential.getHeight(), parallel.getHeight());
+            for (int y = 0; y < sequential.getHeight(); y++) {
+                for (int x = 0; x < sequential.getWidth(); x++) {
+                    assertEquals(Double.doubleToRawLongBits(sequential.get(x, y)),
+                            Double.doubleToRawLongBits(parallel.get(x, y)),
+                            method + ", scale=" + scale + ", x=" + x + ", y=" + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    void monomialMatchesGaussianNormalEquations() {
+        int size = 120;
+        int pow = 4;
+        int scale = 2;
+        NetworkMap map = generate(size, size, 8);
+
+        Surface approximated = ApproximationMethod.MONOMIAL.approximate(map, scale, pow, false);
+        double[][] expected = gaussianApproximation(map.getSurfaceData(), pow, scale);
+
+        double tolerance = 1e-9 * maxAbs(expected);
+        for (int y = 0; y < size * scale; y++) {
+            for (int x = 0; x < size * scale; x++) {
+                assertEquals(expected[y][x], approximated.get(x, y), tolerance, "x=" + x + ", y=" + y);
+            }
+        }
+    }
+
+    /**
+     * Аппроксимация исходным способом: полиномы строк, затем полиномы
+     * столбцов по значениям строк, коэффициенты каждого полинома
+     * находятся из нормальной системы методом Гаусса
+     */
+    private static double[][] gaussianApproximation(Surface surface, int pow, int scale) {
+        int width = surface.getWidth();
+        int height = surface.getHeight();
+        double[][] rows = new double[height][width * scale];
+        for (int y = 0; y < height; y++) {
+            double[] values = new double[width];
+            for (int x = 0; x < width; x++) {
+                values[x] = surface.get(x, y);
+            }
+            double[] coefs = fitPolynom(values, pow);
+            for (int x = 0; x < width * scale; x++) {
+                rows[y][x] = evaluate(coefs, (double) x / scale);
+            }
+        }
+        double[][] result = new double[height * scale][width * scale];
+        for (int x = 0; x < width * scale; x++) {
+            double[] values = new double[height];
+            for (int y = 0; y < height; y++) {
+                values[y] = rows[y][x];
+            }
+            double[] coefs = fitPolynom(values, pow);
+            for (int y = 0; y < height * scale; y++) {
+                result[y][x] = evaluate(coefs, (double) y / scale);
+            }
+        }
+        return result;
+    }
+
+    private static double[] fitPolynom(double[] values, int pow) {
+        int n = pow + 1;
+        double[][] matrix = new double[n][n];
+        double[] b = new double[n];
+        for (int k = 0; k < values.length; k++) {
+            for (int i = 0; i < n; i++) {
+                b[i] += Math.pow(k, i) * values[k];
+                for (int j = 0; j < n; j++) {
+                    matrix[i][j] += Math.pow(k, i + j);
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int i = k + 1; i < n; i++) {
+                double m = matrix[i][k] / matrix[k][k];
+                for (int j = k; j < n; j++) {
+                    matrix[i][j] -= m * matrix[k][j];
+                }
+                b[i] -= m * b[k];
+            }
+        }
+        double[] coefs = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double s = 0;
+            for (int j = i + 1; j < n; j++) {
+                s += matrix[i][j] * coefs[j];
+            }
+            coefs[i] = (b[i] - s) / matrix[i][i];
+        }
+        return coefs;
+    }
+
+    private static double evaluate(double[] coefs, double x) {
+        double result = 0;
+        for (int i = coefs.length - 1; i >= 0; i--) {
+            result = result * x + coefs[i];
+        }
+        return result;
+    }
+
+    private static double maxAbs(double[][] values) {
+        double max = 0;
+        for (double[] row : values) {
+            for (double value : row) {
+                max = Math.max(max, Math.abs(value));
+            }
+        }
+        return max;
+    }
+
+    static NetworkMap generate(int width, int height, long seed) {
+        return new NetworkMapImpl(new GenerateClosedFormStrategy()).generate(MapGenerationConfig.builder()
+                .surfaceWidth(width)
+                .surfaceHeight(height)
+                .signals(MapGenerationConfig.randomSignals(width, height, 10, 10, 0.02, 0.3, new Random(seed)))
+                .build());
+    }
+}
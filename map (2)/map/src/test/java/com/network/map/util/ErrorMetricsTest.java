@@ -0,0 +1,87 @@
+package com.network.map.util;
+
+import com.network.map.NetworkMap;
+import com.network.map.surface.Surface;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ErrorMetricsTest {
+
+    @ParameterizedTest
+    @EnumSource(ApproximationMethod.class)
+    void parallelMetricsMatchSequential(ApproximationMethod method) {
+        // Высота больше одной полосы строк, чтобы полосы обрабатывались параллельно
+        NetworkMap map = generate(300, 200);
+        Surface approximated = method.approximate(map, 2, 5, false);
+        Surface lazy = new ApproximatedSurface(method.fit(map, 5, false), 3);
+
+        assertBitIdentical(ErrorMetrics.compute(map.getSurfaceData(), approximated, false),
+                ErrorMetrics.compute(map.getSurfaceData(), approximated, true));
+        assertBitIdentical(ErrorMetrics.compute(map.getSurfaceData(), lazy, false),
+                ErrorMetrics.compute(map.getSurfaceData(), lazy, true));
+    }
+
+    @Test
+    void metricsMatchNaiveComputation() {
+        NetworkMap map = generate(300, 200);
+        Surface surface = map.getSurfaceData();
+        SurfaceApproximation fitted = ApproximationMethod.MONOMIAL.fit(map, 5, false);
+        int scale = 3;
+        Surface approximated = new ApproximatedSurface(fitted, scale);
+        double binWidth = 0.001;
+        int binsCount = 50;
+
+        double sum = 0;
+        double absSum = 0;
+        double squaresSum = 0;
+        double max = -1;
+        int maxX = 0;
+        int maxY = 0;
+        long[] histogram = new long[binsCount];
+        for (int y = 0; y < surface.getHeight(); y++) {
+            for (int x = 0; x < surface.getWidth(); x++) {
+                double error = approximated.get(x * scale, y * scale) - surface.get(x, y);
+                sum += error;
+                absSum += Math.abs(error);
+                squaresSum += error * error;
+                if (Math.abs(error) > max) {
+                    max = Math.abs(error);
+                    maxX = x;
+                    maxY = y;
+                }
+                histogram[(int) Math.min(binsCount - 1, Math.abs(error) / binWidth)]++;
+            }
+        }
+        long count = (long) surface.getWidth() * surface.getHeight();
+
+        ErrorMetrics metrics = ErrorMetrics.compute(surface, approximated, binWidth, binsCount, true);
+        assertEquals(count, metrics.getCount());
+        assertEquals(Math.sqrt(squaresSum / count), metrics.getRmse(), 1e-12 * metrics.getRmse());
+        assertEquals(absSum / count, metrics.getMae(), 1e-12 * metrics.getMae());
+        assertEquals(sum / count, metrics.getBias(), 1e-12 * metrics.getMae());
+        assertEquals(max, metrics.getMaxAbsError(), 1e-12 * max);
+        assertEquals(maxX, metrics.getMaxErrorX());
+        assertEquals(maxY, metrics.getMaxErrorY());
+        assertArrayEquals(histogram, metrics.getHistogram());
+    }
+
+    private static void assertBitIdentical(ErrorMetrics expected, ErrorMetrics actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(Double.doubleToRawLongBits(expected.getRmse()), Double.doubleToRawLongBits(actual.getRmse()));
+        assertEquals(Double.doubleToRawLongBits(expected.getMae()), Double.doubleToRawLongBits(actual.getMae()));
+        assertEquals(Double.doubleToRawLongBits(expected.getBias()), Double.doubleToRawLongBits(actual.getBias()));
+        assertEquals(Double.doubleToRawLongBits(expected.getMaxAbsError()),
+                Double.doubleToRawLongBits(actual.getMaxAbsError()));
+        assertEquals(expected.getMaxErrorX(), actual.getMaxErrorX());
+        assertEquals(expected.getMaxErrorY(), actual.getMaxErrorY());
+        assertArrayEquals(expected.getHistogram(), actual.getHistogram());
+    }
+
+    private static NetworkMap generate(int width, int height) {
+        return ApproximationMethodTest.generate(width, height, 21);
+    }
+}